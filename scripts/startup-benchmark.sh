@@ -0,0 +1,92 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Repeatable startup benchmark: launches the service RUNS times and records, per run,
+#   - time to first request: process launch -> first HTTP 200 from PROBE_PATH (ms)
+#   - resident memory (VmRSS, MB) of the JVM at that moment
+# and writes the runs plus median/min/max as JSON. Linux only (reads /proc).
+#
+# Examples (after ./mvnw -Pprod -DskipTests package):
+#   LABEL=plain scripts/startup-benchmark.sh
+#   LABEL=aot JAVA_OPTS="-Dspring.aot.enabled=true" scripts/startup-benchmark.sh
+#   # AOT + CDS, using an extracted jar and archive as produced in the Dockerfile:
+#   LABEL=aot-cds JAR=/tmp/app/atypon-food-api-0.0.1-SNAPSHOT.jar \
+#     JAVA_OPTS="-Dspring.aot.enabled=true -XX:SharedArchiveFile=/tmp/app/application.jsa" scripts/startup-benchmark.sh
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+
+JAR="${JAR:-$(ls "${ROOT_DIR}"/target/atypon-food-api-*.jar 2>/dev/null | grep -v '\.original$' | head -n 1)}"
+RUNS="${RUNS:-5}"
+PORT="${PORT:-18093}"
+PROBE_PATH="${PROBE_PATH:-/actuator/health/liveness}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+APP_ARGS="${APP_ARGS:---spring.profiles.active=prod}"
+TIMEOUT_S="${TIMEOUT_S:-60}"
+LABEL="${LABEL:-default}"
+OUT="${OUT:-${ROOT_DIR}/target/startup/startup-${LABEL}.json}"
+
+if [[ -z "${JAR}" || ! -f "${JAR}" ]]; then
+  echo "No jar found; build first (./mvnw -Pprod -DskipTests package) or set JAR=..." >&2
+  exit 1
+fi
+mkdir -p "$(dirname "${OUT}")"
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+median() { sort -n | awk '{a[NR]=$1} END {if (NR % 2) print a[(NR+1)/2]; else print (a[NR/2] + a[NR/2+1]) / 2}'; }
+
+ttfr=()
+rss=()
+for run in $(seq 1 "${RUNS}"); do
+  start="$(now_ms)"
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS} -jar "${JAR}" --server.port="${PORT}" --cache.warmup.enabled=false ${APP_ARGS} >/dev/null 2>&1 &
+  pid=$!
+
+  elapsed=""
+  while kill -0 "${pid}" 2>/dev/null; do
+    code="$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:${PORT}${PROBE_PATH}" || true)"
+    if [[ "${code}" == "200" ]]; then
+      elapsed=$(( $(now_ms) - start ))
+      break
+    fi
+    if (( $(now_ms) - start > TIMEOUT_S * 1000 )); then
+      break
+    fi
+    sleep 0.05
+  done
+
+  rss_kb="$(awk '/^VmRSS:/ {print $2}' "/proc/${pid}/status" 2>/dev/null || echo 0)"
+  kill "${pid}" 2>/dev/null || true
+  wait "${pid}" 2>/dev/null || true
+
+  if [[ -z "${elapsed}" ]]; then
+    echo "run ${run}: no 200 from ${PROBE_PATH} within ${TIMEOUT_S}s" >&2
+    exit 1
+  fi
+  rss_mb=$(( rss_kb / 1024 ))
+  echo "run ${run}/${RUNS}: first request after ${elapsed} ms, rss ${rss_mb} MB"
+  ttfr+=("${elapsed}")
+  rss+=("${rss_mb}")
+done
+
+ttfr_median="$(printf '%s\n' "${ttfr[@]}" | median)"
+rss_median="$(printf '%s\n' "${rss[@]}" | median)"
+ttfr_min="$(printf '%s\n' "${ttfr[@]}" | sort -n | head -n 1)"
+ttfr_max="$(printf '%s\n' "${ttfr[@]}" | sort -n | tail -n 1)"
+
+join() { local IFS=,; echo "$*"; }
+cat > "${OUT}" <<JSON
+{
+  "label": "${LABEL}",
+  "jar": "$(basename "${JAR}")",
+  "javaOpts": "${JAVA_OPTS}",
+  "probe": "${PROBE_PATH}",
+  "runs": ${RUNS},
+  "timeToFirstRequestMs": { "median": ${ttfr_median}, "min": ${ttfr_min}, "max": ${ttfr_max}, "samples": [$(join "${ttfr[@]}")] },
+  "rssMb": { "median": ${rss_median}, "samples": [$(join "${rss[@]}")] }
+}
+JSON
+
+echo "time to first request: median ${ttfr_median} ms (min ${ttfr_min}, max ${ttfr_max}); rss median ${rss_median} MB"
+echo "wrote ${OUT}"
@@ -0,0 +1,86 @@
+package com.atypon.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) against the committed baseline and exits non-zero on regression.
+ *
+ * <p>Throughput depends on the machine, so it is only compared within a generous tolerance. Allocation per
+ * operation ({@code gc.alloc.rate.norm}) is largely machine-independent and is the stricter signal.</p>
+ *
+ * <pre>java JmhBaselineCompare baseline.json current.json [throughputTolerance=0.30] [allocTolerance=0.10]</pre>
+ */
+public final class JmhBaselineCompare {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    /** Absolute slack for allocation, so 0 B/op vs 16 B/op noise does not fail a build. */
+    private static final double ALLOC_SLACK_BYTES = 16.0;
+
+    private JmhBaselineCompare() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: JmhBaselineCompare <baseline.json> <current.json> [throughputTolerance] [allocTolerance]");
+            System.exit(2);
+        }
+        double throughputTolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.30;
+        double allocTolerance = args.length > 3 ? Double.parseDouble(args[3]) : 0.10;
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(mapper.readTree(new File(args[1])));
+
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %8s %12s %12s%n", "benchmark", "base ops", "curr ops", "delta", "base B/op", "curr B/op");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode base = baseline.get(e.getKey());
+            JsonNode curr = e.getValue();
+            double currScore = curr.path("primaryMetric").path("score").asDouble();
+            double currAlloc = curr.path("secondaryMetrics").path(ALLOC_NORM).path("score").asDouble(Double.NaN);
+            if (base == null) {
+                System.out.printf("%-75s %14s %14.1f %8s %12s %12.1f  (new)%n", e.getKey(), "-", currScore, "-", "-", currAlloc);
+                continue;
+            }
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double baseAlloc = base.path("secondaryMetrics").path(ALLOC_NORM).path("score").asDouble(Double.NaN);
+            double delta = baseScore == 0 ? 0 : (currScore - baseScore) / baseScore;
+
+            boolean slower = delta < -throughputTolerance;
+            boolean allocates = !Double.isNaN(baseAlloc) && !Double.isNaN(currAlloc)
+                    && currAlloc > baseAlloc * (1 + allocTolerance) + ALLOC_SLACK_BYTES;
+            String verdict = slower || allocates ? "  REGRESSION" : "";
+            if (!verdict.isEmpty()) {
+                regressions++;
+            }
+            System.out.printf("%-75s %14.1f %14.1f %+7.1f%% %12.1f %12.1f%s%n",
+                    e.getKey(), baseScore, currScore, delta * 100, baseAlloc, currAlloc, verdict);
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed against baseline");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> out = new LinkedHashMap<>();
+        for (JsonNode r : results) {
+            StringBuilder key = new StringBuilder(r.path("benchmark").asText().replace("com.atypon.", ""));
+            JsonNode params = r.path("params");
+            Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> p = it.next();
+                key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText());
+            }
+            out.put(key.toString(), r);
+        }
+        return out;
+    }
+}
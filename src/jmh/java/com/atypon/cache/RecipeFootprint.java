@@ -0,0 +1,119 @@
+package com.atypon.cache;
+
+import com.atypon.model.Ingredient;
+import com.atypon.model.Nutrition;
+import com.atypon.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Heap footprint of cached recipes: the {@link Recipe} object graph as Jackson builds it (every name and unit a
+ * separate string) against {@link CompactRecipe} with a shared {@link StringInterner}, for the same synthetic
+ * recipes (Spoonacular-like: 6-18 ingredients from a vocabulary of a few thousand names, nutrition per ingredient).
+ *
+ * <p>Not a JMH benchmark: JMH measures time and allocation rate, not retained size. Retained heap is measured after
+ * repeated full GCs, so run it in a quiet JVM and read the numbers as approximate:</p>
+ * <pre>./mvnw -Pjmh -DskipTests test-compile exec:java@recipe-footprint -Dfootprint.recipes=100000</pre>
+ * <p>Writes {@code target/footprint/recipe-footprint.json}.</p>
+ */
+public final class RecipeFootprint {
+
+    private static final String[] UNITS = {"g", "kg", "ml", "l", "cup", "cups", "tbsp", "tsp", "oz", "lb", "pinch",
+            "clove", "cloves", "slice", "slices", "can", "large", "medium", "small", ""};
+    private static final String[] WORDS = {"fresh", "dried", "chopped", "ground", "red", "green", "white", "black",
+            "sweet", "smoked", "unsalted", "extra virgin", "low fat", "whole"};
+    private static final String[] BASES = {"onion", "garlic", "tomato", "butter", "flour", "sugar", "salt", "pepper",
+            "olive oil", "chicken breast", "rice", "pasta", "milk", "egg", "parsley", "basil", "lemon juice",
+            "cheddar", "parmesan", "carrot", "celery", "potato", "beef broth", "cumin", "paprika", "ginger",
+            "soy sauce", "honey", "vinegar", "spinach", "mushroom", "bell pepper", "cream", "yogurt", "oats"};
+
+    private RecipeFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int n = Integer.getInteger("footprint.recipes", 100_000);
+        long seed = Long.getLong("footprint.seed", 42L);
+
+        long base = usedHeap();
+        List<Recipe> recipes = generate(n, seed);
+        long modelBytes = usedHeap() - base;
+
+        long payloadBytes = 0;
+        ObjectMapper mapper = new ObjectMapper();
+        for (int i = 0; i < n; i += 100) {
+            payloadBytes += mapper.writeValueAsBytes(recipes.get(i)).length;
+        }
+        long payloadPerRecipe = payloadBytes / ((n + 99) / 100);
+
+        StringInterner interner = new StringInterner(100_000);
+        CompactRecipe[] compact = new CompactRecipe[n];
+        for (int i = 0; i < n; i++) {
+            compact[i] = CompactRecipe.of(recipes.get(i), interner);
+        }
+        recipes = null; // only the compact form (and the dictionary) stays reachable
+        long compactBytes = usedHeap() - base;
+
+        double modelPer = (double) modelBytes / n;
+        double compactPer = (double) compactBytes / n;
+        String json = String.format(Locale.ROOT, """
+                {
+                  "recipes": %d,
+                  "jsonPayloadBytesPerRecipe": %d,
+                  "recipeModel": { "totalBytes": %d, "bytesPerRecipe": %.1f },
+                  "compact": { "totalBytes": %d, "bytesPerRecipe": %.1f, "internedStrings": %d },
+                  "ratio": %.2f
+                }
+                """, n, payloadPerRecipe, modelBytes, modelPer, compactBytes, compactPer, interner.size(),
+                modelPer / compactPer);
+
+        Path out = Path.of("target", "footprint", "recipe-footprint.json");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, json);
+        System.out.printf(Locale.ROOT, "%d recipes, JSON payload ~%d B each%n", n, payloadPerRecipe);
+        System.out.printf(Locale.ROOT, "Recipe model:  %.1f B/recipe%n", modelPer);
+        System.out.printf(Locale.ROOT, "CompactRecipe: %.1f B/recipe (%d interned strings), %.2fx smaller%n",
+                compactPer, interner.size(), modelPer / compactPer);
+        System.out.println("wrote " + out);
+        if (compact.length != n) {
+            throw new IllegalStateException(); // keeps the array reachable until after the measurement
+        }
+    }
+
+    static List<Recipe> generate(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Recipe> recipes = new ArrayList<>(n);
+        for (int id = 1; id <= n; id++) {
+            int count = 6 + random.nextInt(13);
+            List<Ingredient> ingredients = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                // new String instances per occurrence, as deserializing separate responses produces
+                String name = new String(WORDS[random.nextInt(WORDS.length)] + " "
+                        + BASES[random.nextInt(BASES.length)] + (random.nextInt(4) == 0 ? " " + random.nextInt(20) : ""));
+                String unit = new String(UNITS[random.nextInt(UNITS.length)]);
+                double amount = Math.round(random.nextDouble() * 500) / 2.0;
+                ingredients.add(new Ingredient(name, amount, unit, new Nutrition(Math.round(random.nextDouble() * 400))));
+            }
+            recipes.add(new Recipe(id, "Recipe number " + id, ingredients, new Nutrition(random.nextInt(2_000))));
+        }
+        return recipes;
+    }
+
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            used = Math.min(used, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
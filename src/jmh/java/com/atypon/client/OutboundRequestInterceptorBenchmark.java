@@ -0,0 +1,84 @@
+package com.atypon.client;
+
+import com.atypon.config.HttpClientProperties;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.config.SpoonacularHealthProperties;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of outbound metrics recording.
+ *
+ * <p>{@code legacyBuilderPerCall} reproduces the previous behaviour (builder + registry lookup on every call,
+ * raw path tag) so the two can be compared in one run.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboundRequestInterceptorBenchmark {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private OutboundRequestInterceptor interceptor;
+    private MeterRegistry legacyRegistry;
+    private MockClientHttpRequest request;
+    private ClientHttpRequestExecution execution;
+
+    @Setup
+    public void setUp() {
+        SpoonacularQuota quota = new SpoonacularQuota(new SimpleMeterRegistry());
+        interceptor = new OutboundRequestInterceptor(new SimpleMeterRegistry(), new HttpClientProperties(),
+                new OutboundTrafficStats(new SpoonacularHealthProperties()), quota,
+                new ApiKeyPool(new SpoonacularConfig(), quota, RateLimiterRegistry.ofDefaults(), new SimpleMeterRegistry()));
+        legacyRegistry = new SimpleMeterRegistry();
+        request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("https://api.spoonacular.com/recipes/716429/information?includeNutrition=true"));
+        MockClientHttpResponse response = new MockClientHttpResponse(EMPTY, HttpStatus.OK);
+        execution = (req, body) -> response;
+    }
+
+    @Benchmark
+    public ClientHttpResponse intercept() throws IOException {
+        return interceptor.intercept(request, EMPTY, execution);
+    }
+
+    @Benchmark
+    public ClientHttpResponse legacyBuilderPerCall() throws IOException {
+        URI uri = request.getURI();
+        long start = System.nanoTime();
+        ClientHttpResponse response = execution.execute(request, EMPTY);
+        Timer.builder("http.client.requests")
+                .tag("host", uri.getHost())
+                .tag("path", uri.getPath())
+                .tag("method", request.getMethod().name())
+                .tag("status", String.valueOf(response.getStatusCode().value()))
+                .register(legacyRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return response;
+    }
+}
@@ -0,0 +1,52 @@
+package com.atypon.idempotency;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InMemoryIdempotencyStore#getOrCreate} under contention: 4 threads over a pre-filled store of
+ * {@code 5000} keys (the default {@code idempotency.max-entries}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class IdempotencyStoreBenchmark {
+
+    private static final int KEYS = 5000;
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private InMemoryIdempotencyStore store;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        store = new InMemoryIdempotencyStore();
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+            store.getOrCreate(keys[i], "fp", TTL);
+        }
+    }
+
+    @Benchmark
+    public IdempotencyEntry getOrCreate() {
+        return store.getOrCreate(keys[ThreadLocalRandom.current().nextInt(KEYS)], "fp", TTL);
+    }
+}
@@ -0,0 +1,144 @@
+package com.atypon.service;
+
+import com.atypon.cache.RecipeCaches;
+import com.atypon.client.ApiKeyPool;
+import com.atypon.client.PeerCacheClient;
+import com.atypon.client.SpoonacularClient;
+import com.atypon.client.SpoonacularQuota;
+import com.atypon.config.DeadlineProperties;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.model.ExcludeRequest;
+import com.atypon.model.Ingredient;
+import com.atypon.model.Nutrition;
+import com.atypon.model.Recipe;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level hot path with the upstream replaced by an in-memory stub:
+ * calorie computation over a 12-ingredient recipe, and search result mapping (with and without JSON parsing).
+ * {@code searchParseAndMapping} stubs only the {@link RestTemplate}, so the production client parses the raw body
+ * (with its key pool, bulkhead and retry wrapper) before the service maps it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpoonacularServiceBenchmark {
+
+    private SpoonacularService service;
+    private SpoonacularService parsingService;
+    private ExcludeRequest exclude;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String searchBody = BenchmarkPayloads.searchJson(10);
+        JsonNode searchNode = objectMapper.readTree(searchBody);
+        Recipe recipe = BenchmarkPayloads.recipe(716429, 12);
+
+        SpoonacularClient stub = new SpoonacularClient(null, null, null, null, null, BulkheadRegistry.ofDefaults(),
+                RetryRegistry.ofDefaults(), new DeadlineProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public ResponseEntity<JsonNode> search(String query, String cuisine) {
+                return new ResponseEntity<>(searchNode, HttpStatus.OK);
+            }
+
+            @Override
+            public ResponseEntity<Recipe> recipeInfo(int recipeId) {
+                return new ResponseEntity<>(recipe, HttpStatus.OK);
+            }
+        };
+        service = new SpoonacularService(stub, RecipeCaches.disabled(), RecipePrefetcher.disabled(),
+                PeerCacheClient.disabled());
+        exclude = new ExcludeRequest(List.of("Cheese", "Salt"));
+
+        RestTemplate upstream = new RestTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> ResponseEntity<T> exchange(URI url, HttpMethod method, HttpEntity<?> requestEntity,
+                                                  Class<T> responseType) {
+                return (ResponseEntity<T>) new ResponseEntity<>(searchBody, HttpStatus.OK);
+            }
+        };
+        SpoonacularConfig config = new SpoonacularConfig();
+        config.setBaseUrl("https://api.spoonacular.com");
+        config.setApiKey("benchmark");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ApiKeyPool keys = new ApiKeyPool(config, new SpoonacularQuota(registry), RateLimiterRegistry.ofDefaults(),
+                registry);
+        SpoonacularClient client = new SpoonacularClient(upstream, config, objectMapper, null, keys,
+                BulkheadRegistry.ofDefaults(), RetryRegistry.ofDefaults(), new DeadlineProperties(), registry);
+        parsingService = new SpoonacularService(client, RecipeCaches.disabled(), RecipePrefetcher.disabled(),
+                PeerCacheClient.disabled());
+    }
+
+    @Benchmark
+    public double getCustomizedCalories() {
+        return service.getCustomizedCalories(716429, exclude);
+    }
+
+    @Benchmark
+    public List<Recipe> searchMapping() {
+        return service.searchRecipes("pasta", "italian");
+    }
+
+    @Benchmark
+    public List<Recipe> searchParseAndMapping() {
+        return parsingService.searchRecipes("pasta", "italian");
+    }
+
+    static final class BenchmarkPayloads {
+
+        private static final String[] NAMES = {"Pasta", "Cheese", "Olive oil", "Garlic", "Salt", "Basil",
+                "Tomato", "Onion", "Butter", "Pepper", "Parsley", "Lemon"};
+
+        static Recipe recipe(int id, int ingredients) {
+            List<Ingredient> list = new ArrayList<>();
+            for (int i = 0; i < ingredients; i++) {
+                list.add(new Ingredient(NAMES[i % NAMES.length], 10 + i, "grams", new Nutrition(20 + i)));
+            }
+            return new Recipe(id, "Recipe " + id, list, new Nutrition(640));
+        }
+
+        static String searchJson(int results) {
+            StringBuilder sb = new StringBuilder("{\"results\":[");
+            for (int i = 0; i < results; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"id\":").append(600000 + i)
+                        .append(",\"title\":\"Pasta with garlic, scallions, cauliflower and breadcrumbs ").append(i)
+                        .append("\",\"image\":\"https://img.spoonacular.com/recipes/").append(600000 + i)
+                        .append("-312x231.jpg\",\"imageType\":\"jpg\"}");
+            }
+            return sb.append("],\"offset\":0,\"number\":").append(results).append(",\"totalResults\":86}").toString();
+        }
+    }
+}
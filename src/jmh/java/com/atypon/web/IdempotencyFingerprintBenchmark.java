@@ -0,0 +1,50 @@
+package com.atypon.web;
+
+import com.atypon.config.IdempotencyProperties;
+import com.atypon.idempotency.InMemoryIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IdempotencyFilter} request fingerprint (method, URI, query, content type, SHA-256 of the body).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyFingerprintBenchmark {
+
+    private IdempotencyFilter filter;
+    private MockHttpServletRequest request;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        filter = new IdempotencyFilter(new IdempotencyProperties(), new InMemoryIdempotencyStore(), new SimpleMeterRegistry());
+        body = "{\"excludeIngredients\":[\"Cheese\",\"Olive oil\",\"Salt\"]}".getBytes(StandardCharsets.UTF_8);
+        request = new MockHttpServletRequest("POST", "/api/recipes/calories");
+        request.setQueryString("recipeId=716429");
+        request.setContentType("application/json");
+        request.setContent(body);
+    }
+
+    @Benchmark
+    public String fingerprint() {
+        return filter.fingerprint(request, body);
+    }
+}
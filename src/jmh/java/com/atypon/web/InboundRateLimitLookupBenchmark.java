@@ -0,0 +1,55 @@
+package com.atypon.web;
+
+import com.atypon.config.InboundRateLimitProperties;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request client accounting in {@link InboundRateLimitFilter} (heavy-hitter sketch plus bucket lookup) with 4
+ * request threads and a client population that either fits ({@code 1000}) or overflows ({@code 20000}) the default
+ * {@code sketch-capacity}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class InboundRateLimitLookupBenchmark {
+
+    @Param({"1000", "20000"})
+    public int clients;
+
+    private InboundRateLimitFilter filter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        filter = new InboundRateLimitFilter(new InboundRateLimitProperties(), new SimpleMeterRegistry());
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "10." + (i >> 16 & 0xff) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public RateLimiter getLimiter() {
+        return filter.charge(keys[ThreadLocalRandom.current().nextInt(keys.length)], 1, 0);
+    }
+}
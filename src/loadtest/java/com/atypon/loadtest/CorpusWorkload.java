@@ -0,0 +1,98 @@
+package com.atypon.loadtest;
+
+import com.atypon.client.TrafficCorpus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Request targets drawn from a recorded {@link TrafficCorpus}: recipe IDs and search queries are sampled in
+ * proportion to how often they were requested while recording, so the load test sees the real popularity skew.
+ */
+final class CorpusWorkload {
+
+    private static final Pattern INFO = Pattern.compile("GET /recipes/(\\d+)/information(\\?.*)?");
+    private static final String SEARCH = "GET /recipes/complexSearch?";
+
+    private final int[] recipeIds;
+    private final double[] recipeCdf;
+    private final String[] searchQueries;
+    private final double[] searchCdf;
+
+    private CorpusWorkload(int[] recipeIds, double[] recipeCdf, String[] searchQueries, double[] searchCdf) {
+        this.recipeIds = recipeIds;
+        this.recipeCdf = recipeCdf;
+        this.searchQueries = searchQueries;
+        this.searchCdf = searchCdf;
+    }
+
+    static CorpusWorkload from(TrafficCorpus corpus) {
+        List<Integer> ids = new ArrayList<>();
+        List<Long> idHits = new ArrayList<>();
+        List<String> queries = new ArrayList<>();
+        List<Long> queryHits = new ArrayList<>();
+        for (TrafficCorpus.Entry e : corpus.entries()) {
+            Matcher m = INFO.matcher(e.key());
+            if (m.matches() && e.status() == 200) {
+                ids.add(Integer.parseInt(m.group(1)));
+                idHits.add(e.hits());
+            } else if (e.key().startsWith(SEARCH)) {
+                // the corpus key already holds the query string our search endpoint takes (query, cuisine)
+                queries.add(e.key().substring(SEARCH.length()));
+                queryHits.add(e.hits());
+            }
+        }
+        if (ids.isEmpty() || queries.isEmpty()) {
+            throw new IllegalArgumentException("Corpus needs recorded recipe information and search requests");
+        }
+        return new CorpusWorkload(ids.stream().mapToInt(Integer::intValue).toArray(), cdf(idHits),
+                queries.toArray(String[]::new), cdf(queryHits));
+    }
+
+    int recipeId() {
+        return recipeIds[sample(recipeCdf)];
+    }
+
+    String searchQuery() {
+        return searchQueries[sample(searchCdf)];
+    }
+
+    int distinctRecipes() {
+        return recipeIds.length;
+    }
+
+    int distinctSearches() {
+        return searchQueries.length;
+    }
+
+    private static double[] cdf(List<Long> weights) {
+        double[] cdf = new double[weights.size()];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            sum += Math.max(1, weights.get(i));
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf) {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int lo = 0;
+        int hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < u) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,336 @@
+package com.atypon.loadtest;
+
+import com.atypon.AtyponFoodApiApplication;
+import com.atypon.client.TrafficCorpus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: starts the application against {@link SpoonacularStub} (or, with {@code loadtest.corpus},
+ * replaying a recorded {@link TrafficCorpus} with its real payloads, popularity and latencies) and drives
+ * open-model traffic.
+ *
+ * <p>Requests are issued at a constant arrival rate regardless of how fast responses come back, and latency is
+ * measured from each request's <em>intended</em> send time, so a stalled server shows up as latency instead of
+ * silently lowering the offered load (no coordinated omission). Results for the measurement window (after
+ * warm-up) are written as JSON to {@code loadtest.output}.</p>
+ *
+ * <pre>./mvnw -Ploadtest -DskipTests test-compile exec:java -Dloadtest.rate=300 -Dstub.latency.p99=800ms</pre>
+ * <pre>./mvnw -Ploadtest -DskipTests test-compile exec:java -Dloadtest.corpus=target/corpus/spoonacular.corpus</pre>
+ */
+public final class LoadTestRunner {
+
+    private enum Endpoint { search, info, calories }
+
+    private static final byte[] CALORIES_BODY = "{\"excludeIngredients\":[\"Cheese\"]}".getBytes(StandardCharsets.UTF_8);
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("loadtest.rate", 100);
+        Duration duration = duration("loadtest.duration", "30s");
+        Duration warmup = duration("loadtest.warmup", "5s");
+        Duration timeout = duration("loadtest.timeout", "5s");
+        int maxOutstanding = Integer.getInteger("loadtest.max-outstanding", 512);
+        int recipeIds = Integer.getInteger("loadtest.recipe-ids", 1000);
+        double zipf = Double.parseDouble(System.getProperty("loadtest.zipf", "1.0"));
+        String mix = System.getProperty("loadtest.mix", "search:50,info:40,calories:10");
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+        String corpusFile = System.getProperty("loadtest.corpus", "");
+        CorpusWorkload workload = corpusFile.isBlank() ? null
+                : CorpusWorkload.from(TrafficCorpus.read(Path.of(corpusFile)));
+
+        Duration stubMedian = duration("stub.latency.median", "50ms");
+        Duration stubP99 = duration("stub.latency.p99", "400ms");
+        double stubErrorRate = Double.parseDouble(System.getProperty("stub.error-rate", "0.01"));
+        int stubErrorStatus = Integer.getInteger("stub.error-status", 500);
+        int stubIngredients = Integer.getInteger("stub.ingredients", 12);
+
+        Endpoint[] schedule = schedule(mix);
+        double[] idCdf = zipfCdf(recipeIds, zipf);
+
+        try (SpoonacularStub stub = workload != null ? null : new SpoonacularStub(stubMedian.toMillis(),
+                stubP99.toMillis(), stubErrorRate, stubErrorStatus, stubIngredients)) {
+
+            Map<String, Object> appProps = new LinkedHashMap<>();
+            appProps.put("server.port", 0);
+            if (stub != null) {
+                appProps.put("spoonacular.base-url", stub.baseUrl());
+            } else {
+                // answered from the corpus by TrafficCorpusInterceptor; nothing leaves the machine
+                appProps.put("spoonacular.base-url", "http://spoonacular.replay.invalid");
+                appProps.put("http.client.corpus.mode", "replay");
+                appProps.put("http.client.corpus.file", corpusFile);
+            }
+            appProps.put("spoonacular.api-key", "loadtest");
+            appProps.put("rate-limits.inbound.enabled", false);
+            appProps.put("logging.level.root", "WARN");
+            appProps.put("logging.level.org.springframework.web.client.RestTemplate", "WARN");
+            appProps.putAll(extraAppProperties(System.getProperty("loadtest.app-properties", "")));
+
+            // Passed as command-line args so they take precedence over application.yaml.
+            String[] appArgs = appProps.entrySet().stream()
+                    .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                    .toArray(String[]::new);
+            ConfigurableApplicationContext app = new SpringApplicationBuilder(AtyponFoodApiApplication.class)
+                    .run(appArgs);
+            // Blocking clients on a fixed worker pool: each worker handles one request at a time, the arrival
+            // schedule is kept by the main thread. When every worker is busy the request is dropped and counted.
+            ThreadPoolExecutor workers = new ThreadPoolExecutor(maxOutstanding, maxOutstanding, 30, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), r -> {
+                        Thread t = new Thread(r, "loadtest-client");
+                        t.setDaemon(true);
+                        return t;
+                    });
+            try {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                String base = "http://127.0.0.1:" + port + "/api/recipes";
+
+                Recorder recorder = new Recorder(TimeUnit.SECONDS.toMicros(60), 3);
+                Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+                LongAdder sent = new LongAdder();
+                LongAdder completed = new LongAdder();
+                LongAdder dropped = new LongAdder();
+
+                long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+                long start = System.nanoTime();
+                long measureFrom = start + warmup.toNanos();
+                long end = measureFrom + duration.toNanos();
+
+                System.out.printf("Offering %d req/s for %s (+%s warm-up) against %s%n", rate, duration, warmup, base);
+                for (long i = 0; ; i++) {
+                    long intended = start + i * intervalNanos;
+                    if (intended >= end) {
+                        break;
+                    }
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    boolean measured = intended >= measureFrom;
+                    Endpoint endpoint = schedule[(int) (i % schedule.length)];
+                    int recipeId = workload != null ? workload.recipeId() : sampleId(idCdf);
+                    String searchQuery = workload != null ? workload.searchQuery()
+                            : "query=pasta" + (recipeId % 50) + "&cuisine=italian";
+                    try {
+                        workers.execute(() -> {
+                            String status;
+                            try {
+                                status = String.valueOf(call(base, endpoint, recipeId, searchQuery, timeout));
+                            } catch (Exception e) {
+                                status = e.getClass().getSimpleName();
+                            }
+                            if (!measured) {
+                                return;
+                            }
+                            long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                            recorder.recordValue(Math.min(latencyMicros, TimeUnit.SECONDS.toMicros(60)));
+                            statuses.computeIfAbsent(endpoint + ":" + status, k -> new LongAdder()).increment();
+                            completed.increment();
+                        });
+                        if (measured) {
+                            sent.increment();
+                        }
+                    } catch (RejectedExecutionException e) {
+                        if (measured) {
+                            dropped.increment();
+                        }
+                    }
+                }
+
+                long drainDeadline = System.nanoTime() + timeout.toNanos() * 2;
+                while (workers.getActiveCount() > 0 && System.nanoTime() < drainDeadline) {
+                    Thread.sleep(10);
+                }
+
+                Histogram h = recorder.getIntervalHistogram();
+                Map<String, Object> report = new LinkedHashMap<>();
+                report.put("timestamp", Instant.now().toString());
+                Map<String, Object> config = new LinkedHashMap<>();
+                config.put("rate", rate);
+                config.put("durationSeconds", duration.toSeconds());
+                config.put("warmupSeconds", warmup.toSeconds());
+                config.put("mix", mix);
+                if (workload != null) {
+                    config.put("corpus", Map.of(
+                            "file", corpusFile,
+                            "recipes", workload.distinctRecipes(),
+                            "searches", workload.distinctSearches()));
+                } else {
+                    config.put("recipeIds", recipeIds);
+                    config.put("zipf", zipf);
+                    config.put("stub", Map.of(
+                            "latencyMedianMs", stubMedian.toMillis(),
+                            "latencyP99Ms", stubP99.toMillis(),
+                            "errorRate", stubErrorRate,
+                            "errorStatus", stubErrorStatus,
+                            "ingredients", stubIngredients));
+                }
+                report.put("config", config);
+                Map<String, Object> results = new LinkedHashMap<>();
+                results.put("sent", sent.sum());
+                results.put("completed", completed.sum());
+                results.put("droppedClientSide", dropped.sum());
+                results.put("throughputRps", completed.sum() / (double) Math.max(1, duration.toSeconds()));
+                Map<String, Double> latency = new LinkedHashMap<>();
+                latency.put("p50", h.getValueAtPercentile(50) / 1000.0);
+                latency.put("p90", h.getValueAtPercentile(90) / 1000.0);
+                latency.put("p99", h.getValueAtPercentile(99) / 1000.0);
+                latency.put("p999", h.getValueAtPercentile(99.9) / 1000.0);
+                latency.put("max", h.getMaxValue() / 1000.0);
+                latency.put("mean", h.getMean() / 1000.0);
+                results.put("latencyMs", latency);
+                Map<String, Long> statusCounts = new TreeMap<>();
+                statuses.forEach((k, v) -> statusCounts.put(k, v.sum()));
+                results.put("statuses", statusCounts);
+                if (stub != null) {
+                    results.put("upstreamCalls", Map.of("search", stub.searchCalls.sum(), "information", stub.infoCalls.sum()));
+                } else {
+                    MeterRegistry meters = app.getBean(MeterRegistry.class);
+                    results.put("upstreamCalls", Map.of(
+                            "replayed", meters.get("http.client.corpus").tag("result", "hit").counter().count(),
+                            "notInCorpus", meters.get("http.client.corpus").tag("result", "miss").counter().count()));
+                }
+                report.put("results", results);
+
+                Files.createDirectories(output);
+                Path file = output.resolve("loadtest-" + System.currentTimeMillis() + ".json");
+                ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+                mapper.writeValue(file.toFile(), report);
+                System.out.println(mapper.writeValueAsString(results));
+                System.out.println("Report written to " + file);
+            } finally {
+                workers.shutdownNow();
+                app.close();
+            }
+        }
+    }
+
+    private static int call(String base, Endpoint endpoint, int recipeId, String searchQuery, Duration timeout)
+            throws Exception {
+        String url = switch (endpoint) {
+            case search -> base + "/search?" + searchQuery;
+            case info -> base + "/recipe-info?recipeId=" + recipeId;
+            case calories -> base + "/calories?recipeId=" + recipeId;
+        };
+        HttpURLConnection conn = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        conn.setConnectTimeout((int) timeout.toMillis());
+        conn.setReadTimeout((int) timeout.toMillis());
+        if (endpoint == Endpoint.calories) {
+            conn.setRequestMethod("POST");
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(CALORIES_BODY);
+            }
+        }
+        int status = conn.getResponseCode();
+        try (InputStream in = status >= 400 ? conn.getErrorStream() : conn.getInputStream()) {
+            if (in != null) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+        return status;
+    }
+
+    /** Interleaved endpoint schedule from a weighted mix such as {@code search:50,info:40,calories:10}. */
+    private static Endpoint[] schedule(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        int total = 0;
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            int w = Integer.parseInt(kv[1].trim());
+            weights.put(Endpoint.valueOf(kv[0].trim()), w);
+            total += w;
+        }
+        Endpoint[] out = new Endpoint[total];
+        int[] given = new int[Endpoint.values().length];
+        for (int slot = 0; slot < total; slot++) {
+            // Pick the endpoint furthest behind its share so the mix is spread evenly over time.
+            Endpoint best = null;
+            double bestDeficit = Double.NEGATIVE_INFINITY;
+            for (Map.Entry<Endpoint, Integer> e : weights.entrySet()) {
+                double deficit = (slot + 1) * e.getValue() / (double) total - given[e.getKey().ordinal()];
+                if (deficit > bestDeficit) {
+                    bestDeficit = deficit;
+                    best = e.getKey();
+                }
+            }
+            given[best.ordinal()]++;
+            out[slot] = best;
+        }
+        return out;
+    }
+
+    private static double[] zipfCdf(int n, double s) {
+        double[] cdf = new double[Math.max(1, n)];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            sum += 1.0 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sampleId(double[] cdf) {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int lo = 0;
+        int hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < u) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return 1000 + lo;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+
+    private static Map<String, Object> extraAppProperties(String spec) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (String kv : spec.split(";")) {
+            int eq = kv.indexOf('=');
+            if (eq > 0) {
+                out.put(kv.substring(0, eq).trim(), kv.substring(eq + 1).trim());
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,155 @@
+package com.atypon.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the two Spoonacular endpoints we call, so load tests need neither Docker WireMock nor
+ * real quota.
+ *
+ * <p>Every response waits for a sample from a log-normal latency distribution (given by its median and p99)
+ * and fails with {@code errorStatus} at {@code errorRate}. Recipe payloads only use fields our model knows, as
+ * the app deserializes with {@code fail-on-unknown-properties}.</p>
+ */
+public final class SpoonacularStub implements AutoCloseable {
+
+    private static final String[] NAMES = {"Pasta", "Cheese", "Olive oil", "Garlic", "Salt", "Basil", "Tomato",
+            "Onion", "Butter", "Pepper", "Parsley", "Lemon", "Flour", "Egg", "Milk", "Sugar"};
+    private static final String[] UNITS = {"grams", "tbsp", "tsp", "cup", "piece", "ml"};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final double mu;
+    private final double sigma;
+    private final double errorRate;
+    private final int errorStatus;
+    private final int ingredients;
+
+    final LongAdder searchCalls = new LongAdder();
+    final LongAdder infoCalls = new LongAdder();
+
+    public SpoonacularStub(long medianMillis, long p99Millis, double errorRate, int errorStatus, int ingredients)
+            throws IOException {
+        this.mu = Math.log(Math.max(1, medianMillis));
+        // z(0.99) = 2.326; p99 == median gives a fixed latency.
+        this.sigma = Math.max(0, (Math.log(Math.max(medianMillis, p99Millis)) - mu) / 2.326);
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.ingredients = ingredients;
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "spoonacular-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/recipes/", this::handle);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            sleep();
+
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                write(exchange, errorStatus, "{\"status\":\"failure\",\"code\":" + errorStatus + "}");
+                return;
+            }
+            if (path.equals("/recipes/complexSearch")) {
+                searchCalls.increment();
+                write(exchange, 200, searchJson(10));
+                return;
+            }
+            if (path.startsWith("/recipes/") && path.endsWith("/information")) {
+                infoCalls.increment();
+                String id = path.substring("/recipes/".length(), path.length() - "/information".length());
+                try {
+                    write(exchange, 200, recipeJson(Integer.parseInt(id)));
+                } catch (NumberFormatException e) {
+                    write(exchange, 404, "{\"status\":\"failure\",\"code\":404}");
+                }
+                return;
+            }
+            write(exchange, 404, "{\"status\":\"failure\",\"code\":404}");
+        }
+    }
+
+    private void sleep() {
+        double z = ThreadLocalRandom.current().nextGaussian();
+        long millis = Math.round(Math.exp(mu + sigma * z));
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void write(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String searchJson(int results) {
+        StringBuilder sb = new StringBuilder("{\"results\":[");
+        int base = ThreadLocalRandom.current().nextInt(1, 1_000_000);
+        for (int i = 0; i < results; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(base + i)
+                    .append(",\"title\":\"Recipe ").append(base + i)
+                    .append("\",\"image\":\"https://img.spoonacular.com/recipes/").append(base + i)
+                    .append("-312x231.jpg\",\"imageType\":\"jpg\"}");
+        }
+        return sb.append("],\"offset\":0,\"number\":").append(results).append(",\"totalResults\":1000}").toString();
+    }
+
+    private String recipeJson(int id) {
+        // Deterministic per ID so repeated fetches return identical payloads.
+        Random r = new Random(id);
+        StringBuilder sb = new StringBuilder("{\"id\":").append(id)
+                .append(",\"title\":\"Recipe ").append(id).append("\",\"extendedIngredients\":[");
+        double total = 0;
+        for (int i = 0; i < ingredients; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            double calories = Math.round(r.nextDouble() * 300 * 100) / 100.0;
+            total += calories;
+            sb.append("{\"name\":\"").append(NAMES[r.nextInt(NAMES.length)])
+                    .append("\",\"amount\":").append(1 + r.nextInt(500))
+                    .append(",\"unit\":\"").append(UNITS[r.nextInt(UNITS.length)])
+                    .append("\",\"nutrition\":{\"calories\":").append(calories).append("}}");
+        }
+        return sb.append("],\"nutrition\":{\"calories\":").append(Math.round(total)).append("}}").toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
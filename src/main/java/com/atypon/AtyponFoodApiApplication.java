@@ -1,5 +1,7 @@
 package com.atypon;
 
+import io.swagger.v3.oas.annotations.OpenAPIDefinition;
+import io.swagger.v3.oas.annotations.servers.Server;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
@@ -8,6 +10,8 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 		org.springframework.boot.autoconfigure.web.servlet.error.ErrorMvcAutoConfiguration.class
 })
 @ConfigurationPropertiesScan(basePackages = "com.atypon")
+// relative server URL: the document is also generated at build time and served from wherever the app runs
+@OpenAPIDefinition(servers = @Server(url = "/"))
 public class AtyponFoodApiApplication {
 
 	public static void main(String[] args) {
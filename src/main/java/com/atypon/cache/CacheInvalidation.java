@@ -0,0 +1,23 @@
+package com.atypon.cache;
+
+/**
+ * One invalidation as sent between replicas: either a recipe ID or a search query pattern (see
+ * {@link CacheInvalidationBus}). Plain data so any transport can serialize it (e.g. as JSON).
+ *
+ * @param kind           what {@code target} refers to
+ * @param target         the recipe ID, or a query pattern where {@code *} matches any characters
+ * @param origin         node ID of the replica that issued it
+ * @param issuedAtMillis wall-clock time it was issued; receivers derive delivery lag from it
+ */
+public record CacheInvalidation(Kind kind, String target, String origin, long issuedAtMillis) {
+
+    public enum Kind { RECIPE, SEARCH }
+
+    public static CacheInvalidation recipe(int recipeId, String origin) {
+        return new CacheInvalidation(Kind.RECIPE, String.valueOf(recipeId), origin, System.currentTimeMillis());
+    }
+
+    public static CacheInvalidation searches(String queryPattern, String origin) {
+        return new CacheInvalidation(Kind.SEARCH, queryPattern, origin, System.currentTimeMillis());
+    }
+}
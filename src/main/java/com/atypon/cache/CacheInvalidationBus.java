@@ -0,0 +1,163 @@
+package com.atypon.cache;
+
+import com.atypon.config.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Cluster-wide cache invalidation. An eviction is applied to this replica's caches first and then broadcast on the
+ * {@link InvalidationTransport}; every other replica on the channel applies it when it arrives.
+ *
+ * <p>Evicting a recipe ID drops its cached information, its encoded representation and any negative-cache entry.
+ * Evicting a query pattern ({@code *} matches any characters, case-insensitive) drops the matching search results
+ * and their representations; a pattern containing {@code |} is matched against {@code query|cuisine}, otherwise
+ * against the query alone.</p>
+ *
+ * <p>Metrics: {@code cache.invalidation.published{result=sent|failed}}, {@code cache.invalidation.received} and
+ * {@code cache.invalidation.lag} (issue to apply, by wall clock, so it includes clock skew between replicas).</p>
+ */
+@Component
+public class CacheInvalidationBus implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    /** Entries evicted on this replica by one invalidation. */
+    public record Eviction(int recipes, int searches, boolean broadcast) {
+    }
+
+    private final RecipeCaches caches;
+    private final RepresentationCache representations;
+    private final InvalidationTransport transport;
+    private final String nodeId;
+    private final InvalidationTransport.Subscription subscription;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter received;
+    private final Timer lag;
+    private final AtomicLong lastLagMillis = new AtomicLong(-1);
+
+    public CacheInvalidationBus(RecipeCaches caches, RepresentationCache representations,
+                                InvalidationTransport transport, CacheProperties props, MeterRegistry meterRegistry) {
+        this.caches = caches;
+        this.representations = representations;
+        this.transport = transport;
+        String configured = props.getInvalidation().getNodeId();
+        this.nodeId = (configured == null || configured.isBlank()) ? UUID.randomUUID().toString() : configured.trim();
+
+        this.sent = meterRegistry.counter("cache.invalidation.published", "result", "sent");
+        this.failed = meterRegistry.counter("cache.invalidation.published", "result", "failed");
+        this.received = meterRegistry.counter("cache.invalidation.received");
+        this.lag = Timer.builder("cache.invalidation.lag")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.subscription = transport.subscribe(this::onMessage);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public Eviction evictRecipe(int recipeId) {
+        return evictAndPublish(CacheInvalidation.recipe(recipeId, nodeId));
+    }
+
+    public Eviction evictSearches(String queryPattern) {
+        return evictAndPublish(CacheInvalidation.searches(queryPattern, nodeId));
+    }
+
+    /** Delivery lag of the last invalidation received from another replica, or -1 if none yet. */
+    public long lastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    private Eviction evictAndPublish(CacheInvalidation invalidation) {
+        Eviction local = apply(invalidation);
+        try {
+            transport.publish(invalidation);
+            sent.increment();
+            return local;
+        } catch (RuntimeException e) {
+            failed.increment();
+            LOGGER.warn("Could not broadcast cache invalidation {} {}: {}", invalidation.kind(), invalidation.target(),
+                    e.toString());
+            return new Eviction(local.recipes(), local.searches(), false);
+        }
+    }
+
+    void onMessage(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return; // applied before publishing
+        }
+        apply(invalidation);
+        received.increment();
+        long lagMillis = Math.max(0, System.currentTimeMillis() - invalidation.issuedAtMillis());
+        lag.record(lagMillis, TimeUnit.MILLISECONDS);
+        lastLagMillis.set(lagMillis);
+    }
+
+    private Eviction apply(CacheInvalidation invalidation) {
+        if (invalidation.kind() == CacheInvalidation.Kind.RECIPE) {
+            int id;
+            try {
+                id = Integer.parseInt(invalidation.target());
+            } catch (NumberFormatException e) {
+                return new Eviction(0, 0, true);
+            }
+            boolean removed = caches.recipes().invalidate(id) | caches.replicas().invalidate(id);
+            representations.invalidate(RepresentationCache.recipeKey(id));
+            caches.missingRecipes().invalidate(id);
+            return new Eviction(removed ? 1 : 0, 0, true);
+        }
+
+        String pattern = invalidation.target() == null ? "" : invalidation.target().trim().toLowerCase(Locale.ROOT);
+        boolean withCuisine = pattern.indexOf('|') >= 0;
+        Pattern regex = glob(pattern);
+        List<SearchKey> removed = new ArrayList<>();
+        caches.searches().invalidateIf(key -> {
+            boolean match = regex.matcher(withCuisine ? key.format() : key.query()).matches();
+            if (match) {
+                removed.add(key);
+            }
+            return match;
+        });
+        for (SearchKey key : removed) {
+            representations.invalidate(RepresentationCache.searchKey(key));
+        }
+        return new Eviction(0, removed.size(), true);
+    }
+
+    static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int star = pattern.indexOf('*'); star >= 0; star = pattern.indexOf('*', start)) {
+            if (star > start) {
+                regex.append(Pattern.quote(pattern.substring(start, star)));
+            }
+            regex.append(".*");
+            start = star + 1;
+        }
+        if (start < pattern.length()) {
+            regex.append(Pattern.quote(pattern.substring(start)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    @Override
+    public void close() {
+        subscription.close();
+    }
+}
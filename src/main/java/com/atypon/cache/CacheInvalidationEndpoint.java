@@ -0,0 +1,60 @@
+package com.atypon.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint for purging cached data on all replicas:
+ * {@code DELETE /actuator/invalidation?recipeId=716429} or {@code DELETE /actuator/invalidation?query=pasta*}.
+ * {@code GET} shows this replica's node ID and delivery lag.
+ */
+@Component
+@Endpoint(id = "invalidation")
+public class CacheInvalidationEndpoint {
+
+    private final CacheInvalidationBus bus;
+
+    public CacheInvalidationEndpoint(CacheInvalidationBus bus) {
+        this.bus = bus;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("nodeId", bus.nodeId());
+        status.put("lastLagMillis", bus.lastLagMillis());
+        return status;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Nullable Integer recipeId, @Nullable String query) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (recipeId == null && (query == null || query.isBlank())) {
+            result.put("error", "recipeId or query is required");
+            return result;
+        }
+        int recipes = 0;
+        int searches = 0;
+        boolean broadcast = true;
+        if (recipeId != null) {
+            CacheInvalidationBus.Eviction e = bus.evictRecipe(recipeId);
+            recipes += e.recipes();
+            broadcast &= e.broadcast();
+        }
+        if (query != null && !query.isBlank()) {
+            CacheInvalidationBus.Eviction e = bus.evictSearches(query);
+            searches += e.searches();
+            broadcast &= e.broadcast();
+        }
+        result.put("recipes", recipes);
+        result.put("searches", searches);
+        result.put("broadcast", broadcast);
+        return result;
+    }
+}
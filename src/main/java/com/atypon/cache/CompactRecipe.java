@@ -0,0 +1,211 @@
+package com.atypon.cache;
+
+import com.atypon.model.Ingredient;
+import com.atypon.model.Nutrition;
+import com.atypon.model.Recipe;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cached form of a {@link Recipe}: the ingredients are kept as parallel arrays instead of one {@link Ingredient}
+ * and one {@link Nutrition} object each, and names and units are canonical instances from a shared
+ * {@link StringInterner}. For Spoonacular-like recipes that is about a quarter of the heap of the object graph
+ * (measured by {@code RecipeFootprint} in the JMH sources).
+ *
+ * <p>Instances are immutable. {@link #toRecipe()} builds a fresh {@code Recipe} when one is needed (to serialize
+ * a response); the calories calculation reads the arrays directly.</p>
+ *
+ * <p>JSON numbers cannot be NaN, so NaN marks what the model represents with {@code null}: an absent
+ * {@code Nutrition} (in {@code calories}/{@code nutritionCalories}) or a {@code null} ingredient entry (in
+ * {@code amounts}).</p>
+ */
+public final class CompactRecipe {
+
+    private final int id;
+    private final String title;
+    private final double nutritionCalories;
+
+    // Struct of arrays, one slot per ingredient; all null if the recipe had no ingredient list.
+    private final String[] names;
+    private final String[] units;
+    private final double[] amounts;
+    /** Null when no ingredient carries nutrition. */
+    private final double[] calories;
+
+    private CompactRecipe(int id, String title, double nutritionCalories, String[] names, String[] units,
+                          double[] amounts, double[] calories) {
+        this.id = id;
+        this.title = title;
+        this.nutritionCalories = nutritionCalories;
+        this.names = names;
+        this.units = units;
+        this.amounts = amounts;
+        this.calories = calories;
+    }
+
+    public static CompactRecipe of(Recipe recipe, StringInterner interner) {
+        double nutrition = recipe.getNutrition() == null ? Double.NaN : recipe.getNutrition().getCalories();
+        List<Ingredient> ingredients = recipe.getExtendedIngredients();
+        if (ingredients == null) {
+            return new CompactRecipe(recipe.getId(), recipe.getTitle(), nutrition, null, null, null, null);
+        }
+
+        int n = ingredients.size();
+        String[] names = new String[n];
+        String[] units = new String[n];
+        double[] amounts = new double[n];
+        double[] calories = null;
+        for (int i = 0; i < n; i++) {
+            Ingredient ing = ingredients.get(i);
+            if (ing == null) {
+                amounts[i] = Double.NaN;
+                continue;
+            }
+            names[i] = interner.intern(ing.getName());
+            units[i] = interner.intern(ing.getUnit());
+            amounts[i] = ing.getAmount();
+            if (ing.getNutrition() != null) {
+                if (calories == null) {
+                    calories = new double[n];
+                    Arrays.fill(calories, Double.NaN);
+                }
+                calories[i] = ing.getNutrition().getCalories();
+            }
+        }
+        return new CompactRecipe(recipe.getId(), recipe.getTitle(), nutrition, names, units, amounts, calories);
+    }
+
+    /** Without deduplication; for callers (tests, benchmarks) that do not share a dictionary. */
+    public static CompactRecipe of(Recipe recipe) {
+        return of(recipe, new StringInterner(0));
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    /** Number of ingredient slots; 0 also when the recipe had no ingredient list. */
+    public int ingredientCount() {
+        return amounts == null ? 0 : amounts.length;
+    }
+
+    /** False for a {@code null} entry in the ingredient list. */
+    public boolean hasIngredient(int i) {
+        return !Double.isNaN(amounts[i]);
+    }
+
+    public String ingredientName(int i) {
+        return names[i];
+    }
+
+    public double ingredientAmount(int i) {
+        return amounts[i];
+    }
+
+    /**
+     * Binary form for the off-heap tier: {@code id, nutritionCalories, title, count (-1 = no list), hasCalories},
+     * then per ingredient {@code amount, name, unit[, calories]}. Strings are a length ({@code -1} = null) and UTF-8.
+     */
+    byte[] toBytes() {
+        byte[] titleBytes = utf8(title);
+        int n = amounts == null ? -1 : amounts.length;
+        byte[][] nameBytes = new byte[Math.max(0, n)][];
+        byte[][] unitBytes = new byte[Math.max(0, n)][];
+        int size = 4 + 8 + 4 + len(titleBytes) + 4 + 1;
+        for (int i = 0; i < n; i++) {
+            nameBytes[i] = utf8(names[i]);
+            unitBytes[i] = utf8(units[i]);
+            size += 8 + 4 + len(nameBytes[i]) + 4 + len(unitBytes[i]) + (calories == null ? 0 : 8);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(id).putDouble(nutritionCalories);
+        putString(buf, titleBytes);
+        buf.putInt(n).put((byte) (calories == null ? 0 : 1));
+        for (int i = 0; i < n; i++) {
+            buf.putDouble(amounts[i]);
+            putString(buf, nameBytes[i]);
+            putString(buf, unitBytes[i]);
+            if (calories != null) {
+                buf.putDouble(calories[i]);
+            }
+        }
+        return buf.array();
+    }
+
+    static CompactRecipe fromBytes(byte[] bytes, StringInterner interner) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        int id = buf.getInt();
+        double nutrition = buf.getDouble();
+        String title = getString(buf);
+        int n = buf.getInt();
+        boolean hasCalories = buf.get() != 0;
+        if (n < 0) {
+            return new CompactRecipe(id, title, nutrition, null, null, null, null);
+        }
+        String[] names = new String[n];
+        String[] units = new String[n];
+        double[] amounts = new double[n];
+        double[] calories = hasCalories ? new double[n] : null;
+        for (int i = 0; i < n; i++) {
+            amounts[i] = buf.getDouble();
+            names[i] = interner.intern(getString(buf));
+            units[i] = interner.intern(getString(buf));
+            if (calories != null) {
+                calories[i] = buf.getDouble();
+            }
+        }
+        return new CompactRecipe(id, title, nutrition, names, units, amounts, calories);
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int len(byte[] b) {
+        return b == null ? 0 : b.length;
+    }
+
+    private static void putString(ByteBuffer buf, byte[] b) {
+        if (b == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(b.length).put(b);
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) {
+            return null;
+        }
+        String s = new String(buf.array(), buf.position(), len, StandardCharsets.UTF_8);
+        buf.position(buf.position() + len);
+        return s;
+    }
+
+    /** A new, independent {@link Recipe} equal to the one this was built from. */
+    public Recipe toRecipe() {
+        Nutrition nutrition = Double.isNaN(nutritionCalories) ? null : new Nutrition(nutritionCalories);
+        if (amounts == null) {
+            return new Recipe(id, title, null, nutrition);
+        }
+        List<Ingredient> ingredients = new ArrayList<>(amounts.length);
+        for (int i = 0; i < amounts.length; i++) {
+            if (!hasIngredient(i)) {
+                ingredients.add(null);
+                continue;
+            }
+            Nutrition n = (calories == null || Double.isNaN(calories[i])) ? null : new Nutrition(calories[i]);
+            ingredients.add(new Ingredient(names[i], amounts[i], units[i], n));
+        }
+        return new Recipe(id, title, ingredients, nutrition);
+    }
+}
@@ -0,0 +1,78 @@
+package com.atypon.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent-hash ring mapping recipe IDs to members (peer base URLs). Each member is placed at
+ * {@code virtualNodes} points so keys spread evenly, and adding or removing one member only moves the keys of that
+ * member. Hashes do not depend on the JVM, so every replica with the same member list agrees on every owner.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> members;
+
+    public ConsistentHashRing(List<String> members, int virtualNodes) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("ring needs at least one member");
+        }
+        int vnodes = Math.max(1, virtualNodes);
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String member : members) {
+            for (int i = 0; i < vnodes; i++) {
+                // on the (astronomically unlikely) collision the lexicographically smaller member wins, on every node
+                ring.merge(hash(member + "#" + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> e : ring.entrySet()) {
+            points[i] = e.getKey();
+            owners[i] = e.getValue();
+            i++;
+        }
+        this.members = List.copyOf(members);
+    }
+
+    public List<String> members() {
+        return members;
+    }
+
+    public String owner(int recipeId) {
+        long h = mix(recipeId);
+        int idx = Arrays.binarySearch(points, h);
+        if (idx < 0) {
+            idx = -idx - 1;
+        }
+        return owners[idx == points.length ? 0 : idx];
+    }
+
+    private static long hash(String s) {
+        try {
+            byte[] d = MessageDigest.getInstance("MD5").digest(s.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) {
+                h = (h << 8) | (d[i] & 0xFF);
+            }
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** SplitMix64 finalizer; consecutive IDs land far apart on the ring. */
+    private static long mix(int id) {
+        long z = id * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
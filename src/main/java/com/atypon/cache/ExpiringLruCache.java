@@ -0,0 +1,215 @@
+package com.atypon.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, access-ordered cache with a per-entry TTL.
+ *
+ * <p>Same structure as the other in-memory stores in this service (synchronized access-ordered
+ * {@link LinkedHashMap}); the least recently used entry is evicted once {@code maxEntries} is exceeded and
+ * expired entries are dropped when read. A cache with {@code maxEntries <= 0} is disabled: reads miss and writes
+ * are ignored.</p>
+ *
+ * <p>Metrics: {@code cache.gets{cache,result=hit|miss}}, {@code cache.evictions{cache}}, {@code cache.size{cache}}.</p>
+ */
+public class ExpiringLruCache<K, V> {
+
+    /**
+     * Told about entries evicted for size (not expired or invalidated ones) while the cache lock is still held, so a
+     * later put or invalidation of the same key cannot run before the listener is done with the evicted value.
+     */
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+        void evicted(K key, V value, long expiresAtMillis);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAtMillis;
+        long hits;
+
+        Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final String name;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<K, Entry<V>> map = new LinkedHashMap<>(256, 0.75f, true);
+    private final EvictionListener<K, V> evictionListener;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ExpiringLruCache(String name, Duration ttl, int maxEntries, MeterRegistry meterRegistry) {
+        this(name, ttl, maxEntries, meterRegistry, null);
+    }
+
+    public ExpiringLruCache(String name, Duration ttl, int maxEntries, MeterRegistry meterRegistry,
+                            EvictionListener<K, V> evictionListener) {
+        this.name = name;
+        this.evictionListener = evictionListener;
+        this.ttl = ttl == null ? Duration.ofMinutes(10) : ttl;
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("cache.gets", "cache", name, "result", "hit");
+        this.misses = meterRegistry.counter("cache.gets", "cache", name, "result", "miss");
+        this.evictions = meterRegistry.counter("cache.evictions", "cache", name);
+        meterRegistry.gauge("cache.size", Tags.of("cache", name), this, ExpiringLruCache::size);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    public V get(K key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        V value = null;
+        synchronized (this) {
+            Entry<V> e = map.get(key);
+            if (e != null) {
+                if (e.expiresAtMillis > System.currentTimeMillis()) {
+                    e.hits++;
+                    value = e.value;
+                } else {
+                    map.remove(key);
+                }
+            }
+        }
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Counts a hit on a live entry without reading it, for a response answered from something derived from it: the
+     * entry's hit count and LRU position move as they would on {@link #get}. Returns false, counting nothing, if
+     * there is no live entry.
+     */
+    public boolean touch(K key) {
+        if (!isEnabled()) {
+            return false;
+        }
+        synchronized (this) {
+            Entry<V> e = map.get(key);
+            if (e == null || e.expiresAtMillis <= System.currentTimeMillis()) {
+                return false;
+            }
+            e.hits++;
+        }
+        hits.increment();
+        return true;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttl);
+    }
+
+    public void put(K key, V value, Duration entryTtl) {
+        putUntil(key, value, System.currentTimeMillis() + entryTtl.toMillis());
+    }
+
+    /** Puts with an absolute expiry, e.g. an entry moved here from another cache tier. */
+    public void putUntil(K key, V value, long expiresAtMillis) {
+        if (!isEnabled() || key == null || value == null) {
+            return;
+        }
+        int evicted = 0;
+        synchronized (this) {
+            map.put(key, new Entry<>(value, expiresAtMillis));
+            Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+            while (map.size() > maxEntries && it.hasNext()) {
+                Map.Entry<K, Entry<V>> eldest = it.next();
+                it.remove();
+                evicted++;
+                if (evictionListener != null) {
+                    evictionListener.evicted(eldest.getKey(), eldest.getValue().value, eldest.getValue().expiresAtMillis);
+                }
+            }
+        }
+        if (evicted > 0) {
+            evictions.increment(evicted);
+        }
+    }
+
+    /**
+     * The live value, or null. Not counted in the hit/miss metrics.
+     */
+    public synchronized V peek(K key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Entry<V> e = map.get(key);
+        return e == null || e.expiresAtMillis <= System.currentTimeMillis() ? null : e.value;
+    }
+
+    /**
+     * Expiry of a live entry, or 0 if there is none. Not counted in the hit/miss metrics.
+     */
+    public synchronized long expiresAtMillis(K key) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        Entry<V> e = map.get(key);
+        return e == null || e.expiresAtMillis <= System.currentTimeMillis() ? 0 : e.expiresAtMillis;
+    }
+
+    public synchronized boolean invalidate(K key) {
+        return map.remove(key) != null;
+    }
+
+    public synchronized int invalidateIf(Predicate<K> predicate) {
+        int removed = 0;
+        Iterator<K> it = map.keySet().iterator();
+        while (it.hasNext()) {
+            if (predicate.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * Keys with the most hits, most popular first. Used to record a warm-up list for the next start.
+     */
+    public synchronized List<K> hottest(int limit) {
+        List<Map.Entry<K, Entry<V>>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<K, Entry<V>> e) -> e.getValue().hits).reversed());
+        List<K> out = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            out.add(entries.get(i).getKey());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,25 @@
+package com.atypon.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link CacheInvalidation}s to every replica subscribed to the same channel, including the sender.
+ *
+ * <p>The default is {@link LocalInvalidationTransport} (application contexts in one JVM). Deployments with several
+ * replicas define their own {@code InvalidationTransport} bean (e.g. Redis pub/sub or a message broker topic);
+ * the bus does not change.</p>
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends to all subscribers. Throws if the invalidation could not be handed to the transport.
+     */
+    void publish(CacheInvalidation invalidation);
+
+    Subscription subscribe(Consumer<CacheInvalidation> listener);
+
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
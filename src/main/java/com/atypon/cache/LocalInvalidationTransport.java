@@ -0,0 +1,47 @@
+package com.atypon.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport: every application context in this JVM that uses the same channel receives each
+ * invalidation, synchronously on the publishing thread. Enough for a single replica and for tests that run
+ * several contexts side by side; it does not cross process boundaries.
+ */
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalInvalidationTransport.class);
+
+    private static final Map<String, List<Consumer<CacheInvalidation>>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    public LocalInvalidationTransport(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> listener : CHANNELS.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                // one broken subscriber must not keep the others from being invalidated
+                LOGGER.warn("Cache invalidation listener failed on channel {}: {}", channel, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public Subscription subscribe(Consumer<CacheInvalidation> listener) {
+        List<Consumer<CacheInvalidation>> listeners = CHANNELS.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>());
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+}
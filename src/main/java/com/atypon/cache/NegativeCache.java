@@ -0,0 +1,300 @@
+package com.atypon.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Short-lived memory of recipe IDs that upstream reported as missing, so repeated lookups (e.g. a scraper walking
+ * IDs) do not each cost a Spoonacular call.
+ *
+ * <p>IDs are kept in two generations that rotate every {@code ttl / 2}, so an entry is forgotten roughly
+ * {@code ttl} after it was added (at least {@code ttl / 2}; rotation is lazy, so at most about
+ * {@code 1.5 * ttl}). Each generation is a Bloom filter in front of an open-addressing {@code int} set: the
+ * filter is read without locking and answers "definitely not missing" for almost every valid ID; only filter
+ * positives consult the exact set, so a false positive never turns a valid recipe into a 404. The set stores
+ * plain {@code int}s, a few bytes per ID.</p>
+ *
+ * <p>Metrics: {@code cache.negative.gets{result=hit|miss}}, {@code cache.negative.prefilter.false.positives},
+ * {@code cache.negative.size}.</p>
+ */
+public class NegativeCache {
+
+    private final long halfTtlMillis;
+    private final int perGeneration;
+    private final double falsePositiveRate;
+    private final boolean enabled;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter falsePositives;
+
+    public NegativeCache(Duration ttl, int maxEntries, double falsePositiveRate, MeterRegistry meterRegistry) {
+        this(ttl, maxEntries, falsePositiveRate, meterRegistry, System.currentTimeMillis());
+    }
+
+    NegativeCache(Duration ttl, int maxEntries, double falsePositiveRate, MeterRegistry meterRegistry,
+                  long nowMillis) {
+        this.enabled = maxEntries > 0 && ttl != null && !ttl.isZero() && !ttl.isNegative();
+        this.halfTtlMillis = enabled ? Math.max(1, ttl.toMillis() / 2) : 1;
+        this.perGeneration = Math.max(1, maxEntries / 2);
+        this.falsePositiveRate = falsePositiveRate <= 0 || falsePositiveRate >= 1 ? 0.01 : falsePositiveRate;
+        this.current = enabled ? new Generation(perGeneration, this.falsePositiveRate, nowMillis) : null;
+        this.previous = null;
+
+        this.hits = meterRegistry.counter("cache.negative.gets", "result", "hit");
+        this.misses = meterRegistry.counter("cache.negative.gets", "result", "miss");
+        this.falsePositives = meterRegistry.counter("cache.negative.prefilter.false.positives");
+        meterRegistry.gauge("cache.negative.size", this, NegativeCache::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True if {@code id} was reported missing within the TTL.
+     */
+    public boolean contains(int id) {
+        return containsAt(id, System.currentTimeMillis());
+    }
+
+    boolean containsAt(int id, long nowMillis) {
+        if (!enabled) {
+            return false;
+        }
+        rotateIfDue(nowMillis);
+        boolean found = probe(current, id) || probe(previous, id);
+        (found ? hits : misses).increment();
+        return found;
+    }
+
+    public void add(int id) {
+        addAt(id, System.currentTimeMillis());
+    }
+
+    void addAt(int id, long nowMillis) {
+        if (!enabled) {
+            return;
+        }
+        rotateIfDue(nowMillis);
+        Generation gen = current;
+        if (!gen.add(id)) {
+            // generation is full: start a new one early rather than overfill the filter
+            rotate(nowMillis);
+            current.add(id);
+        }
+    }
+
+    /** Forgets {@code id}, e.g. when a recipe is known to exist again. */
+    public void invalidate(int id) {
+        if (!enabled) {
+            return;
+        }
+        Generation cur = current;
+        Generation prev = previous;
+        if (cur != null) {
+            cur.remove(id);
+        }
+        if (prev != null) {
+            prev.remove(id);
+        }
+    }
+
+    public int size() {
+        if (!enabled) {
+            return 0;
+        }
+        Generation cur = current;
+        Generation prev = previous;
+        return (cur == null ? 0 : cur.size()) + (prev == null ? 0 : prev.size());
+    }
+
+    private boolean probe(Generation gen, int id) {
+        if (gen == null || !gen.mightContain(id)) {
+            return false;
+        }
+        if (gen.contains(id)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    private void rotateIfDue(long now) {
+        if (now - current.startedAtMillis >= halfTtlMillis) {
+            rotate(now);
+        }
+    }
+
+    private synchronized void rotate(long now) {
+        Generation cur = current;
+        if (now - cur.startedAtMillis < halfTtlMillis && cur.size() < perGeneration) {
+            return; // another thread rotated first
+        }
+        // A generation older than a full TTL is dropped entirely.
+        previous = now - cur.startedAtMillis >= 2 * halfTtlMillis ? null : cur;
+        current = new Generation(perGeneration, falsePositiveRate, now);
+    }
+
+    /**
+     * Bloom filter plus exact int set for one time slice.
+     */
+    private static final class Generation {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        final long startedAtMillis;
+        private final AtomicLongArray bits;
+        private final int numBits;
+        private final int numHashes;
+        private final int capacity;
+
+        private int[] slots;
+        private int count;
+        private boolean hasEmptyMarker; // Integer.MIN_VALUE itself is tracked out of band
+
+        Generation(int capacity, double fpp, long startedAtMillis) {
+            this.startedAtMillis = startedAtMillis;
+            this.capacity = capacity;
+            long m = (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.numBits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, m));
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacity * Math.log(2)));
+            this.bits = new AtomicLongArray((numBits + 63) >>> 6);
+            this.slots = new int[16];
+            Arrays.fill(slots, EMPTY);
+        }
+
+        boolean mightContain(int id) {
+            long h = mix(id);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void setBits(int id) {
+            long h = mix(id);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+                int word = bit >>> 6;
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = bits.get(word);
+                } while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        /** @return false if the generation is full and {@code id} was not added */
+        synchronized boolean add(int id) {
+            if (containsLocked(id)) {
+                return true;
+            }
+            if (count >= capacity) {
+                return false;
+            }
+            if (id == EMPTY) {
+                hasEmptyMarker = true;
+            } else {
+                if ((count + 1) * 2 > slots.length) {
+                    grow();
+                }
+                insert(slots, id);
+            }
+            count++;
+            setBits(id);
+            return true;
+        }
+
+        synchronized boolean contains(int id) {
+            return containsLocked(id);
+        }
+
+        /** The filter bits stay set; a later probe for this ID is a counted false positive. */
+        synchronized void remove(int id) {
+            if (id == EMPTY) {
+                if (hasEmptyMarker) {
+                    hasEmptyMarker = false;
+                    count--;
+                }
+                return;
+            }
+            int mask = slots.length - 1;
+            int i = (int) mix(id) & mask;
+            while (slots[i] != EMPTY) {
+                if (slots[i] == id) {
+                    slots[i] = EMPTY;
+                    count--;
+                    // re-insert the rest of the cluster so lookups do not stop early
+                    for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+                        int moved = slots[j];
+                        slots[j] = EMPTY;
+                        insert(slots, moved);
+                    }
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        private boolean containsLocked(int id) {
+            if (id == EMPTY) {
+                return hasEmptyMarker;
+            }
+            int mask = slots.length - 1;
+            int i = (int) mix(id) & mask;
+            while (slots[i] != EMPTY) {
+                if (slots[i] == id) {
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        private void grow() {
+            int[] bigger = new int[slots.length * 2];
+            Arrays.fill(bigger, EMPTY);
+            for (int v : slots) {
+                if (v != EMPTY) {
+                    insert(bigger, v);
+                }
+            }
+            slots = bigger;
+        }
+
+        private static void insert(int[] table, int id) {
+            int mask = table.length - 1;
+            int i = (int) mix(id) & mask;
+            while (table[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            table[i] = id;
+        }
+
+        /** 64-bit finalizer (SplitMix64); low and high halves serve as the two Bloom hashes. */
+        private static long mix(int id) {
+            long z = id * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.atypon.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Byte values by {@code int} key, stored outside the Java heap so a large cache adds no GC work.
+ *
+ * <p>Memory is reserved lazily in slabs (direct {@link ByteBuffer}s of {@code slabBytes}) up to {@code maxBytes}
+ * and handed out in fixed {@code blockBytes} blocks; a value occupies as many blocks as it needs, not necessarily
+ * adjacent. Slabs are never returned: once full, the least recently used entries are evicted to free blocks. Only
+ * the index (key, block numbers, expiry) stays on heap, roughly 100 bytes per entry.</p>
+ *
+ * <p>Same locking as the other in-memory stores: one monitor around an access-ordered {@link LinkedHashMap}.</p>
+ *
+ * <p>Metrics: {@code cache.gets{cache,result=hit|miss}}, {@code cache.evictions{cache}}, {@code cache.size{cache}},
+ * {@code cache.offheap.bytes{cache,state=used|reserved}}.</p>
+ */
+public class OffHeapStore {
+
+    /** A value read from the store with its expiry. */
+    public record Value(byte[] bytes, long expiresAtMillis) {
+    }
+
+    private static final class Slot {
+        final int[] blocks;
+        final int length;
+        final long expiresAtMillis;
+
+        Slot(int[] blocks, int length, long expiresAtMillis) {
+            this.blocks = blocks;
+            this.length = length;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final int blockBytes;
+    private final int blocksPerSlab;
+    private final int maxSlabs;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int[] freeBlocks = new int[0];
+    private int freeCount;
+    private long usedBytes;
+    private final Map<Integer, Slot> index = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public OffHeapStore(String name, long maxBytes, int slabBytes, int blockBytes, MeterRegistry meterRegistry) {
+        this.blockBytes = Math.max(16, blockBytes);
+        this.blocksPerSlab = Math.max(1, Math.max(slabBytes, this.blockBytes) / this.blockBytes);
+        long slabSize = (long) blocksPerSlab * this.blockBytes;
+        this.maxSlabs = maxBytes <= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE / blocksPerSlab, Math.max(1, maxBytes / slabSize));
+
+        this.hits = meterRegistry.counter("cache.gets", "cache", name, "result", "hit");
+        this.misses = meterRegistry.counter("cache.gets", "cache", name, "result", "miss");
+        this.evictions = meterRegistry.counter("cache.evictions", "cache", name);
+        meterRegistry.gauge("cache.size", Tags.of("cache", name), this, OffHeapStore::size);
+        meterRegistry.gauge("cache.offheap.bytes", Tags.of("cache", name, "state", "used"), this,
+                OffHeapStore::usedBytes);
+        meterRegistry.gauge("cache.offheap.bytes", Tags.of("cache", name, "state", "reserved"), this,
+                OffHeapStore::reservedBytes);
+    }
+
+    public boolean isEnabled() {
+        return maxSlabs > 0;
+    }
+
+    /**
+     * Stores {@code bytes}, evicting least recently used entries if needed.
+     *
+     * @return false if the store is disabled or the value is larger than the whole store
+     */
+    public boolean put(int key, byte[] bytes, long expiresAtMillis) {
+        if (!isEnabled()) {
+            return false;
+        }
+        int needed = Math.max(1, (bytes.length + blockBytes - 1) / blockBytes);
+        if ((long) needed > (long) maxSlabs * blocksPerSlab) {
+            return false;
+        }
+        int evicted = 0;
+        synchronized (this) {
+            release(index.remove(key));
+            while (freeCount < needed && slabs.size() < maxSlabs) {
+                addSlab();
+            }
+            Iterator<Slot> lru = index.values().iterator();
+            while (freeCount < needed && lru.hasNext()) {
+                Slot eldest = lru.next();
+                lru.remove();
+                release(eldest);
+                evicted++;
+            }
+            int[] blocks = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                blocks[i] = freeBlocks[--freeCount];
+                int offset = i * blockBytes;
+                int len = Math.min(blockBytes, bytes.length - offset);
+                if (len > 0) {
+                    slab(blocks[i]).put(blockOffset(blocks[i]), bytes, offset, len);
+                }
+            }
+            index.put(key, new Slot(blocks, bytes.length, expiresAtMillis));
+            usedBytes += (long) needed * blockBytes;
+        }
+        if (evicted > 0) {
+            evictions.increment(evicted);
+        }
+        return true;
+    }
+
+    /** Reads a live entry and refreshes its recency; expired entries are dropped. */
+    public Value get(int key) {
+        Value value = read(key, false);
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /** Reads and removes a live entry, e.g. to promote it to a faster tier. Counted like {@link #get}. */
+    public Value take(int key) {
+        Value value = read(key, true);
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    private synchronized Value read(int key, boolean remove) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Slot slot = remove ? index.remove(key) : index.get(key);
+        if (slot == null) {
+            return null;
+        }
+        if (slot.expiresAtMillis <= System.currentTimeMillis()) {
+            if (!remove) {
+                index.remove(key);
+            }
+            release(slot);
+            return null;
+        }
+        byte[] bytes = new byte[slot.length];
+        for (int i = 0; i < slot.blocks.length; i++) {
+            int offset = i * blockBytes;
+            int len = Math.min(blockBytes, slot.length - offset);
+            if (len > 0) {
+                slab(slot.blocks[i]).get(blockOffset(slot.blocks[i]), bytes, offset, len);
+            }
+        }
+        if (remove) {
+            release(slot);
+        }
+        return new Value(bytes, slot.expiresAtMillis);
+    }
+
+    /** Expiry of a live entry, or 0. Not counted in the hit/miss metrics. */
+    public synchronized long expiresAtMillis(int key) {
+        Slot slot = index.get(key);
+        return slot == null || slot.expiresAtMillis <= System.currentTimeMillis() ? 0 : slot.expiresAtMillis;
+    }
+
+    public synchronized boolean invalidate(int key) {
+        Slot slot = index.remove(key);
+        release(slot);
+        return slot != null;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /** Bytes in blocks that hold values (including the unused tail of each value's last block). */
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    /** Direct memory reserved in slabs so far. */
+    public synchronized long reservedBytes() {
+        return (long) slabs.size() * blocksPerSlab * blockBytes;
+    }
+
+    private void release(Slot slot) {
+        if (slot == null) {
+            return;
+        }
+        for (int block : slot.blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+        usedBytes -= (long) slot.blocks.length * blockBytes;
+    }
+
+    private void addSlab() {
+        int first = slabs.size() * blocksPerSlab;
+        slabs.add(ByteBuffer.allocateDirect(blocksPerSlab * blockBytes));
+        if (freeBlocks.length < freeCount + blocksPerSlab) {
+            int[] bigger = new int[slabs.size() * blocksPerSlab];
+            System.arraycopy(freeBlocks, 0, bigger, 0, freeCount);
+            freeBlocks = bigger;
+        }
+        // pushed in reverse so blocks are handed out in address order
+        for (int b = first + blocksPerSlab - 1; b >= first; b--) {
+            freeBlocks[freeCount++] = b;
+        }
+    }
+
+    private ByteBuffer slab(int block) {
+        return slabs.get(block / blocksPerSlab);
+    }
+
+    private int blockOffset(int block) {
+        return (block % blocksPerSlab) * blockBytes;
+    }
+}
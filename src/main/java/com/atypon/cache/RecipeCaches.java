@@ -0,0 +1,82 @@
+package com.atypon.cache;
+
+import com.atypon.config.CacheProperties;
+import com.atypon.model.Recipe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The response caches in front of Spoonacular: recipe information by ID, search results by normalized query,
+ * recipe IDs known not to exist, and (in peer mode) copies of hot recipes owned by other replicas.
+ *
+ * <p>Recipes are cached as {@link CompactRecipe}s whose ingredient names and units share one dictionary
+ * ({@code cache.intern.size}), in a {@link TieredRecipeCache}: the hottest on heap, the rest off heap.</p>
+ */
+@Component
+public class RecipeCaches {
+
+    private final TieredRecipeCache recipes;
+    private final ExpiringLruCache<SearchKey, List<Recipe>> searches;
+    private final NegativeCache missingRecipes;
+    private final ExpiringLruCache<Integer, CompactRecipe> replicas;
+    private final StringInterner interner;
+
+    public RecipeCaches(CacheProperties props, MeterRegistry meterRegistry) {
+        boolean on = props.isEnabled();
+        this.interner = new StringInterner(on ? props.getInternMaxEntries() : 0);
+        meterRegistry.gauge("cache.intern.size", interner, StringInterner::size);
+        CacheProperties.OffHeap offHeap = props.getOffHeap();
+        OffHeapStore l2 = new OffHeapStore("recipes-offheap", on ? offHeap.getMaxSize().toBytes() : 0,
+                (int) offHeap.getSlabSize().toBytes(), (int) offHeap.getBlockSize().toBytes(), meterRegistry);
+        this.recipes = new TieredRecipeCache("recipes", props.getRecipes().getTtl(),
+                on ? props.getRecipes().getMaxEntries() : 0, l2, interner, meterRegistry);
+        this.searches = new ExpiringLruCache<>("searches", props.getSearches().getTtl(),
+                on ? props.getSearches().getMaxEntries() : 0, meterRegistry);
+        this.missingRecipes = new NegativeCache(props.getNegative().getTtl(),
+                on ? props.getNegative().getMaxEntries() : 0, props.getNegative().getFalsePositiveRate(), meterRegistry);
+        CacheProperties.Region hot = props.getPeers().getHotReplicas();
+        this.replicas = new ExpiringLruCache<>("recipe-replicas", hot.getTtl(),
+                on && props.getPeers().isEnabled() ? hot.getMaxEntries() : 0, meterRegistry);
+    }
+
+    /**
+     * Caches that never hold anything; for callers (tests, benchmarks) that want the uncached path.
+     */
+    public static RecipeCaches disabled() {
+        CacheProperties props = new CacheProperties();
+        props.setEnabled(false);
+        return new RecipeCaches(props, new SimpleMeterRegistry());
+    }
+
+    /** The cached form of {@code recipe}, sharing strings with the recipes already cached. */
+    public CompactRecipe compact(Recipe recipe) {
+        return CompactRecipe.of(recipe, interner);
+    }
+
+    public TieredRecipeCache recipes() {
+        return recipes;
+    }
+
+    public ExpiringLruCache<SearchKey, List<Recipe>> searches() {
+        return searches;
+    }
+
+    /** Short-lived local copies of hot recipes owned by another replica (peer mode only). */
+    public ExpiringLruCache<Integer, CompactRecipe> replicas() {
+        return replicas;
+    }
+
+    /** Expiry of the cached recipe, whether owned here or a hot replica; 0 if not cached. */
+    public long recipeExpiresAtMillis(int recipeId) {
+        long owned = recipes.expiresAtMillis(recipeId);
+        return owned > 0 ? owned : replicas.expiresAtMillis(recipeId);
+    }
+
+    /** Recipe IDs upstream recently reported as not found. */
+    public NegativeCache missingRecipes() {
+        return missingRecipes;
+    }
+}
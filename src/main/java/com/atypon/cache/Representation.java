@@ -0,0 +1,60 @@
+package com.atypon.cache;
+
+/**
+ * One encoded response body and its validators: the JSON bytes, optionally a gzip encoding of them, a strong
+ * ETag per content coding and the time the underlying cache entry expires.
+ *
+ * <p>The gzip body has its own ETag ({@code "<md5>-gz"}): RFC 9110 requires different strong validators for
+ * different content codings, so shared caches and range requests never mix the two.</p>
+ *
+ * <p>The arrays are shared by every response that serves this representation and must not be modified.</p>
+ */
+public record Representation(String etag, String gzipEtag, long expiresAtMillis, byte[] json, byte[] gzip) {
+
+    /** Seconds a client or CDN may reuse the body; 0 when the body is not cached here. */
+    public long maxAgeSeconds() {
+        long remaining = expiresAtMillis - System.currentTimeMillis();
+        return remaining <= 0 ? 0 : remaining / 1000;
+    }
+
+    public boolean hasGzip() {
+        return gzip != null;
+    }
+
+    /** Approximate heap held by the encoded bodies. */
+    public int sizeInBytes() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+
+    /** The ETag of the body sent with or without {@code Content-Encoding: gzip}. */
+    public String etag(boolean gzipped) {
+        return gzipped ? gzipEtag : etag;
+    }
+
+    /**
+     * {@code If-None-Match} evaluation (weak comparison, as RFC 9110 requires for this header); the ETag of either
+     * content coding matches, since both encode the same JSON.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        int i = 0;
+        int len = ifNoneMatch.length();
+        while (i < len) {
+            int comma = ifNoneMatch.indexOf(',', i);
+            int end = comma < 0 ? len : comma;
+            String candidate = ifNoneMatch.substring(i, end).trim();
+            if (candidate.equals("*") || opaque(candidate).equals(etag)
+                    || (gzipEtag != null && opaque(candidate).equals(gzipEtag))) {
+                return true;
+            }
+            i = end + 1;
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,108 @@
+package com.atypon.cache;
+
+import com.atypon.config.CacheProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded response bodies for cached recipe and search results, produced once per cache entry.
+ *
+ * <p>A representation holds the JSON bytes (plus an optional gzip encoding) and a strong ETag, and lives no longer
+ * than the cache entry it was derived from. Controllers answer a hit from it without rebuilding the body: the bytes
+ * are written directly, skipping Jackson, or a matching {@code If-None-Match} gets a 304. The hit is still recorded
+ * on the source entry, and a representation whose recipe has left the on-heap tier is dropped rather than served.</p>
+ *
+ * <p>Bounded separately by {@code cache.representations.max-entries}, well below the data caches: each entry holds
+ * two encodings of its body, so only the hottest keys are worth keeping encoded.</p>
+ */
+@Component
+public class RepresentationCache {
+
+    private final ExpiringLruCache<String, Representation> representations;
+    private final ObjectMapper objectMapper;
+    private final boolean gzip;
+    private final int gzipMinBytes;
+    private final DistributionSummary bodySize;
+
+    public RepresentationCache(CacheProperties props, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        int maxEntries = props.isEnabled() ? props.getRepresentations().getMaxEntries() : 0;
+        this.representations = new ExpiringLruCache<>("representations", Duration.ZERO, maxEntries, meterRegistry);
+        this.objectMapper = objectMapper;
+        this.gzip = props.getRepresentations().isGzip();
+        this.gzipMinBytes = props.getRepresentations().getGzipMinBytes();
+        this.bodySize = DistributionSummary.builder("cache.representation.size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public static String recipeKey(int recipeId) {
+        return "recipe:" + recipeId;
+    }
+
+    public static String searchKey(SearchKey key) {
+        return "search:" + key.format();
+    }
+
+    public Representation get(String key) {
+        return representations.get(key);
+    }
+
+    /**
+     * Encodes {@code body}. The result is kept only while the source entry is live ({@code expiresAtMillis > now});
+     * otherwise it is returned for this response alone.
+     */
+    public Representation create(String key, Object body, long expiresAtMillis) {
+        byte[] json = encode(body);
+        byte[] gzipped = (gzip && json.length >= gzipMinBytes) ? gzip(json) : null;
+        String etag = etag(json);
+        Representation rep = new Representation(etag, gzipped == null ? null : gzipEtag(etag), expiresAtMillis, json,
+                gzipped);
+        long ttl = expiresAtMillis - System.currentTimeMillis();
+        if (ttl > 0) {
+            representations.put(key, rep, Duration.ofMillis(ttl));
+            bodySize.record(rep.sizeInBytes());
+        }
+        return rep;
+    }
+
+    public boolean invalidate(String key) {
+        return representations.invalidate(key);
+    }
+
+    private byte[] encode(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize response body", e);
+        }
+    }
+
+    private static String etag(byte[] json) {
+        return "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    /** {@code "<md5>"} becomes {@code "<md5>-gz"}. */
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,28 @@
+package com.atypon.cache;
+
+import java.util.Locale;
+
+/**
+ * Normalized cache key for a recipe search. Case and surrounding whitespace do not change Spoonacular's answer,
+ * so {@code "Pasta"} and {@code " pasta "} share an entry.
+ */
+public record SearchKey(String query, String cuisine) {
+
+    public static SearchKey of(String query, String cuisine) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        String c = (cuisine == null || cuisine.isBlank()) ? null : cuisine.trim().toLowerCase(Locale.ROOT);
+        return new SearchKey(q, c);
+    }
+
+    /**
+     * Parses the {@code query|cuisine} form used in warm-up lists and record files.
+     */
+    public static SearchKey parse(String spec) {
+        int bar = spec.indexOf('|');
+        return bar < 0 ? of(spec, null) : of(spec.substring(0, bar), spec.substring(bar + 1));
+    }
+
+    public String format() {
+        return cuisine == null ? query : query + "|" + cuisine;
+    }
+}
@@ -0,0 +1,41 @@
+package com.atypon.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared dictionary that maps equal strings to one canonical instance, so the same ingredient name or unit held by
+ * thousands of cached recipes is stored once.
+ *
+ * <p>Bounded: once {@code maxEntries} distinct strings are known, new ones are returned as they are (still correct,
+ * just not deduplicated). Entries are never removed; ingredient names and units are a small, slowly growing
+ * vocabulary, unlike recipe IDs. Not {@link String#intern()}, whose table is global and unbounded.</p>
+ */
+public class StringInterner {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, String> canonical;
+
+    public StringInterner(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.canonical = new ConcurrentHashMap<>(Math.min(this.maxEntries, 1024));
+    }
+
+    public String intern(String s) {
+        if (s == null || maxEntries == 0) {
+            return s;
+        }
+        String existing = canonical.get(s);
+        if (existing != null) {
+            return existing;
+        }
+        if (canonical.size() >= maxEntries) {
+            return s;
+        }
+        existing = canonical.putIfAbsent(s, s);
+        return existing != null ? existing : s;
+    }
+
+    public int size() {
+        return canonical.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.atypon.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Recipe cache in two tiers: a bounded on-heap LRU of {@link CompactRecipe}s for the hottest entries (L1) in front
+ * of a much larger {@link OffHeapStore} of their serialized form (L2).
+ *
+ * <p>Entries enter L1. When L1 evicts for size, the entry is demoted to L2 with its remaining TTL; an L2 hit
+ * promotes the entry back to L1 (and removes it from L2, so it lives in one tier at a time). With L2 disabled
+ * ({@code cache.off-heap.max-size: 0}) this is just the L1 cache.</p>
+ *
+ * <p>Moves between tiers, and the L2 cleanup done by {@link #put} and {@link #invalidate}, run under the L1 lock, so
+ * a demotion or promotion in flight cannot put back a copy that a newer write or a cluster invalidation removed.</p>
+ *
+ * <p>Per-tier hit rates come from {@code cache.gets{cache=recipes|recipes-offheap}}; moves between tiers are
+ * {@code cache.tier.moves{cache,direction=promote|demote}}.</p>
+ */
+public class TieredRecipeCache {
+
+    private final ExpiringLruCache<Integer, CompactRecipe> l1;
+    private final OffHeapStore l2;
+    private final StringInterner interner;
+
+    private final Counter promotions;
+    private final Counter demotions;
+
+    public TieredRecipeCache(String name, Duration ttl, int maxEntries, OffHeapStore l2, StringInterner interner,
+                             MeterRegistry meterRegistry) {
+        this.l2 = l2;
+        this.interner = interner;
+        this.l1 = new ExpiringLruCache<>(name, ttl, maxEntries, meterRegistry,
+                l2.isEnabled() ? this::demote : null);
+        this.promotions = meterRegistry.counter("cache.tier.moves", "cache", name, "direction", "promote");
+        this.demotions = meterRegistry.counter("cache.tier.moves", "cache", name, "direction", "demote");
+    }
+
+    public boolean isEnabled() {
+        return l1.isEnabled();
+    }
+
+    public CompactRecipe get(int id) {
+        CompactRecipe recipe = l1.get(id);
+        if (recipe != null || !l2.isEnabled() || !l1.isEnabled()) {
+            return recipe;
+        }
+        synchronized (l1) {
+            OffHeapStore.Value value = l2.take(id);
+            if (value == null) {
+                return l1.peek(id); // another reader may have promoted it meanwhile
+            }
+            recipe = CompactRecipe.fromBytes(value.bytes(), interner);
+            promotions.increment();
+            l1.putUntil(id, recipe, value.expiresAtMillis());
+            return recipe;
+        }
+    }
+
+    public void put(int id, CompactRecipe recipe) {
+        if (!l2.isEnabled()) {
+            l1.put(id, recipe);
+            return;
+        }
+        synchronized (l1) {
+            l1.put(id, recipe);
+            l2.invalidate(id); // an older copy must not be promoted over the new one
+        }
+    }
+
+    public boolean invalidate(int id) {
+        if (!l2.isEnabled()) {
+            return l1.invalidate(id);
+        }
+        synchronized (l1) {
+            boolean removed = l1.invalidate(id);
+            return l2.invalidate(id) || removed;
+        }
+    }
+
+    /** Expiry of the entry in either tier; 0 if not cached. Not counted as a hit or miss. */
+    public long expiresAtMillis(int id) {
+        long inL1 = l1.expiresAtMillis(id);
+        return inL1 > 0 || !l2.isEnabled() ? inL1 : l2.expiresAtMillis(id);
+    }
+
+    /** The hottest entries, which by construction are in L1. */
+    public List<Integer> hottest(int limit) {
+        return l1.hottest(limit);
+    }
+
+    /** Entries in both tiers. */
+    public int size() {
+        return l1.size() + (l2.isEnabled() ? l2.size() : 0);
+    }
+
+    public ExpiringLruCache<Integer, CompactRecipe> l1() {
+        return l1;
+    }
+
+    public OffHeapStore l2() {
+        return l2;
+    }
+
+    /** Runs under the L1 lock (see {@link ExpiringLruCache.EvictionListener}). */
+    private void demote(Integer id, CompactRecipe recipe, long expiresAtMillis) {
+        if (expiresAtMillis > System.currentTimeMillis() && l2.put(id, recipe.toBytes(), expiresAtMillis)) {
+            demotions.increment();
+        }
+    }
+}
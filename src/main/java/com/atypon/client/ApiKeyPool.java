@@ -0,0 +1,304 @@
+package com.atypon.client;
+
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.exception.RateLimitExceededException;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Spoonacular API keys calls are made with: {@code spoonacular.api-key} plus {@code spoonacular.api-keys}. Every
+ * key has its own plan, so the upstream ceiling is the sum of their rate limits and daily points.
+ *
+ * <p>{@link #acquire()} picks, among the keys not taken out, the one with the fewest quota points used per unit of
+ * {@code weight} that has a rate-limiter permission free right now; only if none has does it wait on the least-used
+ * one, up to its limiter's timeout. Each key's limiter is the resilience4j instance {@code spoonacular-key-<name>},
+ * else one built from the {@code spoonacular-key} config. A key is taken out until the next daily reset once
+ * upstream answers 402 or reports no points left, and for the {@code Retry-After} of a 429.</p>
+ */
+@Component
+public class ApiKeyPool {
+
+    static final String LIMITER_CONFIG = "spoonacular-key";
+    static final String PARAM = "apiKey";
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final SpoonacularQuota quota;
+    private final ZoneId resetZone;
+    private final Key[] keys;
+    private final Map<String, Key> byName = new HashMap<>();
+    private final Map<String, Key> byValue = new HashMap<>();
+    private final Counter takenOut;
+
+    public ApiKeyPool(SpoonacularConfig config, SpoonacularQuota quota, RateLimiterRegistry rateLimiters,
+                      MeterRegistry meterRegistry) {
+        this.quota = quota;
+        this.resetZone = config.getQuotaResetZone();
+        RateLimiterConfig limiterConfig = rateLimiters.getConfiguration(LIMITER_CONFIG)
+                .orElse(rateLimiters.getDefaultConfig());
+
+        List<Key> list = new ArrayList<>();
+        Set<String> values = new LinkedHashSet<>();
+        // The single api-key stays in the pool even when blank, so calls still go out (and fail upstream) as before.
+        if (config.getApiKeys().isEmpty() || (config.getApiKey() != null && !config.getApiKey().isBlank())) {
+            String value = config.getApiKey() == null ? "" : config.getApiKey();
+            values.add(value);
+            list.add(new Key("default", value, 1.0, rateLimiters.rateLimiter(LIMITER_CONFIG + "-default", limiterConfig),
+                    meterRegistry));
+        }
+        int n = 0;
+        for (SpoonacularConfig.ApiKey k : config.getApiKeys()) {
+            n++;
+            if (k.getKey() == null || k.getKey().isBlank() || !values.add(k.getKey())) {
+                continue;
+            }
+            String name = k.getName() == null || k.getName().isBlank() ? "key-" + n : k.getName();
+            if (k.getWeight() <= 0) {
+                throw new IllegalArgumentException("spoonacular.api-keys[" + (n - 1) + "].weight must be > 0");
+            }
+            list.add(new Key(name, k.getKey(), k.getWeight(), rateLimiters.rateLimiter(LIMITER_CONFIG + "-" + name, limiterConfig),
+                    meterRegistry));
+        }
+        this.keys = list.toArray(new Key[0]);
+
+        for (Key key : keys) {
+            if (byName.putIfAbsent(key.name, key) != null) {
+                throw new IllegalArgumentException("Duplicate Spoonacular API key name: " + key.name);
+            }
+            byValue.put(key.value, key);
+            meterRegistry.gauge("spoonacular.key.utilization", Tags.of("key", key.name), key, this::utilization);
+            meterRegistry.gauge("spoonacular.key.available", Tags.of("key", key.name), key,
+                    k -> k.isOutAt(System.currentTimeMillis()) ? 0 : 1);
+        }
+        this.takenOut = meterRegistry.counter("spoonacular.keys.taken_out");
+        meterRegistry.gauge("spoonacular.keys.healthy", this, ApiKeyPool::healthy);
+    }
+
+    /** A key for the next call, with one rate-limiter permission taken on it. */
+    public Key acquire() {
+        return acquireAt(System.currentTimeMillis());
+    }
+
+    Key acquireAt(long nowMillis) {
+        Key leastUsed = null;
+        Key leastUsedFree = null;
+        double leastUsedScore = Double.MAX_VALUE;
+        double leastUsedFreeScore = Double.MAX_VALUE;
+        long backIn = Long.MAX_VALUE;
+        for (Key key : keys) {
+            if (key.isOutAt(nowMillis)) {
+                backIn = Math.min(backIn, key.outUntilMillis - nowMillis);
+                continue;
+            }
+            double score = used(key) / key.weight;
+            if (score < leastUsedScore) {
+                leastUsed = key;
+                leastUsedScore = score;
+            }
+            if (score < leastUsedFreeScore && key.limiter.getMetrics().getAvailablePermissions() > 0) {
+                leastUsedFree = key;
+                leastUsedFreeScore = score;
+            }
+        }
+        if (leastUsedFree != null && leastUsedFree.limiter.acquirePermission()) {
+            return take(leastUsedFree);
+        }
+        if (leastUsed != null && leastUsed.limiter.acquirePermission()) {
+            return take(leastUsed);
+        }
+        Duration retryAfter = leastUsed != null
+                ? leastUsed.limiter.getRateLimiterConfig().getLimitRefreshPeriod()
+                : Duration.ofMillis(backIn == Long.MAX_VALUE ? DEFAULT_RETRY_AFTER.toMillis() : backIn);
+        throw new RateLimitExceededException(leastUsed != null
+                ? "Spoonacular rate limit reached on all API keys"
+                : "Spoonacular quota exhausted on all API keys", retryAfter);
+    }
+
+    private static Key take(Key key) {
+        key.calls.increment();
+        return key;
+    }
+
+    /** The pool name of the key a call was made with, read from its {@code apiKey} parameter, or null. */
+    public String nameOf(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (int start = 0; start < query.length(); ) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            if (query.startsWith(PARAM + "=", start)) {
+                Key key = byValue.get(query.substring(start + PARAM.length() + 1, end));
+                return key == null ? null : key.name;
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * Takes the key out if the response says it cannot be used for now: 402 or no points left until the next daily
+     * reset, 429 for its {@code Retry-After}.
+     */
+    public void onResponse(String name, int status, HttpHeaders headers) {
+        onResponseAt(name, status, headers, System.currentTimeMillis());
+    }
+
+    void onResponseAt(String name, int status, HttpHeaders headers, long nowMillis) {
+        Key key = name == null ? null : byName.get(name);
+        if (key == null) {
+            return;
+        }
+        double left = SpoonacularQuota.parse(headers.getFirst(SpoonacularQuota.HEADER_LEFT));
+        if (status == 402 || left <= 0) {
+            takeOut(key, nextResetAfter(nowMillis));
+        } else if (status == 429) {
+            takeOut(key, nowMillis + retryAfterMillis(headers.getFirst(HttpHeaders.RETRY_AFTER)));
+        }
+    }
+
+    private void takeOut(Key key, long untilMillis) {
+        if (untilMillis > key.outUntilMillis) {
+            key.outUntilMillis = untilMillis;
+            takenOut.increment();
+        }
+    }
+
+    long nextResetAfter(long nowMillis) {
+        LocalDate today = Instant.ofEpochMilli(nowMillis).atZone(resetZone).toLocalDate();
+        return today.plusDays(1).atStartOfDay(resetZone).toInstant().toEpochMilli();
+    }
+
+    private static long retryAfterMillis(String value) {
+        if (value != null) {
+            try {
+                return Math.max(1, Long.parseLong(value.trim())) * 1000;
+            } catch (NumberFormatException e) {
+                // an HTTP date: fall through to the default
+            }
+        }
+        return DEFAULT_RETRY_AFTER.toMillis();
+    }
+
+    /** Points used today if upstream reported them, else the calls made with the key since startup. */
+    private double used(Key key) {
+        double used = quota.used(key.name);
+        return Double.isNaN(used) ? key.calls.count() : used;
+    }
+
+    /** Share of the key's daily points used (0..1), or NaN until upstream has reported both figures. */
+    private double utilization(Key key) {
+        double used = quota.used(key.name);
+        double left = quota.left(key.name);
+        double total = used + left;
+        return total > 0 ? used / total : Double.NaN;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /** Keys with a non-blank value. */
+    public int configured() {
+        int n = 0;
+        for (Key key : keys) {
+            if (!key.value.isBlank()) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Configured keys that are not taken out. */
+    public int healthy() {
+        return healthyAt(System.currentTimeMillis());
+    }
+
+    int healthyAt(long nowMillis) {
+        int n = 0;
+        for (Key key : keys) {
+            if (!key.value.isBlank() && !key.isOutAt(nowMillis)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Whether a call could start now without waiting: some configured key that is not taken out has a rate-limiter
+     * permission free. Takes no permission (the call itself does, through {@link #acquire()}); for background work
+     * that must not queue behind interactive calls.
+     */
+    public boolean hasCapacity() {
+        return hasCapacityAt(System.currentTimeMillis());
+    }
+
+    boolean hasCapacityAt(long nowMillis) {
+        for (Key key : keys) {
+            if (!key.value.isBlank() && !key.isOutAt(nowMillis) && key.limiter.getMetrics().getAvailablePermissions() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<Key> keys() {
+        return List.of(keys);
+    }
+
+    public static final class Key {
+
+        private final String name;
+        private final String value;
+        private final double weight;
+        private final RateLimiter limiter;
+        private final Counter calls;
+        private volatile long outUntilMillis;
+
+        Key(String name, String value, double weight, RateLimiter limiter, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.value = value;
+            this.weight = weight;
+            this.limiter = limiter;
+            this.calls = meterRegistry.counter("spoonacular.key.calls", "key", name);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /** The secret sent as {@code apiKey}; never log or export it. */
+        public String value() {
+            return value;
+        }
+
+        public double weight() {
+            return weight;
+        }
+
+        boolean isOutAt(long nowMillis) {
+            return outUntilMillis > nowMillis;
+        }
+    }
+}
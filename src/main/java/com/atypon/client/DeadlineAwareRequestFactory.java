@@ -0,0 +1,30 @@
+package com.atypon.client;
+
+import com.atypon.web.RequestDeadline;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * The default {@code HttpURLConnection} factory, with each call's connect and read timeouts cut down to what is
+ * left of the inbound request's {@link RequestDeadline}. Calls made outside a request keep the configured timeouts.
+ */
+public class DeadlineAwareRequestFactory extends SimpleClientHttpRequestFactory {
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        long remaining = RequestDeadline.remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return;
+        }
+        int budget = (int) Math.max(1, Math.min(Integer.MAX_VALUE, remaining)); // 0 would mean "no timeout"
+        connection.setConnectTimeout(clamp(connection.getConnectTimeout(), budget));
+        connection.setReadTimeout(clamp(connection.getReadTimeout(), budget));
+    }
+
+    private static int clamp(int configured, int budget) {
+        return configured <= 0 ? budget : Math.min(configured, budget);
+    }
+}
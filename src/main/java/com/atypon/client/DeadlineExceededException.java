@@ -0,0 +1,14 @@
+package com.atypon.client;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * The inbound request's deadline left no time for an upstream attempt. The caller gave up, so this is not an
+ * upstream failure and is not alerted on.
+ */
+public class DeadlineExceededException extends ResourceAccessException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
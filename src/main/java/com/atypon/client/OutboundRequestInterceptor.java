@@ -1,10 +1,14 @@
 package com.atypon.client;
 
+import com.atypon.config.HttpClientProperties;
+import com.atypon.web.RequestCost;
 import com.atypon.web.RequestIdFilter;
+import com.atypon.web.RequestTiming;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.MDC;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
@@ -12,15 +16,42 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // outermost: also times replayed calls (TrafficCorpusInterceptor)
 public class OutboundRequestInterceptor implements ClientHttpRequestInterceptor {
 
+    static final String METRIC = "http.client.requests";
+
+    private static final int STATUS_IO_ERROR = -1;
+    private static final int STATUS_RUNTIME_ERROR = -2;
+
     private final MeterRegistry meterRegistry;
+    private final HttpClientProperties.Metrics metricsProps;
+    private final UriTemplateResolver templates;
+    private final OutboundTrafficStats trafficStats;
+    private final SpoonacularQuota quota;
+    private final ApiKeyPool keys;
+
+    /**
+     * Timers are resolved once per (host, template, method, status) and reused. Because the path tag is a
+     * template, this map is bounded by the number of endpoints we call, not by the number of recipe IDs.
+     */
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
 
-    public OutboundRequestInterceptor(MeterRegistry meterRegistry) {
+    public OutboundRequestInterceptor(MeterRegistry meterRegistry, HttpClientProperties props,
+                                      OutboundTrafficStats trafficStats, SpoonacularQuota quota, ApiKeyPool keys) {
         this.meterRegistry = meterRegistry;
+        this.metricsProps = props.getMetrics();
+        this.templates = new UriTemplateResolver(metricsProps.getUriTemplates());
+        this.trafficStats = trafficStats;
+        this.quota = quota;
+        this.keys = keys;
     }
 
     @Override
@@ -34,31 +65,72 @@ public class OutboundRequestInterceptor implements ClientHttpRequestInterceptor
 
         URI uri = request.getURI();
         String host = uri.getHost() == null ? "unknown" : uri.getHost();
-        String path = uri.getPath() == null ? "/" : uri.getPath();
+        String path = templates.resolve(uri.getPath());
         String method = request.getMethod() == null ? "UNKNOWN" : request.getMethod().name();
 
         long start = System.nanoTime();
         try {
             ClientHttpResponse response = execution.execute(request, body);
-            record(host, path, method, String.valueOf(response.getStatusCode().value()), start);
+            int status = response.getStatusCode().value();
+            record(host, path, method, status, start);
+            String key = keys.nameOf(uri);
+            RequestCost.add(quota.update(key, response.getHeaders()));
+            keys.onResponse(key, status, response.getHeaders());
             return response;
         } catch (IOException e) {
-            record(host, path, method, "IO_ERROR", start);
+            record(host, path, method, STATUS_IO_ERROR, start);
             throw e;
         } catch (RuntimeException e) {
-            record(host, path, method, "RUNTIME_ERROR", start);
+            record(host, path, method, STATUS_RUNTIME_ERROR, start);
             throw e;
         }
     }
 
-    private void record(String host, String path, String method, String status, long startNanos) {
+    private void record(String host, String path, String method, int status, long startNanos) {
         long duration = System.nanoTime() - startNanos;
-        Timer.builder("http.client.requests")
-                .tag("host", host)
-                .tag("path", path)
-                .tag("method", method)
-                .tag("status", status)
-                .register(meterRegistry)
-                .record(duration, TimeUnit.NANOSECONDS);
+        timer(host, path, method, status).record(duration, TimeUnit.NANOSECONDS);
+        trafficStats.record(status, duration);
+        RequestTiming.upstream(duration);
+    }
+
+    Timer timer(String host, String path, String method, int status) {
+        MeterKey key = new MeterKey(host, path, method, status);
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, this::register);
+        }
+        return timer;
+    }
+
+    private Timer register(MeterKey key) {
+        Timer.Builder builder = Timer.builder(METRIC)
+                .tag("host", key.host())
+                .tag("path", key.path())
+                .tag("method", key.method())
+                .tag("status", statusTag(key.status()))
+                .publishPercentileHistogram(metricsProps.isPercentileHistogram());
+
+        List<Double> percentiles = metricsProps.getPercentiles();
+        if (percentiles != null && !percentiles.isEmpty()) {
+            builder.publishPercentiles(percentiles.stream().mapToDouble(Double::doubleValue).toArray());
+        }
+        List<Duration> slo = metricsProps.getSlo();
+        if (slo != null && !slo.isEmpty()) {
+            builder.serviceLevelObjectives(slo.toArray(new Duration[0]));
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private static String statusTag(int status) {
+        if (status == STATUS_IO_ERROR) {
+            return "IO_ERROR";
+        }
+        if (status == STATUS_RUNTIME_ERROR) {
+            return "RUNTIME_ERROR";
+        }
+        return String.valueOf(status);
+    }
+
+    private record MeterKey(String host, String path, String method, int status) {
     }
 }
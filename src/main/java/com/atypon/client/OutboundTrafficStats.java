@@ -0,0 +1,140 @@
+package com.atypon.client;
+
+import com.atypon.config.SpoonacularHealthProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding-window view of real outbound traffic outcomes (error rate and latency percentiles), fed by
+ * {@link OutboundRequestInterceptor} and read by health checks.
+ *
+ * <p>The window is split into {@value #SLICES} time slices that are recycled in place, and latencies go into
+ * fixed logarithmic bins (factor &radic;2, 1 ms .. ~46 s), so recording is a couple of atomic increments and
+ * memory is constant. Percentiles are reported as the upper bound of the containing bin.</p>
+ */
+@Component
+public class OutboundTrafficStats {
+
+    static final int SLICES = 12;
+    private static final int BINS = 32;
+    private static final long[] BIN_UPPER_NANOS = new long[BINS];
+
+    static {
+        for (int i = 0; i < BINS; i++) {
+            BIN_UPPER_NANOS[i] = (long) (Duration.ofMillis(1).toNanos() * Math.pow(Math.sqrt(2), i));
+        }
+    }
+
+    public record Snapshot(long requests, long errors, Duration p50, Duration p99) {
+
+        public double errorRate() {
+            return requests == 0 ? 0.0 : (double) errors / requests;
+        }
+    }
+
+    private static final class Slice {
+        volatile long epoch = -1;
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final AtomicLongArray bins = new AtomicLongArray(BINS + 1);
+    }
+
+    private final long sliceMillis;
+    private final Slice[] slices = new Slice[SLICES];
+
+    public OutboundTrafficStats(SpoonacularHealthProperties props) {
+        Duration window = props.getPassiveWindow() == null ? Duration.ofSeconds(60) : props.getPassiveWindow();
+        this.sliceMillis = Math.max(1, window.toMillis() / SLICES);
+        for (int i = 0; i < SLICES; i++) {
+            slices[i] = new Slice();
+        }
+    }
+
+    /**
+     * @param status HTTP status, or a negative value for I/O and other transport failures
+     */
+    public void record(int status, long durationNanos) {
+        Slice slice = current(System.currentTimeMillis());
+        slice.requests.increment();
+        if (isFailure(status)) {
+            slice.errors.increment();
+        }
+        slice.bins.incrementAndGet(bin(durationNanos));
+    }
+
+    public Snapshot snapshot() {
+        long nowEpoch = System.currentTimeMillis() / sliceMillis;
+        long requests = 0;
+        long errors = 0;
+        long[] bins = new long[BINS + 1];
+        for (Slice s : slices) {
+            long epoch = s.epoch;
+            if (epoch < 0 || nowEpoch - epoch >= SLICES) {
+                continue;
+            }
+            requests += s.requests.sum();
+            errors += s.errors.sum();
+            for (int i = 0; i <= BINS; i++) {
+                bins[i] += s.bins.get(i);
+            }
+        }
+        return new Snapshot(requests, errors, percentile(bins, 0.50), percentile(bins, 0.99));
+    }
+
+    /**
+     * Upstream outcomes that say "Spoonacular is not usable for us": server errors, throttling, auth/quota
+     * failures and transport errors. Ordinary client errors (e.g. 404 for an unknown recipe) are healthy.
+     */
+    static boolean isFailure(int status) {
+        return status < 0 || status >= 500 || status == 429 || status == 401 || status == 402 || status == 403;
+    }
+
+    private Slice current(long nowMillis) {
+        long epoch = nowMillis / sliceMillis;
+        Slice slice = slices[(int) (epoch % SLICES)];
+        if (slice.epoch != epoch) {
+            synchronized (slice) {
+                if (slice.epoch != epoch) {
+                    slice.requests.reset();
+                    slice.errors.reset();
+                    for (int i = 0; i <= BINS; i++) {
+                        slice.bins.set(i, 0);
+                    }
+                    slice.epoch = epoch;
+                }
+            }
+        }
+        return slice;
+    }
+
+    private static int bin(long nanos) {
+        for (int i = 0; i < BINS; i++) {
+            if (nanos <= BIN_UPPER_NANOS[i]) {
+                return i;
+            }
+        }
+        return BINS;
+    }
+
+    private static Duration percentile(long[] bins, double q) {
+        long total = 0;
+        for (long b : bins) {
+            total += b;
+        }
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += bins[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(BIN_UPPER_NANOS[i]);
+            }
+        }
+        return Duration.ofNanos(BIN_UPPER_NANOS[BINS - 1]);
+    }
+}
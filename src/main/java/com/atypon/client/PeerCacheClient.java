@@ -0,0 +1,142 @@
+package com.atypon.client;
+
+import com.atypon.cache.ConsistentHashRing;
+import com.atypon.config.CacheProperties;
+import com.atypon.model.Recipe;
+import com.atypon.web.PeerAccessFilter;
+import com.atypon.web.RequestTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Peer mode (groupcache-style): every recipe ID has one owner replica on a consistent-hash ring over
+ * {@code cache.peers.members}. A replica that does not own an ID asks the owner's
+ * {@code /internal/peers/recipes/{id}} instead of Spoonacular; the owner caches it and single-flights the upstream
+ * fetch, so each recipe is fetched upstream and held in memory about once per cluster rather than once per
+ * replica.
+ *
+ * <p>Peer calls use their own short timeouts and carry {@code cache.peers.token}, which the owner checks (see
+ * {@link PeerAccessFilter}). If the owner cannot be reached the caller falls back to upstream, so a replica going
+ * away costs extra upstream calls, not errors.</p>
+ *
+ * <p>Metrics: {@code cache.peer.requests{result=hit|not_found|error}}.</p>
+ */
+@Component
+public class PeerCacheClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PeerCacheClient.class);
+
+    public static final String PEER_PATH = PeerAccessFilter.PREFIX + "recipes/";
+
+    private final ConsistentHashRing ring;
+    private final String self;
+    private final double sampleRate;
+    private final RestTemplate restTemplate;
+
+    private final Counter hits;
+    private final Counter notFound;
+    private final Counter errors;
+
+    public PeerCacheClient(CacheProperties props, RestTemplateBuilder builder, MeterRegistry meterRegistry) {
+        CacheProperties.Peers peers = props.getPeers();
+        String selfUrl = normalize(peers.getSelf());
+        List<String> members = new ArrayList<>();
+        if (peers.getMembers() != null) {
+            for (String m : peers.getMembers()) {
+                String url = normalize(m);
+                if (url != null && !members.contains(url)) {
+                    members.add(url);
+                }
+            }
+        }
+
+        boolean on = props.isEnabled() && peers.isEnabled();
+        if (on && (selfUrl == null || !members.contains(selfUrl))) {
+            LOGGER.warn("Peer cache disabled: cache.peers.self ({}) is not one of cache.peers.members", selfUrl);
+            on = false;
+        }
+        if (on && (peers.getToken() == null || peers.getToken().isBlank())) {
+            LOGGER.warn("Peer cache disabled: cache.peers.token is not set");
+            on = false;
+        }
+        this.ring = on && members.size() > 1 ? new ConsistentHashRing(members, peers.getVirtualNodes()) : null;
+        this.self = selfUrl;
+        this.sampleRate = peers.getHotReplicaSampleRate();
+        this.restTemplate = ring == null ? null : builder
+                .setConnectTimeout(peers.getTimeout())
+                .setReadTimeout(peers.getTimeout())
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + peers.getToken().trim())
+                .build();
+
+        this.hits = meterRegistry.counter("cache.peer.requests", "result", "hit");
+        this.notFound = meterRegistry.counter("cache.peer.requests", "result", "not_found");
+        this.errors = meterRegistry.counter("cache.peer.requests", "result", "error");
+    }
+
+    /**
+     * A client that owns every key; for callers (tests, benchmarks) that want the single-replica path.
+     */
+    public static PeerCacheClient disabled() {
+        return new PeerCacheClient(new CacheProperties(), new RestTemplateBuilder(), new SimpleMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /** True if another replica owns {@code recipeId}. */
+    public boolean isRemote(int recipeId) {
+        return ring != null && !self.equals(ring.owner(recipeId));
+    }
+
+    /** Whether a recipe fetched from its owner should also be kept as a local hot replica. */
+    public boolean shouldReplicate() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Asks the owner for {@code recipeId}.
+     *
+     * @return the owner's answer (200 or 404), or {@code null} if it could not be reached
+     */
+    public ResponseEntity<Recipe> fetch(int recipeId) {
+        String owner = ring.owner(recipeId);
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<Recipe> resp = restTemplate.getForEntity(owner + PEER_PATH + recipeId, Recipe.class);
+            hits.increment();
+            return resp;
+        } catch (HttpClientErrorException.NotFound e) {
+            notFound.increment();
+            return ResponseEntity.notFound().build();
+        } catch (RestClientException e) {
+            errors.increment();
+            LOGGER.debug("Peer {} failed for recipe {}: {}", owner, recipeId, e.toString());
+            return null;
+        } finally {
+            RequestTiming.upstream(System.nanoTime() - start);
+        }
+    }
+
+    private static String normalize(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String u = url.trim();
+        return u.endsWith("/") ? u.substring(0, u.length() - 1) : u;
+    }
+}
@@ -1,17 +1,32 @@
 package com.atypon.client;
 
+import com.atypon.config.DeadlineProperties;
 import com.atypon.config.SpoonacularConfig;
+import com.atypon.exception.RateLimitExceededException;
 import com.atypon.model.Recipe;
 import com.atypon.monitoring.AlertService;
+import com.atypon.web.RequestDeadline;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -19,16 +34,39 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Component
 public class SpoonacularClient {
 
+    // Spoonacular's answer once a key's daily points are used up
+    private static final int PAYMENT_REQUIRED = 402;
+
     private final RestTemplate restTemplate;
     private final SpoonacularConfig config;
     private final ObjectMapper objectMapper;
     private final AlertService alertService;
+    private final ApiKeyPool keys;
+
+    // Per-method concurrency partitions; a full one throws BulkheadFullException before any upstream call.
+    private final Bulkhead searchBulkhead;
+    private final Bulkhead recipeInfoBulkhead;
 
-    public SpoonacularClient(RestTemplate restTemplate, SpoonacularConfig config, ObjectMapper objectMapper, AlertService alertService) {
+    // resilience4j.retry.instances.spoonacular, applied per attempt by callWithRetry so each retry fits the deadline
+    private final RetryConfig retry;
+    private final long minAttemptMillis;
+    private final Counter retried;
+    private final Counter retriesSkipped;
+
+    public SpoonacularClient(RestTemplate restTemplate, SpoonacularConfig config, ObjectMapper objectMapper,
+                             AlertService alertService, ApiKeyPool keys, BulkheadRegistry bulkheads,
+                             RetryRegistry retries, DeadlineProperties deadlines, MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
         this.config = config;
         this.objectMapper = objectMapper;
         this.alertService = alertService;
+        this.keys = keys;
+        this.searchBulkhead = bulkheads.bulkhead("spoonacular-search");
+        this.recipeInfoBulkhead = bulkheads.bulkhead("spoonacular-recipe-info");
+        this.retry = retries.retry("spoonacular").getRetryConfig();
+        this.minAttemptMillis = deadlines.getMinAttemptTimeout().toMillis();
+        this.retried = meterRegistry.counter("spoonacular.retries", "result", "retried");
+        this.retriesSkipped = meterRegistry.counter("spoonacular.retries", "result", "skipped_deadline");
     }
 
     /**
@@ -36,17 +74,23 @@ public class SpoonacularClient {
      */
     public ResponseEntity<JsonNode> search(String query, String cuisine) {
         try {
-            UriComponentsBuilder b = UriComponentsBuilder.fromHttpUrl(config.getBaseUrl())
-                    .path("/recipes/complexSearch")
-                    .queryParam("query", query)
-                    .queryParam("apiKey", config.getApiKey());
+            return callWithRetry(() -> withKey(apiKey -> {
+                UriComponentsBuilder b = UriComponentsBuilder.fromHttpUrl(config.getBaseUrl())
+                        .path("/recipes/complexSearch")
+                        .queryParam("query", query)
+                        .queryParam("apiKey", apiKey);
 
-            if (cuisine != null && !cuisine.isBlank()) {
-                b.queryParam("cuisine", cuisine);
-            }
+                if (cuisine != null && !cuisine.isBlank()) {
+                    b.queryParam("cuisine", cuisine);
+                }
 
-            URI uri = b.build().toUri();
-            return exchangeJson(uri);
+                URI uri = b.build().toUri();
+                return searchBulkhead.executeSupplier(() -> exchangeJson(uri));
+            }));
+        }
+        catch (BulkheadFullException | DeadlineExceededException | RateLimitExceededException e) {
+            // Local back-pressure, an exhausted caller budget or no usable API key, not an upstream failure.
+            throw e;
         }
         catch (Exception e) {
             alertService.alert("spoonacular.search.failed", "Failed to call Spoonacular search endpoint", e);
@@ -64,14 +108,21 @@ public class SpoonacularClient {
 
     public ResponseEntity<Recipe> getRecipeInformation(int recipeId, boolean includeNutrition) {
         try {
-            URI uri = UriComponentsBuilder.fromHttpUrl(config.getBaseUrl())
-                    .path("/recipes/{id}/information")
-                    .queryParam("includeNutrition", includeNutrition)
-                    .queryParam("apiKey", config.getApiKey())
-                    .buildAndExpand(Map.of("id", recipeId))
-                    .toUri();
-
-            return restTemplate.exchange(uri, HttpMethod.GET, null, Recipe.class);
+            return callWithRetry(() -> withKey(apiKey -> {
+                URI uri = UriComponentsBuilder.fromHttpUrl(config.getBaseUrl())
+                        .path("/recipes/{id}/information")
+                        .queryParam("includeNutrition", includeNutrition)
+                        .queryParam("apiKey", apiKey)
+                        .buildAndExpand(Map.of("id", recipeId))
+                        .toUri();
+
+                return recipeInfoBulkhead.executeSupplier(
+                        () -> restTemplate.exchange(uri, HttpMethod.GET, null, Recipe.class));
+            }));
+        }
+        catch (HttpClientErrorException.NotFound | DeadlineExceededException e) {
+            // Unknown recipe ID or an exhausted caller budget: not an upstream failure worth alerting on.
+            throw e;
         }
         catch (RestClientException e) {
             alertService.alert("spoonacular.recipeInfo.failed", "Failed to fetch recipe info from Spoonacular", e);
@@ -79,6 +130,60 @@ public class SpoonacularClient {
         }
     }
 
+    /**
+     * Runs {@code attempt} under the spoonacular retry policy, but starts an attempt (first or retry) only if the
+     * inbound request's deadline leaves {@code deadlines.min-attempt-timeout} after the backoff; otherwise the last
+     * failure is rethrown at once instead of sleeping towards a response nobody waits for.
+     */
+    <T> T callWithRetry(Supplier<T> attempt) {
+        if (RequestDeadline.remainingMillis() < minAttemptMillis) {
+            retriesSkipped.increment();
+            throw new DeadlineExceededException("Request deadline exceeded before calling Spoonacular");
+        }
+        for (int n = 1; ; n++) {
+            try {
+                return attempt.get();
+            } catch (RuntimeException e) {
+                if (n >= retry.getMaxAttempts() || !retry.getExceptionPredicate().test(e)) {
+                    throw e;
+                }
+                long waitMillis = retry.<T>getIntervalBiFunction().apply(n, Either.left(e));
+                if (RequestDeadline.remainingMillis() - waitMillis < minAttemptMillis) {
+                    retriesSkipped.increment();
+                    throw e;
+                }
+                retried.increment();
+                sleep(waitMillis, e);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code call} with a key from the pool. A 402 means that key's daily points are gone (the outbound
+     * interceptor has taken it out), so the call moves straight on to the next key instead of waiting for a retry.
+     */
+    private <T> T withKey(Function<String, T> call) {
+        for (int tries = keys.size(); ; tries--) {
+            ApiKeyPool.Key key = keys.acquire();
+            try {
+                return call.apply(key.value());
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode().value() != PAYMENT_REQUIRED || tries <= 1 || keys.healthy() == 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void sleep(long millis, RuntimeException cause) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
     private ResponseEntity<JsonNode> exchangeJson(URI uri) {
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.ACCEPT, "application/json");
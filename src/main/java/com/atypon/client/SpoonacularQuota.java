@@ -0,0 +1,140 @@
+package com.atypon.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last quota figures reported by Spoonacular ({@code X-API-Quota-*} response headers), per API key of the
+ * {@link ApiKeyPool}. Spoonacular charges points per call, not requests, so background work that spends quota
+ * (warm-up, prefetch) checks {@link #left()}, the sum over all keys, first.
+ */
+@Component
+public class SpoonacularQuota {
+
+    static final String HEADER_LEFT = "X-API-Quota-Left";
+    static final String HEADER_USED = "X-API-Quota-Used";
+    static final String HEADER_REQUEST = "X-API-Quota-Request";
+    private static final String HEADER_PREFIX = "X-API-Quota-";
+
+    /** Figures of calls whose key is not in the pool (e.g. none sent). */
+    private static final String UNKNOWN_KEY = "";
+
+    private final Map<String, Figures> byKey = new ConcurrentHashMap<>();
+    private volatile double lastRequestCost = Double.NaN;
+
+    public SpoonacularQuota(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("spoonacular.quota.left", this, SpoonacularQuota::left);
+        meterRegistry.gauge("spoonacular.quota.used", this, SpoonacularQuota::used);
+    }
+
+    /**
+     * Records the figures reported for a call made with {@code key} (a pool key name, or null) and returns the
+     * points charged for this call, or NaN if not reported.
+     */
+    double update(String key, HttpHeaders headers) {
+        // One pass over the names: each HttpHeaders.getFirst lower-cases (allocates) the name it looks up, on
+        // every upstream call.
+        double l = Double.NaN;
+        double u = Double.NaN;
+        double r = Double.NaN;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey();
+            if (name.length() < HEADER_PREFIX.length()
+                    || !name.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length())) {
+                continue;
+            }
+            if (name.equalsIgnoreCase(HEADER_LEFT)) {
+                l = parse(first(header.getValue()));
+            } else if (name.equalsIgnoreCase(HEADER_USED)) {
+                u = parse(first(header.getValue()));
+            } else if (name.equalsIgnoreCase(HEADER_REQUEST)) {
+                r = parse(first(header.getValue()));
+            }
+        }
+        String k = key == null ? UNKNOWN_KEY : key;
+        Figures figures = byKey.get(k);
+        if (figures == null) {
+            figures = byKey.computeIfAbsent(k, unused -> new Figures());
+        }
+        if (!Double.isNaN(l)) {
+            figures.left = l;
+        }
+        if (!Double.isNaN(u)) {
+            figures.used = u;
+        }
+        if (!Double.isNaN(r)) {
+            lastRequestCost = r;
+        }
+        return r;
+    }
+
+    /** Points left today over all keys upstream has reported on, or NaN if it has not told us yet. */
+    public double left() {
+        double sum = Double.NaN;
+        for (Figures figures : byKey.values()) {
+            sum = add(sum, figures.left);
+        }
+        return sum;
+    }
+
+    public double used() {
+        double sum = Double.NaN;
+        for (Figures figures : byKey.values()) {
+            sum = add(sum, figures.used);
+        }
+        return sum;
+    }
+
+    /** Points left today on one key, or NaN if not reported yet. */
+    public double left(String key) {
+        Figures figures = byKey.get(key);
+        return figures == null ? Double.NaN : figures.left;
+    }
+
+    public double used(String key) {
+        Figures figures = byKey.get(key);
+        return figures == null ? Double.NaN : figures.used;
+    }
+
+    public double lastRequestCost() {
+        return lastRequestCost;
+    }
+
+    /** True only when upstream reported fewer than {@code minLeft} points; unknown quota is not treated as low. */
+    public boolean isBelow(double minLeft) {
+        double l = left();
+        return !Double.isNaN(l) && l < minLeft;
+    }
+
+    private static double add(double sum, double value) {
+        if (Double.isNaN(value)) {
+            return sum;
+        }
+        return Double.isNaN(sum) ? value : sum + value;
+    }
+
+    static double parse(String value) {
+        if (value == null || value.isBlank()) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String first(List<String> values) {
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static final class Figures {
+        volatile double left = Double.NaN;
+        volatile double used = Double.NaN;
+    }
+}
@@ -0,0 +1,203 @@
+package com.atypon.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Recorded Spoonacular responses, keyed by method, path and query with the API key removed.
+ *
+ * <p>One entry per distinct request: the last successful (2xx/404) response body, its status and content type,
+ * how often the request was made, and up to {@value #MAX_LATENCY_SAMPLES} observed latencies. On disk it is a
+ * single gzip-compressed binary file ({@link #write}/{@link #read}), so a capture of tens of thousands of recipes
+ * stays small and loads without a JSON parser.</p>
+ */
+public final class TrafficCorpus {
+
+    private static final int MAGIC = 0x53504331; // "SPC1"
+    static final int MAX_LATENCY_SAMPLES = 16;
+
+    /** Query parameters never written to the corpus. */
+    private static final List<String> SECRET_PARAMS = List.of("apikey", "api_key", "key");
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public static final class Entry {
+        final String key;
+        volatile int status;
+        volatile String contentType;
+        volatile byte[] body;
+        private long hits;
+        private final int[] latencyMicros = new int[MAX_LATENCY_SAMPLES];
+        private int latencyCount;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public int status() {
+            return status;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public byte[] body() {
+            return body;
+        }
+
+        public synchronized long hits() {
+            return hits;
+        }
+
+        synchronized void record(int latency) {
+            hits++;
+            // keep the first samples, then replace at random so later traffic is still represented
+            if (latencyCount < MAX_LATENCY_SAMPLES) {
+                latencyMicros[latencyCount++] = latency;
+            } else {
+                latencyMicros[ThreadLocalRandom.current().nextInt(MAX_LATENCY_SAMPLES)] = latency;
+            }
+        }
+
+        /** A recorded latency chosen at random, or 0 if none was recorded. */
+        public synchronized long sampleLatencyMicros() {
+            return latencyCount == 0 ? 0 : latencyMicros[ThreadLocalRandom.current().nextInt(latencyCount)];
+        }
+    }
+
+    /**
+     * Corpus key for a request: {@code METHOD path?sorted-query}, without secret parameters.
+     */
+    public static String key(String method, URI uri) {
+        SortedSet<String> params = new TreeSet<>();
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = eq < 0 ? pair : pair.substring(0, eq);
+                if (!SECRET_PARAMS.contains(name.toLowerCase(Locale.ROOT))) {
+                    params.add(pair);
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder(method).append(' ').append(uri.getRawPath());
+        if (!params.isEmpty()) {
+            sb.append('?').append(String.join("&", params));
+        }
+        return sb.toString();
+    }
+
+    public Entry get(String key) {
+        return entries.get(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    /**
+     * Records a response; returns false (nothing stored) once {@code maxEntries} distinct requests are held.
+     */
+    public boolean record(String key, int status, String contentType, byte[] body, long latencyMicros, int maxEntries) {
+        Entry e = entries.get(key);
+        if (e == null) {
+            if (entries.size() >= maxEntries) {
+                return false;
+            }
+            e = entries.computeIfAbsent(key, Entry::new);
+        }
+        e.status = status;
+        e.contentType = contentType;
+        e.body = body;
+        e.record((int) Math.min(Integer.MAX_VALUE, latencyMicros));
+        return true;
+    }
+
+    /** Writes atomically (temp file, then move). */
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        List<Entry> snapshot = new ArrayList<>(entries.values());
+        try (OutputStream fileOut = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOut)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(snapshot.size());
+            for (Entry e : snapshot) {
+                synchronized (e) {
+                    out.writeUTF(e.key);
+                    out.writeShort(e.status);
+                    out.writeUTF(e.contentType == null ? "" : e.contentType);
+                    out.writeLong(e.hits);
+                    out.writeByte(e.latencyCount);
+                    for (int i = 0; i < e.latencyCount; i++) {
+                        out.writeInt(e.latencyMicros[i]);
+                    }
+                    byte[] body = e.body == null ? new byte[0] : e.body;
+                    out.writeInt(body.length);
+                    out.write(body);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static TrafficCorpus read(Path file) throws IOException {
+        TrafficCorpus corpus = new TrafficCorpus();
+        try (InputStream fileIn = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(fileIn)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a traffic corpus: " + file);
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Entry e = new Entry(in.readUTF());
+                e.status = in.readUnsignedShort();
+                String contentType = in.readUTF();
+                e.contentType = contentType.isEmpty() ? null : contentType;
+                e.hits = in.readLong();
+                e.latencyCount = in.readUnsignedByte();
+                if (e.latencyCount > MAX_LATENCY_SAMPLES) {
+                    throw new IOException("Corrupt traffic corpus: " + file);
+                }
+                for (int j = 0; j < e.latencyCount; j++) {
+                    e.latencyMicros[j] = in.readInt();
+                }
+                e.body = in.readNBytes(in.readInt());
+                corpus.entries.put(e.key, e);
+            }
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,189 @@
+package com.atypon.client;
+
+import com.atypon.config.HttpClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record/replay of Spoonacular traffic ({@code http.client.corpus.mode}), so benchmarks can run against realistic
+ * payloads, ID distribution and latencies on a machine without network access or quota.
+ *
+ * <ul>
+ *   <li>RECORD: real responses (2xx and 404) are kept in a {@link TrafficCorpus} together with their latency and
+ *   written to {@code file} on shutdown. The API key never reaches the corpus: it is dropped from the request key
+ *   and no request headers are stored.</li>
+ *   <li>REPLAY: the corpus is loaded at startup and every request is answered from it after sleeping for one of its
+ *   recorded latencies; nothing is sent over the network. Unknown requests get {@code miss-status}.</li>
+ * </ul>
+ *
+ * <p>Runs inside {@link OutboundRequestInterceptor}, so client metrics also cover replayed calls. Metrics:
+ * {@code http.client.corpus{result=recorded|skipped|hit|miss}}.</p>
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class TrafficCorpusInterceptor implements ClientHttpRequestInterceptor, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficCorpusInterceptor.class);
+
+    private final HttpClientProperties.Corpus props;
+    private final TrafficCorpus corpus;
+
+    private final Counter recorded;
+    private final Counter skipped;
+    private final Counter hits;
+    private final Counter misses;
+
+    public TrafficCorpusInterceptor(HttpClientProperties props, MeterRegistry meterRegistry) throws IOException {
+        this.props = props.getCorpus();
+        this.corpus = this.props.getMode() == HttpClientProperties.Corpus.Mode.REPLAY
+                ? TrafficCorpus.read(Path.of(this.props.getFile()))
+                : new TrafficCorpus();
+        if (this.props.getMode() == HttpClientProperties.Corpus.Mode.REPLAY) {
+            LOGGER.info("Replaying {} recorded Spoonacular requests from {}", corpus.size(), this.props.getFile());
+        }
+
+        this.recorded = meterRegistry.counter("http.client.corpus", "result", "recorded");
+        this.skipped = meterRegistry.counter("http.client.corpus", "result", "skipped");
+        this.hits = meterRegistry.counter("http.client.corpus", "result", "hit");
+        this.misses = meterRegistry.counter("http.client.corpus", "result", "miss");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        return switch (props.getMode()) {
+            case OFF -> execution.execute(request, body);
+            case RECORD -> record(request, body, execution);
+            case REPLAY -> replay(request);
+        };
+    }
+
+    private ClientHttpResponse record(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long start = System.nanoTime();
+        ClientHttpResponse response = execution.execute(request, body);
+        HttpStatusCode status = response.getStatusCode();
+        String statusText = response.getStatusText();
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        byte[] bytes;
+        try (response) {
+            bytes = StreamUtils.copyToByteArray(response.getBody());
+        }
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+        boolean keep = (status.is2xxSuccessful() || status.value() == 404)
+                && bytes.length <= props.getMaxBodySize().toBytes();
+        MediaType contentType = headers.getContentType();
+        if (keep && corpus.record(TrafficCorpus.key(request.getMethod().name(), request.getURI()), status.value(),
+                contentType == null ? null : contentType.toString(), bytes, latencyMicros, props.getMaxEntries())) {
+            recorded.increment();
+        } else {
+            skipped.increment();
+        }
+        return new BufferedResponse(status, statusText, headers, bytes);
+    }
+
+    private ClientHttpResponse replay(HttpRequest request) throws IOException {
+        TrafficCorpus.Entry entry = corpus.get(TrafficCorpus.key(request.getMethod().name(), request.getURI()));
+        if (entry == null) {
+            misses.increment();
+            return new BufferedResponse(HttpStatusCode.valueOf(props.getMissStatus()), "Not in corpus",
+                    new HttpHeaders(), new byte[0]);
+        }
+        hits.increment();
+        long waitNanos = (long) (TimeUnit.MICROSECONDS.toNanos(entry.sampleLatencyMicros()) * props.getLatencyScale());
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while replaying recorded latency");
+            }
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (entry.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, entry.contentType());
+        }
+        return new BufferedResponse(HttpStatusCode.valueOf(entry.status()), "", headers, entry.body());
+    }
+
+    TrafficCorpus corpus() {
+        return corpus;
+    }
+
+    /** Writes the recorded corpus; called on shutdown in RECORD mode. */
+    @Override
+    public void close() {
+        if (props.getMode() != HttpClientProperties.Corpus.Mode.RECORD || corpus.size() == 0) {
+            return;
+        }
+        Path file = Path.of(props.getFile());
+        try {
+            corpus.write(file);
+            LOGGER.info("Recorded {} Spoonacular requests to {} ({} bytes)", corpus.size(), file, Files.size(file));
+        } catch (IOException e) {
+            LOGGER.warn("Could not write traffic corpus {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** A fully read response. */
+    private static final class BufferedResponse implements ClientHttpResponse {
+        private final HttpStatusCode status;
+        private final String statusText;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        BufferedResponse(HttpStatusCode status, String statusText, HttpHeaders headers, byte[] body) {
+            this.status = status;
+            this.statusText = statusText;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return statusText;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.atypon.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps concrete outbound paths (e.g. {@code /recipes/123/information}) back to the URI template they were
+ * expanded from (e.g. {@code /recipes/{id}/information}) so metric tags stay low-cardinality.
+ *
+ * <p>Known templates are matched segment by segment without allocating. Paths that match no template fall back
+ * to replacing numeric segments with {@code {id}}; anything else is collapsed to {@link #UNKNOWN}.</p>
+ */
+public final class UriTemplateResolver {
+
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private final List<Template> templates = new ArrayList<>();
+
+    public UriTemplateResolver(List<String> templates) {
+        if (templates != null) {
+            for (String t : templates) {
+                if (t != null && !t.isBlank()) {
+                    this.templates.add(new Template(t.trim()));
+                }
+            }
+        }
+    }
+
+    public String resolve(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        for (Template t : templates) {
+            if (t.matches(path)) {
+                return t.value;
+            }
+        }
+        return normalize(path);
+    }
+
+    /**
+     * Fallback for paths outside the configured templates: numeric segments become {@code {id}}. Paths with
+     * other variable-looking segments are not trusted as tag values.
+     */
+    static String normalize(String path) {
+        StringBuilder sb = new StringBuilder(path.length());
+        int i = 0;
+        int len = path.length();
+        while (i < len) {
+            int slash = path.indexOf('/', i);
+            int end = slash < 0 ? len : slash;
+            if (end > i) {
+                if (isNumeric(path, i, end)) {
+                    sb.append("{id}");
+                } else if (!isPlain(path, i, end)) {
+                    return UNKNOWN;
+                } else {
+                    sb.append(path, i, end);
+                }
+            }
+            if (slash < 0) {
+                break;
+            }
+            sb.append('/');
+            i = slash + 1;
+        }
+        return sb.length() == 0 ? "/" : sb.toString();
+    }
+
+    private static boolean isNumeric(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlain(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            boolean ok = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_' || c == '.';
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Template {
+        final String value;
+        final String[] segments;
+        final boolean[] variable;
+
+        Template(String value) {
+            this.value = value;
+            String trimmed = value.startsWith("/") ? value.substring(1) : value;
+            this.segments = trimmed.isEmpty() ? new String[0] : trimmed.split("/", -1);
+            this.variable = new boolean[segments.length];
+            for (int s = 0; s < segments.length; s++) {
+                String seg = segments[s];
+                variable[s] = seg.length() > 1 && seg.charAt(0) == '{' && seg.charAt(seg.length() - 1) == '}';
+            }
+        }
+
+        boolean matches(String path) {
+            int pos = path.startsWith("/") ? 1 : 0;
+            int len = path.length();
+            for (int s = 0; s < segments.length; s++) {
+                if (pos > len) {
+                    return false;
+                }
+                int slash = path.indexOf('/', pos);
+                int end = slash < 0 ? len : slash;
+                String seg = segments[s];
+                if (variable[s]) {
+                    if (end == pos) {
+                        return false;
+                    }
+                } else if (end - pos != seg.length() || !path.startsWith(seg, pos)) {
+                    return false;
+                }
+                boolean last = s == segments.length - 1;
+                if (last) {
+                    return slash < 0;
+                }
+                if (slash < 0) {
+                    return false;
+                }
+                pos = slash + 1;
+            }
+            return segments.length == 0 && (len == 0 || "/".equals(path));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.atypon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bearer token for actuator endpoints that change state or expose client data (everything but profiling, which has
+ * its own token in {@code profiling.*}).
+ */
+@ConfigurationProperties(prefix = "admin-endpoints")
+public class AdminEndpointProperties {
+
+    /** Token required as {@code Authorization: Bearer <token>}; without one the endpoints refuse every request. */
+    private String token;
+
+    /** Actuator endpoint IDs guarded by the token. */
+    private List<String> endpoints = new ArrayList<>(List.of("invalidation", "topclients"));
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<String> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
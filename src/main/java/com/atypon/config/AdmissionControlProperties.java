@@ -0,0 +1,67 @@
+package com.atypon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Server-wide admission control (load shedding) for {@code /api} requests.
+ */
+@ConfigurationProperties(prefix = "admission-control")
+public class AdmissionControlProperties {
+
+    /** Shed excess load with 503 instead of letting requests queue up behind slow ones. */
+    private boolean enabled = true;
+
+    /** API requests processed concurrently; further requests wait in the admission queue. */
+    private int maxConcurrent = 100;
+
+    /** Acceptable queueing delay once the queue has been standing for a whole interval (CoDel target). */
+    private Duration targetDelay = Duration.ofMillis(20);
+
+    /** How long a queue may stay non-empty before it is treated as standing; also the normal max wait. */
+    private Duration interval = Duration.ofMillis(200);
+
+    /** Retry-After sent with 503 responses. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public Duration getTargetDelay() {
+        return targetDelay;
+    }
+
+    public void setTargetDelay(Duration targetDelay) {
+        this.targetDelay = targetDelay;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
@@ -13,6 +13,18 @@ public class AlertingProperties {
     /** Minimum time between repeating the same alert key. */
     private Duration throttle = Duration.ofSeconds(60);
 
+    /** How often the dispatcher drains and aggregates queued alerts. */
+    private Duration window = Duration.ofSeconds(5);
+
+    /** Max alerts waiting for dispatch. Further alerts are dropped (and counted). */
+    private int queueCapacity = 1024;
+
+    /** Max distinct alert keys tracked by the throttle. Least recently used keys are forgotten first. */
+    private int maxTrackedKeys = 1000;
+
+    /** Optional HTTP webhook sink. */
+    private final Webhook webhook = new Webhook();
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -28,4 +40,57 @@ public class AlertingProperties {
     public void setThrottle(Duration throttle) {
         this.throttle = throttle;
     }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    public Webhook getWebhook() {
+        return webhook;
+    }
+
+    public static class Webhook {
+
+        /** Target URL. The webhook sink is only created when this is set. */
+        private String url;
+
+        /** Connect/read timeout for webhook delivery. */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
 }
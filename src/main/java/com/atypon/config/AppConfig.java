@@ -1,5 +1,6 @@
 package com.atypon.config;
 
+import com.atypon.client.DeadlineAwareRequestFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,7 +22,9 @@ public class AppConfig {
         Duration connectTimeout = props.getConnectTimeout();
         Duration readTimeout = props.getReadTimeout();
 
+        // per-call timeouts shrink to the inbound request's remaining deadline
         return builder
+                .requestFactory(DeadlineAwareRequestFactory::new)
                 .setConnectTimeout(connectTimeout)
                 .setReadTimeout(readTimeout)
                 .additionalInterceptors(interceptors)
@@ -0,0 +1,23 @@
+package com.atypon.config;
+
+import com.atypon.cache.InvalidationTransport;
+import com.atypon.cache.LocalInvalidationTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the default {@link InvalidationTransport}.
+ *
+ * <p>Production note: with more than one replica, define an {@code InvalidationTransport} bean backed by a shared
+ * channel (e.g. Redis pub/sub) so invalidations reach every pod; the in-process default only reaches this JVM.</p>
+ */
+@Configuration
+public class CacheInvalidationConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(InvalidationTransport.class)
+    public InvalidationTransport invalidationTransport(CacheProperties props) {
+        return new LocalInvalidationTransport(props.getInvalidation().getChannel());
+    }
+}
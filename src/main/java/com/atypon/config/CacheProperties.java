@@ -0,0 +1,507 @@
+package com.atypon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+    /** Cache Spoonacular recipe information and search results in memory. */
+    private boolean enabled = true;
+
+    /** Distinct ingredient names and units shared between cached recipes; 0 disables deduplication. */
+    private int internMaxEntries = 100_000;
+
+    private final Region recipes = new Region(Duration.ofHours(1), 10_000);
+
+    private final Region searches = new Region(Duration.ofMinutes(10), 2_000);
+
+    private final OffHeap offHeap = new OffHeap();
+
+    private final Negative negative = new Negative();
+
+    private final Representations representations = new Representations();
+
+    private final Warmup warmup = new Warmup();
+
+    private final Prefetch prefetch = new Prefetch();
+
+    private final Invalidation invalidation = new Invalidation();
+
+    private final Peers peers = new Peers();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInternMaxEntries() {
+        return internMaxEntries;
+    }
+
+    public void setInternMaxEntries(int internMaxEntries) {
+        this.internMaxEntries = internMaxEntries;
+    }
+
+    public Region getRecipes() {
+        return recipes;
+    }
+
+    public Region getSearches() {
+        return searches;
+    }
+
+    public OffHeap getOffHeap() {
+        return offHeap;
+    }
+
+    public Negative getNegative() {
+        return negative;
+    }
+
+    public Representations getRepresentations() {
+        return representations;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public Prefetch getPrefetch() {
+        return prefetch;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    public Peers getPeers() {
+        return peers;
+    }
+
+    public static class Region {
+
+        /** How long an entry is served before it is fetched again. */
+        private Duration ttl;
+
+        /** Upper bound for entries. Least recently used entries are evicted. */
+        private int maxEntries;
+
+        public Region(Duration ttl, int maxEntries) {
+            this.ttl = ttl;
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class Negative {
+
+        /** How long an upstream 404 for a recipe ID is remembered. */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /** Upper bound for remembered IDs. */
+        private int maxEntries = 100_000;
+
+        /** Target false-positive rate of the Bloom prefilter (false positives only cost an exact lookup). */
+        private double falsePositiveRate = 0.01;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+
+    /**
+     * Second recipe cache tier outside the heap; entries evicted from {@code recipes} move here.
+     */
+    public static class OffHeap {
+
+        /** Direct memory the tier may reserve; 0 disables it. */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+
+        /** Memory is reserved in slabs of this size as the tier fills up. */
+        private DataSize slabSize = DataSize.ofMegabytes(4);
+
+        /** Allocation unit inside a slab; a recipe takes as many blocks as its serialized size needs. */
+        private DataSize blockSize = DataSize.ofBytes(256);
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getSlabSize() {
+            return slabSize;
+        }
+
+        public void setSlabSize(DataSize slabSize) {
+            this.slabSize = slabSize;
+        }
+
+        public DataSize getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(DataSize blockSize) {
+            this.blockSize = blockSize;
+        }
+    }
+
+    public static class Representations {
+
+        /** Also keep a gzip encoding of cached bodies for clients that accept it. */
+        private boolean gzip = true;
+
+        /** Bodies smaller than this are not worth compressing. */
+        private int gzipMinBytes = 1024;
+
+        /** Encoded bodies kept on heap; the least recently used beyond this are re-encoded when next asked for. */
+        private int maxEntries = 2000;
+
+        public boolean isGzip() {
+            return gzip;
+        }
+
+        public void setGzip(boolean gzip) {
+            this.gzip = gzip;
+        }
+
+        public int getGzipMinBytes() {
+            return gzipMinBytes;
+        }
+
+        public void setGzipMinBytes(int gzipMinBytes) {
+            this.gzipMinBytes = gzipMinBytes;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class Warmup {
+
+        /** Preload hot entries after startup; readiness reports OUT_OF_SERVICE until done. */
+        private boolean enabled = true;
+
+        /** Recipe IDs to preload. */
+        private List<Integer> recipeIds = new ArrayList<>();
+
+        /** Searches to preload, as {@code query} or {@code query|cuisine}. */
+        private List<String> queries = new ArrayList<>();
+
+        /**
+         * Optional file with hot keys recorded by a previous run. Read at startup (merged with the lists
+         * above) and rewritten with the current hottest keys on shutdown.
+         */
+        private String recordFile;
+
+        /** How many of the hottest recipes and searches to record. */
+        private int recordTopN = 200;
+
+        /** Max upstream calls the warm-up may spend (quota budget). */
+        private int maxRequests = 200;
+
+        /** Stop warming up once Spoonacular reports fewer quota points left than this. */
+        private double minQuotaLeft = 50;
+
+        /** Report ready after this long even if warm-up has not finished. */
+        private Duration timeout = Duration.ofMinutes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<Integer> getRecipeIds() {
+            return recipeIds;
+        }
+
+        public void setRecipeIds(List<Integer> recipeIds) {
+            this.recipeIds = recipeIds;
+        }
+
+        public List<String> getQueries() {
+            return queries;
+        }
+
+        public void setQueries(List<String> queries) {
+            this.queries = queries;
+        }
+
+        public String getRecordFile() {
+            return recordFile;
+        }
+
+        public void setRecordFile(String recordFile) {
+            this.recordFile = recordFile;
+        }
+
+        public int getRecordTopN() {
+            return recordTopN;
+        }
+
+        public void setRecordTopN(int recordTopN) {
+            this.recordTopN = recordTopN;
+        }
+
+        public int getMaxRequests() {
+            return maxRequests;
+        }
+
+        public void setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        public double getMinQuotaLeft() {
+            return minQuotaLeft;
+        }
+
+        public void setMinQuotaLeft(double minQuotaLeft) {
+            this.minQuotaLeft = minQuotaLeft;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Prefetch {
+
+        /** After a search, load the top results' recipe information into the cache in the background. */
+        private boolean enabled = false;
+
+        /** How many of the first search results to prefetch. */
+        private int topN = 3;
+
+        /** Background threads doing prefetch calls. */
+        private int threads = 1;
+
+        /** Pending prefetches beyond this are dropped. */
+        private int queueCapacity = 32;
+
+        /** Skip prefetching while at least this many API requests are in flight. */
+        private int maxInteractiveInFlight = 32;
+
+        /** Skip prefetching once Spoonacular reports fewer quota points left than this. */
+        private double minQuotaLeft = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTopN() {
+            return topN;
+        }
+
+        public void setTopN(int topN) {
+            this.topN = topN;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxInteractiveInFlight() {
+            return maxInteractiveInFlight;
+        }
+
+        public void setMaxInteractiveInFlight(int maxInteractiveInFlight) {
+            this.maxInteractiveInFlight = maxInteractiveInFlight;
+        }
+
+        public double getMinQuotaLeft() {
+            return minQuotaLeft;
+        }
+
+        public void setMinQuotaLeft(double minQuotaLeft) {
+            this.minQuotaLeft = minQuotaLeft;
+        }
+    }
+
+    public static class Invalidation {
+
+        /** Channel (topic) on the invalidation transport; replicas of one deployment must share it. */
+        private String channel = "atypon-food-api";
+
+        /** Identifies this replica in broadcast invalidations; a random ID if not set. */
+        private String nodeId;
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+    }
+
+    public static class Peers {
+
+        /** Each recipe ID is cached by one owner replica; the others fetch it from the owner instead of upstream. */
+        private boolean enabled = false;
+
+        /** Base URL under which the other replicas reach this one; must be one of {@code members}. */
+        private String self;
+
+        /** Base URLs of all replicas, including this one. Every replica must use the same list. */
+        private List<String> members = new ArrayList<>();
+
+        /**
+         * Shared secret the replicas send each other as {@code Authorization: Bearer}; peer mode stays off without
+         * it, since anyone who can reach the peer endpoint could otherwise make a replica fetch upstream.
+         */
+        private String token;
+
+        /** Points per member on the hash ring; more points spread keys more evenly. */
+        private int virtualNodes = 160;
+
+        /** Connect and read timeout for peer calls; on failure the recipe is fetched from upstream directly. */
+        private Duration timeout = Duration.ofSeconds(1);
+
+        /** Local copies of recipes owned by other replicas, so very hot recipes are not fetched from the owner on every request. */
+        private final Region hotReplicas = new Region(Duration.ofMinutes(1), 1_000);
+
+        /** Share of peer fetches kept as a local copy; hot recipes are fetched often, so they get replicated quickly. */
+        private double hotReplicaSampleRate = 0.1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getSelf() {
+            return self;
+        }
+
+        public void setSelf(String self) {
+            this.self = self;
+        }
+
+        public List<String> getMembers() {
+            return members;
+        }
+
+        public void setMembers(List<String> members) {
+            this.members = members;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Region getHotReplicas() {
+            return hotReplicas;
+        }
+
+        public double getHotReplicaSampleRate() {
+            return hotReplicaSampleRate;
+        }
+
+        public void setHotReplicaSampleRate(double hotReplicaSampleRate) {
+            this.hotReplicaSampleRate = hotReplicaSampleRate;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.atypon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Time budget of an {@code /api} request, which bounds the outbound Spoonacular calls (and their retries) made for
+ * it.
+ */
+@ConfigurationProperties(prefix = "deadlines")
+public class DeadlineProperties {
+
+    /** Give each API request a deadline and fit outbound attempts into what is left of it. */
+    private boolean enabled = true;
+
+    /** Request header with the caller's budget: milliseconds ({@code 2500}) or a duration ({@code 2500ms}, {@code 3s}). */
+    private String header = "X-Request-Timeout";
+
+    /** Budget when the caller sends none and the path has no entry in {@code endpoints}. */
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    /** Budget per request path (e.g. {@code /api/recipes/search: 5s}) when the caller sends none. */
+    private Map<String, Duration> endpoints = new LinkedHashMap<>();
+
+    /** Upper bound for a budget sent by the caller. */
+    private Duration maxTimeout = Duration.ofSeconds(30);
+
+    /** An outbound attempt (or retry) is only started with at least this much budget left. */
+    private Duration minAttemptTimeout = Duration.ofMillis(100);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Map<String, Duration> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Duration> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Duration getMaxTimeout() {
+        return maxTimeout;
+    }
+
+    public void setMaxTimeout(Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+
+    public Duration getMinAttemptTimeout() {
+        return minAttemptTimeout;
+    }
+
+    public void setMinAttemptTimeout(Duration minAttemptTimeout) {
+        this.minAttemptTimeout = minAttemptTimeout;
+    }
+}
@@ -1,8 +1,11 @@
 package com.atypon.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Outbound HTTP client knobs (RestTemplate).
@@ -16,6 +19,12 @@ public class HttpClientProperties {
     /** Read timeout for outbound HTTP calls. */
     private Duration readTimeout = Duration.ofSeconds(4);
 
+    /** Outbound request metrics ({@code http.client.requests}). */
+    private final Metrics metrics = new Metrics();
+
+    /** Record/replay of upstream traffic for offline benchmarks. */
+    private final Corpus corpus = new Corpus();
+
     public Duration getConnectTimeout() {
         return connectTimeout;
     }
@@ -31,4 +40,136 @@ public class HttpClientProperties {
     public void setReadTimeout(Duration readTimeout) {
         this.readTimeout = readTimeout;
     }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Corpus getCorpus() {
+        return corpus;
+    }
+
+    public static class Metrics {
+
+        /**
+         * URI templates used for the {@code path} tag. Concrete paths are mapped back to these so each recipe
+         * ID does not create its own time series.
+         */
+        private List<String> uriTemplates = new ArrayList<>(List.of(
+                "/recipes/complexSearch",
+                "/recipes/{id}/information"
+        ));
+
+        /** Client-side percentiles to publish (e.g. 0.5, 0.99). Empty = none. */
+        private List<Double> percentiles = new ArrayList<>();
+
+        /** Publish a percentile histogram (for server-side quantiles in Prometheus). */
+        private boolean percentileHistogram = false;
+
+        /** SLO bucket boundaries to publish (e.g. 100ms, 500ms). */
+        private List<Duration> slo = new ArrayList<>();
+
+        public List<String> getUriTemplates() {
+            return uriTemplates;
+        }
+
+        public void setUriTemplates(List<String> uriTemplates) {
+            this.uriTemplates = uriTemplates;
+        }
+
+        public List<Double> getPercentiles() {
+            return percentiles;
+        }
+
+        public void setPercentiles(List<Double> percentiles) {
+            this.percentiles = percentiles;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+
+        public List<Duration> getSlo() {
+            return slo;
+        }
+
+        public void setSlo(List<Duration> slo) {
+            this.slo = slo;
+        }
+    }
+
+    public static class Corpus {
+
+        public enum Mode { OFF, RECORD, REPLAY }
+
+        /** OFF; RECORD real responses to {@code file}; or REPLAY them from {@code file} without network access. */
+        private Mode mode = Mode.OFF;
+
+        /** Corpus file; written on shutdown when recording, read at startup when replaying. */
+        private String file = "target/corpus/spoonacular.corpus";
+
+        /** Distinct requests kept while recording. */
+        private int maxEntries = 100_000;
+
+        /** Larger bodies are not recorded. */
+        private DataSize maxBodySize = DataSize.ofMegabytes(1);
+
+        /** Replay waits for a recorded latency of the request, multiplied by this (0 = answer at once). */
+        private double latencyScale = 1.0;
+
+        /** Status returned in replay mode for requests that are not in the corpus. */
+        private int missStatus = 404;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+
+        public double getLatencyScale() {
+            return latencyScale;
+        }
+
+        public void setLatencyScale(double latencyScale) {
+            this.latencyScale = latencyScale;
+        }
+
+        public int getMissStatus() {
+            return missStatus;
+        }
+
+        public void setMissStatus(int missStatus) {
+            this.missStatus = missStatus;
+        }
+    }
 }
@@ -10,18 +10,33 @@ public class InboundRateLimitProperties {
     /** Protect this API from being hammered. */
     private boolean enabled = true;
 
-    /** Tokens added each refresh period per client. */
+    /**
+     * Tokens added each refresh period per client. A request is charged the Spoonacular quota points it spent
+     * (rounded), so this is roughly the upstream quota one client may consume per period.
+     */
     private int limitForPeriod = 120;
 
+    /** Tokens charged for a request that spends no upstream quota (cache hit, 304); 0 makes those free. */
+    private int minCost = 1;
+
     /** Token bucket refresh period. */
     private Duration refreshPeriod = Duration.ofSeconds(60);
 
     /** How long to wait for a token. 0 = fail fast with 429. */
     private Duration timeout = Duration.ZERO;
 
-    /** Max number of distinct clients to track in memory before evicting oldest. */
+    /** Max number of client token buckets to keep in memory before evicting the least recently used. */
     private int maxClients = 10_000;
 
+    /** Clients counted by the heavy-hitter sketch (fixed memory, however many distinct IPs arrive). */
+    private int sketchCapacity = 1024;
+
+    /**
+     * Tokens a client must certainly have spent (sketch counts, halved every refresh period) before it gets its
+     * own token bucket; they are charged to the new bucket. 0 = a bucket for every client.
+     */
+    private int heavyHitterThreshold = 60;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -38,6 +53,14 @@ public class InboundRateLimitProperties {
         this.limitForPeriod = limitForPeriod;
     }
 
+    public int getMinCost() {
+        return minCost;
+    }
+
+    public void setMinCost(int minCost) {
+        this.minCost = minCost;
+    }
+
     public Duration getRefreshPeriod() {
         return refreshPeriod;
     }
@@ -61,4 +84,20 @@ public class InboundRateLimitProperties {
     public void setMaxClients(int maxClients) {
         this.maxClients = maxClients;
     }
+
+    public int getSketchCapacity() {
+        return sketchCapacity;
+    }
+
+    public void setSketchCapacity(int sketchCapacity) {
+        this.sketchCapacity = sketchCapacity;
+    }
+
+    public int getHeavyHitterThreshold() {
+        return heavyHitterThreshold;
+    }
+
+    public void setHeavyHitterThreshold(int heavyHitterThreshold) {
+        this.heavyHitterThreshold = heavyHitterThreshold;
+    }
 }
@@ -0,0 +1,111 @@
+package com.atypon.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * On-demand Java Flight Recorder sessions through {@code /actuator/profiling}.
+ */
+@ConfigurationProperties(prefix = "profiling")
+public class ProfilingProperties {
+
+    /** Register the profiling endpoint. Off by default; it also needs a token. */
+    private boolean enabled = false;
+
+    /** Bearer token required on every profiling request; without one all requests are refused. */
+    private String token;
+
+    /** Recording length when the request does not give one. */
+    private Duration defaultDuration = Duration.ofSeconds(30);
+
+    /** Upper bound for a requested recording length. */
+    private Duration maxDuration = Duration.ofMinutes(2);
+
+    /** JFR stops adding data to a recording once it reaches this size (bytes). */
+    private long maxSize = 64L * 1024 * 1024;
+
+    /** Where recordings are written; empty = a temp directory. */
+    private String directory;
+
+    /** Recordings kept for download; older ones are deleted. */
+    private int keep = 3;
+
+    /** Entries per section of the recording summary. */
+    private int topFrames = 10;
+
+    /** Allocation and contention are attributed to the first frame in this package, if there is one. */
+    private String appPackage = "com.atypon";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Duration getDefaultDuration() {
+        return defaultDuration;
+    }
+
+    public void setDefaultDuration(Duration defaultDuration) {
+        this.defaultDuration = defaultDuration;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getKeep() {
+        return keep;
+    }
+
+    public void setKeep(int keep) {
+        this.keep = keep;
+    }
+
+    public int getTopFrames() {
+        return topFrames;
+    }
+
+    public void setTopFrames(int topFrames) {
+        this.topFrames = topFrames;
+    }
+
+    public String getAppPackage() {
+        return appPackage;
+    }
+
+    public void setAppPackage(String appPackage) {
+        this.appPackage = appPackage;
+    }
+}
@@ -3,6 +3,11 @@ package com.atypon.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Spoonacular API configuration.
  *
@@ -15,6 +20,12 @@ public class SpoonacularConfig {
     private String baseUrl;
     private String apiKey;
 
+    /** More keys, pooled with {@code api-key} (named {@code default}); calls are spread across all of them. */
+    private List<ApiKey> apiKeys = new ArrayList<>();
+
+    /** Time zone whose midnight resets the daily points; an exhausted key is taken out until then. */
+    private ZoneId quotaResetZone = ZoneOffset.UTC;
+
     public String getBaseUrl() {
         return baseUrl;
     }
@@ -30,4 +41,55 @@ public class SpoonacularConfig {
     public void setApiKey(String apiKey) {
         this.apiKey = apiKey;
     }
-}
\ No newline at end of file
+
+    public List<ApiKey> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(List<ApiKey> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    public ZoneId getQuotaResetZone() {
+        return quotaResetZone;
+    }
+
+    public void setQuotaResetZone(ZoneId quotaResetZone) {
+        this.quotaResetZone = quotaResetZone;
+    }
+
+    public static class ApiKey {
+
+        /** Label in metrics and health details (the key itself is never exported); defaults to {@code key-<n>}. */
+        private String name;
+
+        private String key;
+
+        /** Share of the traffic relative to the other keys, e.g. 10 for a plan with ten times the daily points. */
+        private double weight = 1.0;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -10,9 +10,24 @@ public class SpoonacularHealthProperties {
     /** If true, perform a lightweight live check (can consume upstream quota). */
     private boolean liveCheckEnabled = false;
 
-    /** Cache TTL for live check result to avoid hammering upstream. */
+    /**
+     * Interval of the background live check. The check is skipped (no quota spent) while real traffic in the
+     * passive window already has enough samples.
+     */
     private Duration cacheTtl = Duration.ofMinutes(1);
 
+    /** Sliding window of real outbound traffic used to derive health passively. */
+    private Duration passiveWindow = Duration.ofSeconds(60);
+
+    /** Minimum outbound calls in the window before passive health is trusted. */
+    private int passiveMinSamples = 20;
+
+    /** Error rate (0..1) in the window above which Spoonacular is reported DOWN. */
+    private double maxErrorRate = 0.5;
+
+    /** p99 latency in the window above which Spoonacular is reported DOWN. 0 = latency does not affect status. */
+    private Duration maxP99Latency = Duration.ZERO;
+
     public boolean isLiveCheckEnabled() {
         return liveCheckEnabled;
     }
@@ -28,4 +43,36 @@ public class SpoonacularHealthProperties {
     public void setCacheTtl(Duration cacheTtl) {
         this.cacheTtl = cacheTtl;
     }
+
+    public Duration getPassiveWindow() {
+        return passiveWindow;
+    }
+
+    public void setPassiveWindow(Duration passiveWindow) {
+        this.passiveWindow = passiveWindow;
+    }
+
+    public int getPassiveMinSamples() {
+        return passiveMinSamples;
+    }
+
+    public void setPassiveMinSamples(int passiveMinSamples) {
+        this.passiveMinSamples = passiveMinSamples;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public void setMaxErrorRate(double maxErrorRate) {
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    public Duration getMaxP99Latency() {
+        return maxP99Latency;
+    }
+
+    public void setMaxP99Latency(Duration maxP99Latency) {
+        this.maxP99Latency = maxP99Latency;
+    }
 }
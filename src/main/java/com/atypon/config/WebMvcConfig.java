@@ -0,0 +1,27 @@
+package com.atypon.config;
+
+import com.atypon.web.EndpointBulkheadInterceptor;
+import com.atypon.web.PeerAccessFilter;
+import com.atypon.web.ServerTimingAdvice;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final EndpointBulkheadInterceptor bulkheadInterceptor;
+    private final ServerTimingAdvice serverTiming;
+
+    public WebMvcConfig(EndpointBulkheadInterceptor bulkheadInterceptor, ServerTimingAdvice serverTiming) {
+        this.bulkheadInterceptor = bulkheadInterceptor;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // outermost, so the handler stages bracket the other interceptors
+        registry.addInterceptor(serverTiming).addPathPatterns("/api/**");
+        registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/api/**", PeerAccessFilter.PREFIX + "**");
+    }
+}
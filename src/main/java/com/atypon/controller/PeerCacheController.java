@@ -0,0 +1,37 @@
+package com.atypon.controller;
+
+import com.atypon.client.PeerCacheClient;
+import com.atypon.model.Recipe;
+import com.atypon.service.SpoonacularService;
+import com.atypon.web.EndpointBulkhead;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Replica-to-replica lookups in peer mode (see {@link PeerCacheClient}). Not part of the public API; callers must
+ * send the peer token (see {@link com.atypon.web.PeerAccessFilter}).
+ */
+@Hidden
+@RestController
+public class PeerCacheController {
+
+    private final SpoonacularService spoonacularService;
+    private final PeerCacheClient peers;
+
+    public PeerCacheController(SpoonacularService spoonacularService, PeerCacheClient peers) {
+        this.spoonacularService = spoonacularService;
+        this.peers = peers;
+    }
+
+    @GetMapping(PeerCacheClient.PEER_PATH + "{recipeId}")
+    @EndpointBulkhead("peer-recipe-info")
+    public ResponseEntity<Recipe> ownedRecipe(@PathVariable int recipeId) {
+        if (!peers.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return spoonacularService.getOwnedRecipe(recipeId);
+    }
+}
@@ -1,9 +1,25 @@
 package com.atypon.controller;
 
+import com.atypon.cache.RecipeCaches;
+import com.atypon.cache.Representation;
+import com.atypon.cache.RepresentationCache;
+import com.atypon.cache.SearchKey;
 import com.atypon.model.ExcludeRequest;
 import com.atypon.model.Recipe;
 import com.atypon.service.SpoonacularService;
+import com.atypon.web.EndpointBulkhead;
+import com.atypon.web.RequestTiming;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,38 +28,153 @@ import org.springframework.web.bind.annotation.*;
 public class RecipeController {
 
     private final SpoonacularService spoonacularService;
+    private final RecipeCaches caches;
+    private final RepresentationCache representations;
 
-    public RecipeController(SpoonacularService spoonacularService) {
+    public RecipeController(SpoonacularService spoonacularService, RecipeCaches caches,
+                            RepresentationCache representations) {
         this.spoonacularService = spoonacularService;
+        this.caches = caches;
+        this.representations = representations;
     }
 
+    // Bodies are written as pre-encoded JSON bytes; the annotations keep the OpenAPI schema accurate.
     @GetMapping("/search")
-    public ResponseEntity<List<Recipe>> searchRecipes(@RequestParam String query,
-                                                      @RequestParam(required = false) String cuisine) {
-        if (cuisine != null && !cuisine.isBlank()) {
-            return ResponseEntity.ok(spoonacularService.searchRecipes(query, cuisine));
+    @EndpointBulkhead("api-search")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = Recipe.class))))
+    public ResponseEntity<byte[]> searchRecipes(@RequestParam String query,
+                                                @RequestParam(required = false) String cuisine,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SearchKey searchKey = SearchKey.of(query, cuisine);
+        String key = RepresentationCache.searchKey(searchKey);
+        Representation rep = representations.get(key);
+        if (rep != null) {
+            if (spoonacularService.recordSearchHit(searchKey)) {
+                return body(rep, ifNoneMatch, acceptEncoding);
+            }
+            representations.invalidate(key); // its search entry is gone
         }
-        return ResponseEntity.ok(spoonacularService.searchRecipes(query));
+
+        List<Recipe> recipes;
+        long serviceStart = System.nanoTime();
+        try {
+            recipes = (cuisine != null && !cuisine.isBlank())
+                    ? spoonacularService.searchRecipes(query, cuisine)
+                    : spoonacularService.searchRecipes(query);
+        } finally {
+            RequestTiming.service(serviceStart);
+        }
+        rep = representations.create(key, recipes, caches.searches().expiresAtMillis(searchKey));
+        return body(rep, ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/recipe-info")
-    public ResponseEntity<Recipe> getRecipeInfo(@RequestParam int recipeId) {
+    @EndpointBulkhead("api-recipe-info")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            schema = @Schema(implementation = Recipe.class)))
+    public ResponseEntity<byte[]> getRecipeInfo(@RequestParam int recipeId,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String key = RepresentationCache.recipeKey(recipeId);
+        Representation rep = representations.get(key);
+        if (rep != null) {
+            if (spoonacularService.recordRecipeHit(recipeId)) {
+                return body(rep, ifNoneMatch, acceptEncoding);
+            }
+            representations.invalidate(key); // the recipe left the heap: keep its bytes only while it is hot
+        }
+
+        Recipe recipe;
+        long serviceStart = System.nanoTime();
         try {
-            return ResponseEntity.ok(spoonacularService.getRecipeInfo(recipeId));
+            recipe = spoonacularService.getRecipeInfo(recipeId);
         } catch (IllegalStateException e) {
             return ResponseEntity.notFound().build();
+        } finally {
+            RequestTiming.service(serviceStart);
         }
+        rep = representations.create(key, recipe, caches.recipeExpiresAtMillis(recipeId));
+        return body(rep, ifNoneMatch, acceptEncoding);
     }
 
     @PostMapping("/calories")
+    @EndpointBulkhead("api-calories")
     public ResponseEntity<Double> getCustomizedCalories(@RequestParam int recipeId,
                                                         @RequestBody(required = false) ExcludeRequest excludeRequest) {
+        long serviceStart = System.nanoTime();
         try {
             double calories = spoonacularService.getCustomizedCalories(recipeId, excludeRequest);
             return ResponseEntity.ok(calories);
         } catch (IllegalStateException e) {
             // Tests expect 400 for invalid recipeId
             return ResponseEntity.badRequest().build();
+        } finally {
+            RequestTiming.service(serviceStart);
+        }
+    }
+
+    private static ResponseEntity<byte[]> body(Representation rep, String ifNoneMatch, String acceptEncoding) {
+        boolean gzipped = rep.hasGzip() && acceptsGzip(acceptEncoding);
+        if (rep.matches(ifNoneMatch)) {
+            return notModified(rep, gzipped);
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(rep.etag(gzipped))
+                .cacheControl(cacheControl(rep));
+        if (!rep.hasGzip()) {
+            return ok.body(rep.json());
+        }
+        ok.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzipped) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rep.gzip());
         }
+        return ok.body(rep.json());
+    }
+
+    /** True if {@code Accept-Encoding} lists gzip (or *) without {@code q=0}. */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2).trim()) == 0.0;
+                    } catch (NumberFormatException ignored) {
+                        // malformed weight: treat as acceptable
+                    }
+                }
+            }
+            return !refused;
+        }
+        return false;
+    }
+
+    /** Carries the ETag of the variant a 200 would have sent. */
+    private static ResponseEntity<byte[]> notModified(Representation rep, boolean gzipped) {
+        ResponseEntity.BodyBuilder notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(rep.etag(gzipped))
+                .cacheControl(cacheControl(rep));
+        if (rep.hasGzip()) {
+            notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return notModified.build();
+    }
+
+    /** max-age follows the remaining TTL of the cache entry; uncached bodies must be revalidated. */
+    private static CacheControl cacheControl(Representation rep) {
+        long maxAge = rep.maxAgeSeconds();
+        return maxAge > 0 ? CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic() : CacheControl.noCache();
     }
 }
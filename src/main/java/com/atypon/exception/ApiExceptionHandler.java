@@ -1,5 +1,7 @@
 package com.atypon.exception;
 
+import com.atypon.client.DeadlineExceededException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +51,25 @@ public class ApiExceptionHandler {
                 .body(errorBody(ex.getMessage() != null ? ex.getMessage() : "Too Many Requests", req));
     }
 
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Map<String, Object>> partitionFull(BulkheadFullException ex, HttpServletRequest req) {
+        // An endpoint (or the upstream call behind it) is at its concurrency limit; other endpoints are unaffected.
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(errorBody("Service busy", req));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<Map<String, Object>> deadlineExceeded(DeadlineExceededException ex, HttpServletRequest req) {
+        // The request's own time budget ran out (see RequestDeadline); expected under load, not a server fault.
+        log.debug("Deadline exceeded for {} {}: {}", req.getMethod(), req.getRequestURI(), ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(errorBody("Request deadline exceeded", req));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> unexpected(Exception ex, HttpServletRequest req) {
         // Don’t leak internals to clients. Keep a server-side log.
@@ -1,7 +0,0 @@
-package com.atypon.exception;
-
-public class IdempotencyConflictException extends RuntimeException {
-    public IdempotencyConflictException(String message) {
-        super(message);
-    }
-}
@@ -7,7 +7,7 @@ public class RateLimitExceededException extends RuntimeException {
     private final Duration retryAfter;
 
     public RateLimitExceededException(String message, Duration retryAfter) {
-        super(message);
+        super(message, null, false, false); // an expected outcome under load: no stack trace to fill in
         this.retryAfter = retryAfter;
     }
 
@@ -0,0 +1,16 @@
+package com.atypon.monitoring;
+
+/**
+ * One alert key as seen by sinks: every occurrence within a dispatch window (plus any that were throttled since
+ * the key was last published) collapsed into a single record.
+ *
+ * @param key            stable alert key (e.g. {@code spoonacular.search.failed})
+ * @param message        message of the most recent occurrence
+ * @param lastError      error of the most recent occurrence, may be {@code null}
+ * @param count          number of occurrences represented by this record
+ * @param firstAtMillis  wall-clock time of the first represented occurrence
+ * @param lastAtMillis   wall-clock time of the last represented occurrence
+ */
+public record AggregatedAlert(String key, String message, Throwable lastError, long count,
+                              long firstAtMillis, long lastAtMillis) {
+}
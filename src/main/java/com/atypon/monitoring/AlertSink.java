@@ -0,0 +1,10 @@
+package com.atypon.monitoring;
+
+/**
+ * Destination for published alerts. Sinks are invoked from the alert dispatcher thread, never from request
+ * threads, so they may block briefly (e.g. an HTTP webhook).
+ */
+public interface AlertSink {
+
+    void publish(AggregatedAlert alert);
+}
@@ -0,0 +1,48 @@
+package com.atypon.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-key "at most once per interval" gate with a bounded number of tracked keys.
+ *
+ * <p>Check-and-set is a single synchronized step, so two callers can never both pass for the same key. When
+ * more than {@code maxKeys} keys are tracked the least recently used one is forgotten, which at worst lets
+ * that key through one interval early.</p>
+ */
+public class AlertThrottle {
+
+    private final long intervalMillis;
+    private final int maxKeys;
+    private final Map<String, long[]> lastEmittedAtMillis;
+
+    public AlertThrottle(long intervalMillis, int maxKeys) {
+        this.intervalMillis = Math.max(0, intervalMillis);
+        this.maxKeys = Math.max(1, maxKeys);
+        this.lastEmittedAtMillis = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    /**
+     * @return {@code true} if the key may be published now (and records that it was)
+     */
+    public synchronized boolean tryAcquire(String key, long nowMillis) {
+        long[] last = lastEmittedAtMillis.get(key);
+        if (last != null) {
+            if (nowMillis - last[0] < intervalMillis) {
+                return false;
+            }
+            last[0] = nowMillis;
+            return true;
+        }
+        lastEmittedAtMillis.put(key, new long[]{nowMillis});
+        while (lastEmittedAtMillis.size() > maxKeys) {
+            String oldestKey = lastEmittedAtMillis.keySet().iterator().next();
+            lastEmittedAtMillis.remove(oldestKey);
+        }
+        return true;
+    }
+
+    public synchronized int trackedKeys() {
+        return lastEmittedAtMillis.size();
+    }
+}
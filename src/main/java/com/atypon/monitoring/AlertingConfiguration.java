@@ -3,16 +3,49 @@ package com.atypon.monitoring;
 import com.atypon.config.AlertingProperties;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration(proxyBeanMethods = false)
 class AlertingConfiguration {
 
+    /**
+     * The webhook sink is added here rather than as a property-conditional bean: with AOT processing bean
+     * conditions are fixed at build time, and the webhook URL is a deployment setting.
+     */
     @Bean
     @ConditionalOnMissingBean(AlertService.class)
-    AlertService alertService(AlertingProperties properties, MeterRegistry meterRegistry) {
-        return new LoggingAlertService(properties, meterRegistry);
+    AsyncAlertService alertService(AlertingProperties properties, List<AlertSink> sinks, MeterRegistry meterRegistry,
+                                   RestTemplateBuilder builder) {
+        List<AlertSink> all = new ArrayList<>(sinks);
+        String url = properties.getWebhook().getUrl();
+        if (url != null && !url.isBlank()) {
+            all.add(webhookAlertSink(properties.getWebhook(), builder));
+        }
+        return new AsyncAlertService(properties, all, meterRegistry);
+    }
+
+    @Bean
+    LoggingAlertSink loggingAlertSink() {
+        return new LoggingAlertSink();
+    }
+
+    @Bean
+    MetricsAlertSink metricsAlertSink(MeterRegistry meterRegistry) {
+        return new MetricsAlertSink(meterRegistry);
+    }
+
+    private static WebhookAlertSink webhookAlertSink(AlertingProperties.Webhook webhook, RestTemplateBuilder builder) {
+        // Dedicated client: alert delivery must not go through the Spoonacular interceptors/metrics.
+        return new WebhookAlertSink(
+                builder.setConnectTimeout(webhook.getTimeout()).setReadTimeout(webhook.getTimeout()).build(),
+                URI.create(webhook.getUrl().trim())
+        );
     }
 
 }
@@ -0,0 +1,165 @@
+package com.atypon.monitoring;
+
+import com.atypon.config.AlertingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Default alerting pipeline.
+ *
+ * <p>{@link #alert} only appends to a bounded lock-free queue, so the calling (request) thread never logs,
+ * touches the meter registry or waits on a webhook. A single dispatcher thread drains the queue once per
+ * {@code alerting.window}, folds occurrences per key, applies the per-key throttle and hands the result to every
+ * {@link AlertSink}. Occurrences arriving while a key is throttled are counted and reported with the next
+ * published alert for that key. When the queue is full new alerts are dropped and counted.</p>
+ */
+public class AsyncAlertService implements AlertService, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncAlertService.class);
+
+    private record Event(String key, String message, Throwable error, long atMillis) {
+    }
+
+    private static final class Pending {
+        String message;
+        Throwable lastError;
+        long count;
+        long firstAtMillis;
+        long lastAtMillis;
+    }
+
+    private final AlertingProperties props;
+    private final List<AlertSink> sinks;
+    private final AlertThrottle throttle;
+    private final int capacity;
+    private final long windowNanos;
+
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter dropped;
+
+    /** Dispatcher-thread only. */
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public AsyncAlertService(AlertingProperties props, List<AlertSink> sinks, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.sinks = List.copyOf(sinks);
+        Duration throttleInterval = props.getThrottle() == null ? Duration.ofSeconds(60) : props.getThrottle();
+        this.throttle = new AlertThrottle(throttleInterval.toMillis(), props.getMaxTrackedKeys());
+        this.capacity = Math.max(1, props.getQueueCapacity());
+        Duration window = props.getWindow() == null ? Duration.ofSeconds(5) : props.getWindow();
+        this.windowNanos = Math.max(Duration.ofMillis(1).toNanos(), window.toNanos());
+
+        this.dropped = meterRegistry.counter("alerts.dropped");
+        meterRegistry.gauge("alerts.queue.size", queued);
+
+        this.dispatcher = new Thread(this::runDispatcher, "alert-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public void alert(String key, String message, Throwable error) {
+        if (!props.isEnabled() || !running) {
+            return;
+        }
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(new Event(key, message, error, System.currentTimeMillis()));
+    }
+
+    private void runDispatcher() {
+        while (running) {
+            LockSupport.parkNanos(this, windowNanos);
+            try {
+                dispatch();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Alert dispatch failed", e);
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Drains the queue and publishes every key whose throttle allows it. Package-private (and synchronized) so
+     * tests can drive it without racing the dispatcher thread.
+     */
+    synchronized void dispatch() {
+        Event e;
+        while ((e = queue.poll()) != null) {
+            queued.decrementAndGet();
+            Pending p = pending.get(e.key());
+            if (p == null) {
+                p = new Pending();
+                p.firstAtMillis = e.atMillis();
+                pending.put(e.key(), p);
+            }
+            p.message = e.message();
+            p.lastError = e.error();
+            p.count++;
+            p.lastAtMillis = e.atMillis();
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Pending>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Pending> entry = it.next();
+            if (!throttle.tryAcquire(entry.getKey(), now)) {
+                continue;
+            }
+            Pending p = entry.getValue();
+            it.remove();
+            publish(new AggregatedAlert(entry.getKey(), p.message, p.lastError, p.count, p.firstAtMillis, p.lastAtMillis));
+        }
+
+        // Suppressed keys are bounded like the throttle; the oldest lose their accumulated counts first.
+        int max = Math.max(1, props.getMaxTrackedKeys());
+        Iterator<String> oldest = pending.keySet().iterator();
+        while (pending.size() > max && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private void publish(AggregatedAlert alert) {
+        for (AlertSink sink : sinks) {
+            try {
+                sink.publish(alert);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Alert sink {} failed for [{}]", sink.getClass().getSimpleName(), alert.key(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join(Duration.ofSeconds(5).toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.atypon.monitoring;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports per-partition {@code bulkhead.utilization{name}} (share of slots in use, 0..1) and
+ * {@code bulkhead.rejected{name}} for every bulkhead in the registry, including ones created later.
+ * resilience4j's own {@code resilience4j.bulkhead.*} gauges only report raw available/max counts.
+ */
+@Component
+public class BulkheadMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public BulkheadMetrics(BulkheadRegistry bulkheads, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        bulkheads.getAllBulkheads().forEach(this::bind);
+        bulkheads.getEventPublisher().onEntryAdded(e -> bind(e.getAddedEntry()));
+    }
+
+    private void bind(Bulkhead bulkhead) {
+        String name = bulkhead.getName();
+        Gauge.builder("bulkhead.utilization", bulkhead, BulkheadMetrics::utilization)
+                .tag("name", name)
+                .register(meterRegistry);
+        Counter rejected = meterRegistry.counter("bulkhead.rejected", "name", name);
+        bulkhead.getEventPublisher().onCallRejected(e -> rejected.increment());
+    }
+
+    static double utilization(Bulkhead bulkhead) {
+        int max = bulkhead.getMetrics().getMaxAllowedConcurrentCalls();
+        if (max <= 0) {
+            return 0.0;
+        }
+        return (double) (max - bulkhead.getMetrics().getAvailableConcurrentCalls()) / max;
+    }
+}
@@ -0,0 +1,33 @@
+package com.atypon.monitoring;
+
+import com.atypon.service.CacheWarmer;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache warm-up progress. OUT_OF_SERVICE until the warm-up settles, so the readiness group (which includes this
+ * indicator) keeps traffic away from a cold instance; the liveness group does not include it.
+ */
+@Component
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmer warmer;
+
+    public CacheWarmupHealthIndicator(CacheWarmer warmer) {
+        this.warmer = warmer;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = warmer.isSettled() ? Health.up() : Health.outOfService();
+        builder.withDetail("state", warmer.state().name());
+        builder.withDetail("completed", warmer.completed());
+        builder.withDetail("total", warmer.total());
+        builder.withDetail("failed", warmer.failed());
+        if (warmer.stopReason() != null) {
+            builder.withDetail("reason", warmer.stopReason());
+        }
+        return builder.build();
+    }
+}
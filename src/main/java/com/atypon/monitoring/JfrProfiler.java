@@ -0,0 +1,271 @@
+package com.atypon.monitoring;
+
+import com.atypon.config.ProfilingProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs bounded Java Flight Recorder sessions with a fixed profile and summarizes them.
+ *
+ * <p>The preset starts from the JDK's {@code profile} settings and tightens the parts we look at: execution
+ * samples every 10 ms, sampled allocations, and monitor enters / parks on locks above 1 ms. Only one recording runs
+ * at a time; the last {@code profiling.keep} files stay on disk for download.</p>
+ */
+@Component
+public class JfrProfiler implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JfrProfiler.class);
+
+    static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    static final String THREAD_PARK = "jdk.ThreadPark";
+
+    /** One finished recording and its summary. */
+    public record Profile(String id, Instant startedAt, Duration duration, Path file, long sizeBytes,
+                          Map<String, List<Hotspot>> summary) {
+    }
+
+    /**
+     * One summary line: {@code frame} is a {@code Class.method:line}, {@code detail} the allocated or contended
+     * class, {@code total} bytes (allocation), milliseconds blocked (contention) or samples (cpu).
+     */
+    public record Hotspot(String frame, String detail, long count, long total) {
+    }
+
+    /** Another recording is in progress. */
+    public static class BusyException extends IllegalStateException {
+        BusyException() {
+            super("A recording is already running");
+        }
+    }
+
+    private final ProfilingProperties props;
+    private Path directory;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Profile> recordings = new LinkedHashMap<>();
+
+    public JfrProfiler(ProfilingProperties props) {
+        this.props = props;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /** The requested length, or the default, capped at {@code profiling.max-duration}. */
+    public Duration boundedDuration(Duration requested) {
+        Duration d = (requested == null || requested.isZero() || requested.isNegative())
+                ? props.getDefaultDuration() : requested;
+        return d.compareTo(props.getMaxDuration()) > 0 ? props.getMaxDuration() : d;
+    }
+
+    /**
+     * Records for {@code duration} (bounded) on the calling thread and returns the summarized result.
+     *
+     * @throws BusyException if another recording is running
+     * @throws IllegalStateException if the recording could not be written or read back
+     */
+    public Profile record(Duration duration) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusyException();
+        }
+        try {
+            Duration length = boundedDuration(duration);
+            String id = Long.toString(System.currentTimeMillis(), 36) + "-" + sequence.incrementAndGet();
+            Path file = directory().resolve("profile-" + id + ".jfr");
+            Instant startedAt = Instant.now();
+            try (Recording recording = new Recording(settings())) {
+                recording.setName("atypon-profile-" + id);
+                recording.setToDisk(true);
+                recording.setMaxSize(props.getMaxSize());
+                recording.setDestination(file);
+                recording.start();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(length.toNanos());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // stop early, keep what was recorded
+                }
+                recording.stop();
+            }
+            Profile profile = new Profile(id, startedAt, Duration.between(startedAt, Instant.now()), file,
+                    Files.size(file), summarize(file));
+            keep(profile);
+            return profile;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Recording failed: " + e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Created on first use, so a disabled profiler leaves no trace on disk. */
+    private synchronized Path directory() throws IOException {
+        if (directory == null) {
+            String dir = props.getDirectory();
+            directory = (dir == null || dir.isBlank())
+                    ? Files.createTempDirectory("atypon-jfr")
+                    : Files.createDirectories(Path.of(dir.trim()));
+        }
+        return directory;
+    }
+
+    public synchronized Profile recording(String id) {
+        return recordings.get(id);
+    }
+
+    public synchronized List<Profile> recordings() {
+        return new ArrayList<>(recordings.values());
+    }
+
+    private synchronized void keep(Profile profile) {
+        recordings.put(profile.id(), profile);
+        var it = recordings.values().iterator();
+        while (recordings.size() > Math.max(1, props.getKeep()) && it.hasNext()) {
+            Profile oldest = it.next();
+            it.remove();
+            delete(oldest.file());
+        }
+    }
+
+    private static Map<String, String> settings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+        settings.put(EXECUTION_SAMPLE + "#enabled", "true");
+        settings.put(EXECUTION_SAMPLE + "#period", "10 ms");
+        settings.put(ALLOCATION_SAMPLE + "#enabled", "true");
+        settings.put(ALLOCATION_SAMPLE + "#throttle", "300/s");
+        settings.put(MONITOR_ENTER + "#enabled", "true");
+        settings.put(MONITOR_ENTER + "#threshold", "1 ms");
+        settings.put(THREAD_PARK + "#enabled", "true");
+        settings.put(THREAD_PARK + "#threshold", "1 ms");
+        return settings;
+    }
+
+    /** Top CPU, allocation and contention frames of a recording. */
+    Map<String, List<Hotspot>> summarize(Path file) throws IOException {
+        Map<String, Map<List<String>, long[]>> sections = new LinkedHashMap<>();
+        sections.put("cpu", new HashMap<>());
+        sections.put("allocation", new HashMap<>());
+        sections.put("contention", new HashMap<>());
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case EXECUTION_SAMPLE ->
+                            add(sections.get("cpu"), topFrame(event.getStackTrace()), null, 1);
+                    case ALLOCATION_SAMPLE ->
+                            add(sections.get("allocation"), appFrame(event.getStackTrace()),
+                                    className(event.getClass("objectClass")), event.getLong("weight"));
+                    case MONITOR_ENTER ->
+                            add(sections.get("contention"), appFrame(event.getStackTrace()),
+                                    className(event.getClass("monitorClass")), event.getDuration().toMillis());
+                    case THREAD_PARK -> {
+                        // Only parks on locks; idle pool threads park on conditions and queues all the time.
+                        String parked = className(event.getClass("parkedClass"));
+                        if (parked != null && parked.contains("Lock") && !parked.endsWith("ConditionObject")) {
+                            add(sections.get("contention"), appFrame(event.getStackTrace()), parked,
+                                    event.getDuration().toMillis());
+                        }
+                    }
+                    default -> {
+                        // not summarized
+                    }
+                }
+            }
+        }
+
+        Map<String, List<Hotspot>> summary = new LinkedHashMap<>();
+        sections.forEach((name, totals) -> summary.put(name, top(totals, props.getTopFrames())));
+        return summary;
+    }
+
+    private static void add(Map<List<String>, long[]> totals, String frame, String detail, long amount) {
+        if (frame == null) {
+            return;
+        }
+        long[] t = totals.computeIfAbsent(List.of(frame, detail == null ? "" : detail), k -> new long[2]);
+        t[0]++;
+        t[1] += amount;
+    }
+
+    private static List<Hotspot> top(Map<List<String>, long[]> totals, int n) {
+        List<Hotspot> list = new ArrayList<>(totals.size());
+        totals.forEach((key, t) -> list.add(new Hotspot(key.get(0), key.get(1).isEmpty() ? null : key.get(1), t[0], t[1])));
+        list.sort(Comparator.comparingLong(Hotspot::total).reversed().thenComparing(Hotspot::frame));
+        return list.size() > n ? new ArrayList<>(list.subList(0, Math.max(0, n))) : list;
+    }
+
+    private static String topFrame(RecordedStackTrace stack) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return null;
+        }
+        return format(stack.getFrames().get(0));
+    }
+
+    /** First frame in the application package, else the top frame. */
+    private String appFrame(RecordedStackTrace stack) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return null;
+        }
+        String pkg = props.getAppPackage();
+        if (pkg != null && !pkg.isBlank()) {
+            for (RecordedFrame frame : stack.getFrames()) {
+                if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(pkg)) {
+                    return format(frame);
+                }
+            }
+        }
+        return format(stack.getFrames().get(0));
+    }
+
+    private static String format(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        String method = frame.getMethod().getName();
+        int line = frame.getLineNumber();
+        return line > 0 ? type + "." + method + ":" + line : type + "." + method;
+    }
+
+    private static String className(RecordedClass c) {
+        return c == null ? null : c.getName();
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete recording {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        recordings.values().forEach(p -> delete(p.file()));
+        recordings.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package com.atypon.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs each published alert at ERROR level.
+ */
+public class LoggingAlertSink implements AlertSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingAlertSink.class);
+
+    @Override
+    public void publish(AggregatedAlert alert) {
+        if (alert.lastError() == null) {
+            LOGGER.error("ALERT [{}] {} (x{})", alert.key(), alert.message(), alert.count());
+        } else {
+            LOGGER.error("ALERT [{}] {} (x{})", alert.key(), alert.message(), alert.count(), alert.lastError());
+        }
+    }
+}
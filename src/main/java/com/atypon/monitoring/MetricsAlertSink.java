@@ -0,0 +1,31 @@
+package com.atypon.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits {@code alerts} (published alerts) and {@code alerts.occurrences} (underlying events) per key.
+ * Keys are code-defined constants, so the counter cache is naturally bounded.
+ */
+public class MetricsAlertSink implements AlertSink {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    public MetricsAlertSink(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void publish(AggregatedAlert alert) {
+        Counter[] c = counters.computeIfAbsent(alert.key(), key -> new Counter[]{
+                meterRegistry.counter("alerts", "key", key),
+                meterRegistry.counter("alerts.occurrences", "key", key)
+        });
+        c[0].increment();
+        c[1].increment(alert.count());
+    }
+}
@@ -0,0 +1,92 @@
+package com.atypon.monitoring;
+
+import com.atypon.config.ProfilingProperties;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-demand profiling without attaching external tools; requests need the {@code profiling.token} bearer token
+ * (see {@code ProfilingAccessFilter}).
+ * <ul>
+ *     <li>{@code POST /actuator/profiling} (optional {@code {"seconds": 30}}) records for the given time, bounded by
+ *     {@code profiling.max-duration}, and answers with the top CPU, allocation and contention frames</li>
+ *     <li>{@code GET /actuator/profiling/{id}} streams the {@code .jfr} file for JDK Mission Control or
+ *     {@code jfr print}</li>
+ *     <li>{@code GET /actuator/profiling} lists the recordings still kept</li>
+ * </ul>
+ */
+@Component
+@WebEndpoint(id = "profiling")
+public class ProfilingEndpoint {
+
+    private final ProfilingProperties props;
+    private final JfrProfiler profiler;
+
+    public ProfilingEndpoint(ProfilingProperties props, JfrProfiler profiler) {
+        this.props = props;
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", props.isEnabled());
+        status.put("running", profiler.isRunning());
+        List<Map<String, Object>> recordings = new ArrayList<>();
+        for (JfrProfiler.Profile p : profiler.recordings()) {
+            recordings.add(describe(p, false));
+        }
+        status.put("recordings", recordings);
+        return status;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> record(@Nullable Integer seconds) {
+        if (!props.isEnabled()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            JfrProfiler.Profile profile = profiler.record(seconds == null ? null : Duration.ofSeconds(seconds));
+            return new WebEndpointResponse<>(describe(profile, true));
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("error", e.getMessage());
+            return new WebEndpointResponse<>(error, e instanceof JfrProfiler.BusyException ? 409 : 500);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Selector String id) {
+        JfrProfiler.Profile profile = profiler.recording(id);
+        if (profile == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(profile.file()));
+    }
+
+    private static Map<String, Object> describe(JfrProfiler.Profile p, boolean withSummary) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", p.id());
+        m.put("startedAt", p.startedAt().toString());
+        m.put("durationMillis", p.duration().toMillis());
+        m.put("sizeBytes", p.sizeBytes());
+        m.put("download", "/actuator/profiling/" + p.id());
+        if (withSummary) {
+            m.put("summary", p.summary());
+        }
+        return m;
+    }
+}
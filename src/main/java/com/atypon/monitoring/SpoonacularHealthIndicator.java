@@ -1,5 +1,7 @@
 package com.atypon.monitoring;
 
+import com.atypon.client.ApiKeyPool;
+import com.atypon.client.OutboundTrafficStats;
 import com.atypon.config.SpoonacularConfig;
 import com.atypon.config.SpoonacularHealthProperties;
 import org.springframework.boot.actuate.health.Health;
@@ -10,66 +12,138 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Spoonacular health without blocking the probe thread.
+ *
+ * <p>Health is derived passively from real outbound traffic ({@link OutboundTrafficStats}) whenever the window
+ * holds enough samples. Only when traffic is too sparse, and the live check is enabled, does a background task
+ * call upstream; {@link #health()} just reads the last result.</p>
+ *
+ * <p>With every configured API key taken out of the {@link ApiKeyPool} (daily points used up, or rate limited by
+ * upstream) Spoonacular is reported DOWN whatever the traffic says: no call can succeed until a key is back.</p>
+ */
 @Component
-public class SpoonacularHealthIndicator implements HealthIndicator {
+public class SpoonacularHealthIndicator implements HealthIndicator, AutoCloseable {
 
     private final SpoonacularConfig config;
+    private final ApiKeyPool keys;
     private final SpoonacularHealthProperties props;
     private final RestTemplate restTemplate;
+    private final OutboundTrafficStats trafficStats;
+    private final ScheduledExecutorService scheduler;
 
     private volatile long lastCheckAtMillis = 0;
     private volatile boolean lastLiveOk = true;
     private volatile String lastLiveError = null;
 
-    public SpoonacularHealthIndicator(SpoonacularConfig config, SpoonacularHealthProperties props, RestTemplate restTemplate) {
+    public SpoonacularHealthIndicator(SpoonacularConfig config, ApiKeyPool keys, SpoonacularHealthProperties props,
+                                      RestTemplate restTemplate, OutboundTrafficStats trafficStats) {
         this.config = config;
+        this.keys = keys;
         this.props = props;
         this.restTemplate = restTemplate;
+        this.trafficStats = trafficStats;
+
+        if (props.isLiveCheckEnabled()) {
+            Duration interval = props.getCacheTtl() == null ? Duration.ofMinutes(1) : props.getCacheTtl();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "spoonacular-health");
+                t.setDaemon(true);
+                return t;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::refreshLiveCheckIfIdle, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
     }
 
     @Override
     public Health health() {
         boolean hasBaseUrl = config.getBaseUrl() != null && !config.getBaseUrl().isBlank();
-        boolean hasApiKey = config.getApiKey() != null && !config.getApiKey().isBlank();
+        int configuredKeys = keys.configured();
+        int healthyKeys = keys.healthy();
+        boolean hasApiKey = configuredKeys > 0;
 
         Health.Builder builder = (hasBaseUrl && hasApiKey) ? Health.up() : Health.down();
         builder.withDetail("baseUrlConfigured", hasBaseUrl);
         builder.withDetail("apiKeyConfigured", hasApiKey);
+        builder.withDetail("apiKeys", Map.of("configured", configuredKeys, "healthy", healthyKeys));
 
-        if (props.isLiveCheckEnabled() && hasBaseUrl && hasApiKey) {
-            maybeRefreshLiveCheck();
-            builder.withDetail("liveCheckEnabled", true);
+        OutboundTrafficStats.Snapshot traffic = trafficStats.snapshot();
+        builder.withDetail("traffic", trafficDetails(traffic));
+        builder.withDetail("liveCheckEnabled", props.isLiveCheckEnabled());
+
+        boolean healthy;
+        if (hasApiKey && healthyKeys == 0) {
+            builder.withDetail("source", "apiKeys");
+            healthy = false;
+        } else if (isPassiveTrusted(traffic)) {
+            builder.withDetail("source", "traffic");
+            healthy = trafficHealthy(traffic);
+        } else if (props.isLiveCheckEnabled() && hasBaseUrl && hasApiKey && lastCheckAtMillis > 0) {
+            builder.withDetail("source", "liveCheck");
             builder.withDetail("liveCheckOk", lastLiveOk);
+            builder.withDetail("liveCheckAgeMs", System.currentTimeMillis() - lastCheckAtMillis);
             if (!lastLiveOk && lastLiveError != null) {
                 builder.withDetail("liveCheckError", lastLiveError);
             }
-            if (!lastLiveOk) {
-                // Force overall status to DOWN while preserving details.
-                return Health.down().withDetails(builder.build().getDetails()).build();
-            }
+            healthy = lastLiveOk;
         } else {
-            builder.withDetail("liveCheckEnabled", false);
+            builder.withDetail("source", "config");
+            healthy = true;
         }
 
+        if (!healthy) {
+            // Force overall status to DOWN while preserving details.
+            return Health.down().withDetails(builder.build().getDetails()).build();
+        }
         return builder.build();
     }
 
-    private void maybeRefreshLiveCheck() {
-        long now = System.currentTimeMillis();
-        Duration ttl = props.getCacheTtl() == null ? Duration.ofMinutes(1) : props.getCacheTtl();
-        if (now - lastCheckAtMillis < ttl.toMillis()) {
+    private boolean isPassiveTrusted(OutboundTrafficStats.Snapshot traffic) {
+        return traffic.requests() >= Math.max(1, props.getPassiveMinSamples());
+    }
+
+    private boolean trafficHealthy(OutboundTrafficStats.Snapshot traffic) {
+        if (traffic.errorRate() > props.getMaxErrorRate()) {
+            return false;
+        }
+        Duration maxP99 = props.getMaxP99Latency();
+        return maxP99 == null || maxP99.isZero() || traffic.p99().compareTo(maxP99) <= 0;
+    }
+
+    private static Map<String, Object> trafficDetails(OutboundTrafficStats.Snapshot traffic) {
+        return Map.of(
+                "requests", traffic.requests(),
+                "errorRate", traffic.errorRate(),
+                "p50Ms", traffic.p50().toMillis(),
+                "p99Ms", traffic.p99().toMillis()
+        );
+    }
+
+    /**
+     * Background task: spends quota only when real traffic cannot tell us anything.
+     */
+    void refreshLiveCheckIfIdle() {
+        boolean hasBaseUrl = config.getBaseUrl() != null && !config.getBaseUrl().isBlank();
+        if (!hasBaseUrl || keys.healthy() == 0 || isPassiveTrusted(trafficStats.snapshot())) {
             return;
         }
 
-        // Lightweight endpoint (still counts against quota). Cache and keep it opt-in.
+        // Lightweight endpoint (still counts against quota). Keep it opt-in.
         try {
+            String apiKey = keys.acquire().value();
             URI uri = UriComponentsBuilder
                     .fromHttpUrl(config.getBaseUrl())
                     .path("/recipes/complexSearch")
                     .queryParam("query", "apple")
                     .queryParam("number", 1)
-                    .queryParam("apiKey", config.getApiKey())
+                    .queryParam("apiKey", apiKey)
                     .build(true)
                     .toUri();
 
@@ -80,7 +154,14 @@ public class SpoonacularHealthIndicator implements HealthIndicator {
             lastLiveOk = false;
             lastLiveError = e.getClass().getSimpleName() + ": " + e.getMessage();
         } finally {
-            lastCheckAtMillis = now;
+            lastCheckAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
         }
     }
 }
@@ -0,0 +1,51 @@
+package com.atypon.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * POSTs each published alert as JSON to a configured URL (Slack/Teams relay, Alertmanager bridge, ...).
+ *
+ * <p>Failures are logged and dropped; a broken webhook must not feed back into the alert pipeline.</p>
+ */
+public class WebhookAlertSink implements AlertSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebhookAlertSink.class);
+
+    private final RestTemplate restTemplate;
+    private final URI url;
+
+    public WebhookAlertSink(RestTemplate restTemplate, URI url) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+    }
+
+    @Override
+    public void publish(AggregatedAlert alert) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("key", alert.key());
+        body.put("message", alert.message());
+        body.put("count", alert.count());
+        body.put("firstAt", alert.firstAtMillis());
+        body.put("lastAt", alert.lastAtMillis());
+        if (alert.lastError() != null) {
+            body.put("error", alert.lastError().getClass().getSimpleName() + ": " + alert.lastError().getMessage());
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            restTemplate.postForEntity(url, new HttpEntity<>(body, headers), Void.class);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to deliver alert [{}] to webhook {}: {}", alert.key(), url, e.toString());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.atypon.service;
+
+import com.atypon.cache.RecipeCaches;
+import com.atypon.cache.SearchKey;
+import com.atypon.client.ApiKeyPool;
+import com.atypon.client.SpoonacularQuota;
+import com.atypon.config.CacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preloads the response caches after startup so the first real requests after a rollout are not all cold.
+ *
+ * <p>Warm-up starts on {@link ApplicationReadyEvent} on a single background thread, so liveness is unaffected;
+ * readiness reports OUT_OF_SERVICE (see {@code CacheWarmupHealthIndicator}) until it finishes or
+ * {@code cache.warmup.timeout} passes. Keys come from {@code cache.warmup.recipe-ids}/{@code queries} and, if
+ * configured, from a record file that is rewritten with the hottest keys on shutdown.</p>
+ *
+ * <p>Every upstream call goes through {@link SpoonacularService} and starts only once some API key of the
+ * {@link ApiKeyPool} has a rate-limiter permission free, so warm-up never waits in a key's limiter ahead of
+ * interactive calls. Warm-up stops early once it has spent {@code max-requests} calls, no key is usable or
+ * Spoonacular reports less than {@code min-quota-left} points.</p>
+ */
+@Component
+public class CacheWarmer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private static final String RECIPE_PREFIX = "recipe:";
+    private static final String SEARCH_PREFIX = "search:";
+
+    /** Poll interval while every API key's rate limiter is exhausted. */
+    private static final long CAPACITY_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /** Upstream is clearly unavailable; stop instead of burning the whole timeout. */
+    private static final int MAX_CONSECUTIVE_FAILURES = 5;
+
+    public enum State { PENDING, RUNNING, DONE, STOPPED }
+
+    private final SpoonacularService service;
+    private final RecipeCaches caches;
+    private final CacheProperties.Warmup props;
+    private final boolean cacheEnabled;
+    private final ApiKeyPool keys;
+    private final SpoonacularQuota quota;
+
+    private volatile State state = State.PENDING;
+    private volatile String stopReason;
+    private volatile int total;
+    private volatile int completed;
+    private volatile int failed;
+    private volatile long startedAtMillis;
+    private volatile Thread worker;
+
+    public CacheWarmer(SpoonacularService service, RecipeCaches caches, CacheProperties props,
+                       ApiKeyPool keys, SpoonacularQuota quota) {
+        this.service = service;
+        this.caches = caches;
+        this.props = props.getWarmup();
+        this.cacheEnabled = props.isEnabled();
+        this.keys = keys;
+        this.quota = quota;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!cacheEnabled || !props.isEnabled()) {
+            finish(State.DONE, "disabled");
+            return;
+        }
+        List<Integer> recipeIds = new ArrayList<>();
+        List<SearchKey> searches = new ArrayList<>();
+        collectKeys(recipeIds, searches);
+        if (recipeIds.isEmpty() && searches.isEmpty()) {
+            finish(State.DONE, null);
+            return;
+        }
+
+        total = recipeIds.size() + searches.size();
+        startedAtMillis = System.currentTimeMillis();
+        state = State.RUNNING;
+        Thread t = new Thread(() -> run(recipeIds, searches), "cache-warmup");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
+
+    private void run(List<Integer> recipeIds, List<SearchKey> searches) {
+        long deadline = startedAtMillis + props.getTimeout().toMillis();
+        int spent = 0;
+        int consecutiveFailures = 0;
+        List<Runnable> tasks = new ArrayList<>(total);
+        for (Integer id : recipeIds) {
+            tasks.add(() -> service.getRecipeInfo(id));
+        }
+        for (SearchKey key : searches) {
+            tasks.add(() -> service.searchRecipes(key.query(), key.cuisine()));
+        }
+
+        try {
+            for (Runnable task : tasks) {
+                if (spent >= props.getMaxRequests()) {
+                    finish(State.STOPPED, "request budget spent");
+                    return;
+                }
+                if (quota.isBelow(props.getMinQuotaLeft())) {
+                    finish(State.STOPPED, "quota below " + props.getMinQuotaLeft());
+                    return;
+                }
+                if (keys.healthy() == 0) {
+                    finish(State.STOPPED, "no usable API key");
+                    return;
+                }
+                if (!awaitCapacity(deadline)) {
+                    finish(State.STOPPED, Thread.currentThread().isInterrupted() ? "interrupted" : "timeout");
+                    return;
+                }
+                spent++;
+                try {
+                    task.run();
+                    completed++;
+                    consecutiveFailures = 0;
+                } catch (RuntimeException e) {
+                    failed++;
+                    if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                        finish(State.STOPPED, "upstream failing: " + e.getClass().getSimpleName());
+                        return;
+                    }
+                }
+            }
+            finish(State.DONE, null);
+        } finally {
+            worker = null;
+        }
+    }
+
+    /**
+     * Waits until a key has a permission free, polling instead of waiting in a key's limiter, where the warm-up
+     * would hold a place ahead of request threads.
+     */
+    private boolean awaitCapacity(long deadlineMillis) {
+        while (!keys.hasCapacity()) {
+            if (System.currentTimeMillis() >= deadlineMillis || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(CAPACITY_POLL_NANOS);
+        }
+        return System.currentTimeMillis() < deadlineMillis;
+    }
+
+    private void finish(State end, String reason) {
+        stopReason = reason;
+        state = end;
+        if (end == State.STOPPED) {
+            LOGGER.warn("Cache warm-up stopped after {}/{} keys ({} failed): {}", completed + failed, total, failed,
+                    reason);
+        } else if (total > 0) {
+            LOGGER.info("Cache warm-up done: {} keys, {} failed, {} ms", completed, failed,
+                    System.currentTimeMillis() - startedAtMillis);
+        }
+    }
+
+    private void collectKeys(List<Integer> recipeIds, List<SearchKey> searches) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        Set<SearchKey> queries = new LinkedHashSet<>();
+        if (props.getRecipeIds() != null) {
+            ids.addAll(props.getRecipeIds());
+        }
+        if (props.getQueries() != null) {
+            for (String q : props.getQueries()) {
+                if (q != null && !q.isBlank()) {
+                    queries.add(SearchKey.parse(q));
+                }
+            }
+        }
+
+        Path file = recordFile();
+        if (file != null && Files.isReadable(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    String l = line.trim();
+                    if (l.startsWith(RECIPE_PREFIX)) {
+                        try {
+                            ids.add(Integer.parseInt(l.substring(RECIPE_PREFIX.length()).trim()));
+                        } catch (NumberFormatException ignored) {
+                            // skip malformed line
+                        }
+                    } else if (l.startsWith(SEARCH_PREFIX) && l.length() > SEARCH_PREFIX.length()) {
+                        queries.add(SearchKey.parse(l.substring(SEARCH_PREFIX.length())));
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not read cache warm-up record file {}: {}", file, e.getMessage());
+            }
+        }
+        recipeIds.addAll(ids);
+        searches.addAll(queries);
+    }
+
+    /**
+     * Records the currently hottest keys for the next start.
+     */
+    void writeRecordFile() {
+        Path file = recordFile();
+        if (file == null || !cacheEnabled) {
+            return;
+        }
+        int topN = Math.max(0, props.getRecordTopN());
+        List<String> lines = new ArrayList<>();
+        for (Integer id : caches.recipes().hottest(topN)) {
+            lines.add(RECIPE_PREFIX + id);
+        }
+        for (SearchKey key : caches.searches().hottest(topN)) {
+            lines.add(SEARCH_PREFIX + key.format());
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write cache warm-up record file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path recordFile() {
+        String f = props.getRecordFile();
+        return (f == null || f.isBlank()) ? null : Path.of(f.trim());
+    }
+
+    public State state() {
+        return state;
+    }
+
+    /** True once readiness no longer needs to wait: warm-up finished, stopped, or ran past its timeout. */
+    public boolean isSettled() {
+        State s = state;
+        if (s == State.DONE || s == State.STOPPED) {
+            return true;
+        }
+        return s == State.RUNNING && System.currentTimeMillis() - startedAtMillis >= props.getTimeout().toMillis();
+    }
+
+    public String stopReason() {
+        return stopReason;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /** Keys warmed successfully; failures are counted by {@link #failed()} only. */
+    public int completed() {
+        return completed;
+    }
+
+    public int failed() {
+        return failed;
+    }
+
+    @Override
+    public void close() {
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
+        }
+        writeRecordFile();
+    }
+}
@@ -0,0 +1,197 @@
+package com.atypon.service;
+
+import com.atypon.cache.RecipeCaches;
+import com.atypon.client.ApiKeyPool;
+import com.atypon.client.SpoonacularQuota;
+import com.atypon.config.CacheProperties;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.model.Recipe;
+import com.atypon.web.InboundLoadFilter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Optional search-driven prefetch: after a search, the recipe information of the first results is loaded into the
+ * cache on a small bounded executor, since users usually open one of them next.
+ *
+ * <p>Prefetching is strictly best effort and never competes with interactive traffic: it is skipped while many
+ * API requests are in flight or Spoonacular quota is low, each call needs an API key of the {@link ApiKeyPool}
+ * with a rate-limiter permission free right now (it never waits for one), and a full queue drops the work.</p>
+ *
+ * <p>Metrics: {@code prefetch.requests{result}} and {@code prefetch.useful} (a prefetched recipe that was later
+ * served from the cache).</p>
+ */
+@Component
+public class RecipePrefetcher implements AutoCloseable {
+
+    private static final int MAX_TRACKED = 10_000;
+
+    private final boolean enabled;
+    private final CacheProperties.Prefetch props;
+    private final RecipeCaches caches;
+    private final ApiKeyPool keys;
+    private final SpoonacularQuota quota;
+    private final InboundLoadFilter inboundLoad;
+    private final ThreadPoolExecutor executor;
+
+    /** Prefetched IDs not yet served; insertion-ordered so the oldest are forgotten first. */
+    private final Map<Integer, Boolean> pending = new LinkedHashMap<>();
+
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter droppedLoad;
+    private final Counter droppedBudget;
+    private final Counter droppedQueue;
+    private final Counter useful;
+
+    public RecipePrefetcher(CacheProperties props, RecipeCaches caches, ApiKeyPool keys,
+                            SpoonacularQuota quota, InboundLoadFilter inboundLoad, MeterRegistry meterRegistry) {
+        this.enabled = props.isEnabled() && props.getPrefetch().isEnabled() && props.getPrefetch().getTopN() > 0;
+        this.props = props.getPrefetch();
+        this.caches = caches;
+        this.keys = keys;
+        this.quota = quota;
+        this.inboundLoad = inboundLoad;
+
+        this.completed = meterRegistry.counter("prefetch.requests", "result", "completed");
+        this.failed = meterRegistry.counter("prefetch.requests", "result", "failed");
+        this.droppedLoad = meterRegistry.counter("prefetch.requests", "result", "dropped_load");
+        this.droppedBudget = meterRegistry.counter("prefetch.requests", "result", "dropped_budget");
+        this.droppedQueue = meterRegistry.counter("prefetch.requests", "result", "dropped_queue");
+        this.useful = meterRegistry.counter("prefetch.useful");
+
+        if (enabled) {
+            int threads = Math.max(1, this.props.getThreads());
+            AtomicInteger seq = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, this.props.getQueueCapacity())),
+                    r -> {
+                        Thread t = new Thread(r, "recipe-prefetch-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * A prefetcher that never does anything; for callers (tests, benchmarks) that want the plain service.
+     */
+    public static RecipePrefetcher disabled() {
+        CacheProperties props = new CacheProperties();
+        props.getPrefetch().setEnabled(false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SpoonacularQuota quota = new SpoonacularQuota(registry);
+        return new RecipePrefetcher(props, RecipeCaches.disabled(),
+                new ApiKeyPool(new SpoonacularConfig(), quota, RateLimiterRegistry.ofDefaults(), registry),
+                quota, new InboundLoadFilter(registry), registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Schedules prefetches for the first results of a search. {@code loader} fetches one recipe into the cache.
+     */
+    void afterSearch(List<Recipe> results, IntConsumer loader) {
+        if (!enabled || results.isEmpty()) {
+            return;
+        }
+        int scheduled = 0;
+        for (Recipe r : results) {
+            if (scheduled >= props.getTopN()) {
+                break;
+            }
+            int id = r.getId();
+            if (id <= 0 || caches.recipeExpiresAtMillis(id) > 0) {
+                continue;
+            }
+            scheduled++;
+            if (inboundLoad.inFlight() >= props.getMaxInteractiveInFlight()) {
+                droppedLoad.increment();
+                continue;
+            }
+            if (quota.isBelow(props.getMinQuotaLeft())) {
+                droppedBudget.increment();
+                continue;
+            }
+            try {
+                executor.execute(() -> prefetch(id, loader));
+            } catch (RejectedExecutionException e) {
+                droppedQueue.increment();
+            }
+        }
+    }
+
+    private void prefetch(int id, IntConsumer loader) {
+        // Re-check at execution time: the user may have opened it already, or load may have gone up meanwhile.
+        if (caches.recipeExpiresAtMillis(id) > 0) {
+            return;
+        }
+        if (inboundLoad.inFlight() >= props.getMaxInteractiveInFlight()) {
+            droppedLoad.increment();
+            return;
+        }
+        if (!keys.hasCapacity()) {
+            droppedBudget.increment();
+            return;
+        }
+        try {
+            loader.accept(id);
+            completed.increment();
+            track(id);
+        } catch (RuntimeException e) {
+            failed.increment();
+        }
+    }
+
+    private synchronized void track(int id) {
+        pending.put(id, Boolean.TRUE);
+        Iterator<Integer> it = pending.keySet().iterator();
+        while (pending.size() > MAX_TRACKED && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Called on every recipe cache hit; counts the first hit on a prefetched recipe as useful.
+     */
+    void recordHit(int id) {
+        if (!enabled) {
+            return;
+        }
+        boolean wasPrefetched;
+        synchronized (this) {
+            wasPrefetched = pending.remove(id) != null;
+        }
+        if (wasPrefetched) {
+            useful.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,26 +1,54 @@
 package com.atypon.service;
 
+import com.atypon.cache.CompactRecipe;
+import com.atypon.cache.RecipeCaches;
+import com.atypon.cache.SearchKey;
+import com.atypon.client.DeadlineExceededException;
+import com.atypon.client.PeerCacheClient;
 import com.atypon.client.SpoonacularClient;
 import com.atypon.model.ExcludeRequest;
-import com.atypon.model.Ingredient;
 import com.atypon.model.Recipe;
+import com.atypon.web.RequestDeadline;
 import com.fasterxml.jackson.databind.JsonNode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
 @Service
 public class SpoonacularService {
 
     private final SpoonacularClient client;
+    private final RecipeCaches caches;
+    private final RecipePrefetcher prefetcher;
+    private final PeerCacheClient peers;
 
-    public SpoonacularService(SpoonacularClient client) {
+    /** Upstream recipe fetches in progress; concurrent misses for the same ID share one call. */
+    private final ConcurrentHashMap<Integer, CompletableFuture<ResponseEntity<Recipe>>> inFlight = new ConcurrentHashMap<>();
+
+    public SpoonacularService(SpoonacularClient client, RecipeCaches caches, RecipePrefetcher prefetcher,
+                              PeerCacheClient peers) {
         this.client = client;
+        this.caches = caches;
+        this.prefetcher = prefetcher;
+        this.peers = peers;
     }
 
     public List<Recipe> searchRecipes(String query, String cuisine) {
+        SearchKey key = SearchKey.of(query, cuisine);
+        List<Recipe> cached = caches.searches().get(key);
+        if (cached != null) {
+            return cached;
+        }
+
         ResponseEntity<JsonNode> resp = client.search(query, cuisine);
         if (resp == null || !resp.getStatusCode().is2xxSuccessful()) {
             return List.of();
@@ -48,7 +76,10 @@ public class SpoonacularService {
             }
             out.add(r);
         }
-        return out;
+        List<Recipe> result = List.copyOf(out);
+        caches.searches().put(key, result);
+        prefetcher.afterSearch(result, this::prefetchRecipe);
+        return result;
     }
 
     public List<Recipe> searchRecipes(String query) {
@@ -56,28 +87,73 @@ public class SpoonacularService {
     }
 
     public Recipe getRecipeInfo(int recipeId) {
-        ResponseEntity<Recipe> resp = client.recipeInfo(recipeId);
+        if (isKnownMissing(recipeId)) {
+            throw new IllegalStateException("Failed to fetch recipe information");
+        }
+        CompactRecipe cached = cachedRecipe(recipeId);
+        if (cached != null) {
+            prefetcher.recordHit(recipeId);
+            return cached.toRecipe();
+        }
+
+        ResponseEntity<Recipe> resp = fetchRecipe(recipeId);
         if (resp == null || !resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
             // This exact message is asserted in tests.
             throw new IllegalStateException("Failed to fetch recipe information");
         }
+        cacheRecipe(recipeId, caches.compact(resp.getBody()));
         return resp.getBody();
     }
 
+    /**
+     * Serves a peer replica asking for a recipe this replica owns (peer mode). Never forwards to another replica,
+     * even if the ring views differ, so requests cannot loop.
+     *
+     * @return 200 with the recipe, or 404 if upstream does not know the ID
+     */
+    public ResponseEntity<Recipe> getOwnedRecipe(int recipeId) {
+        if (isKnownMissing(recipeId)) {
+            return ResponseEntity.notFound().build();
+        }
+        CompactRecipe cached = caches.recipes().get(recipeId);
+        if (cached != null) {
+            return ResponseEntity.ok(cached.toRecipe());
+        }
+        ResponseEntity<Recipe> resp = fetchUpstream(recipeId);
+        if (resp != null && resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null) {
+            caches.recipes().put(recipeId, caches.compact(resp.getBody()));
+            return ResponseEntity.ok(resp.getBody());
+        }
+        if (resp != null && resp.getStatusCode().value() == 404) {
+            return ResponseEntity.notFound().build();
+        }
+        throw new IllegalStateException("Failed to fetch recipe information");
+    }
+
     public double getCustomizedCalories(int recipeId, ExcludeRequest request) {
-        ResponseEntity<Recipe> resp = client.recipeInfo(recipeId);
-        if (resp == null || !resp.getStatusCode().is2xxSuccessful()) {
-            // Controller maps IllegalStateException to 400 for invalid IDs.
+        if (isKnownMissing(recipeId)) {
             throw new IllegalStateException("Invalid recipeId");
         }
+        // Works on the cached arrays; no Recipe is materialized for this endpoint.
+        CompactRecipe recipe = cachedRecipe(recipeId);
+        if (recipe != null) {
+            prefetcher.recordHit(recipeId);
+        } else {
+            ResponseEntity<Recipe> resp = fetchRecipe(recipeId);
+            if (resp == null || !resp.getStatusCode().is2xxSuccessful()) {
+                // Controller maps IllegalStateException to 400 for invalid IDs.
+                throw new IllegalStateException("Invalid recipeId");
+            }
 
-        Recipe recipe = resp.getBody();
-        if (recipe == null) {
-            return 0.0;
+            if (resp.getBody() == null) {
+                return 0.0;
+            }
+            recipe = caches.compact(resp.getBody());
+            cacheRecipe(recipeId, recipe);
         }
 
-        List<Ingredient> ingredients = recipe.getExtendedIngredients();
-        if (ingredients == null || ingredients.isEmpty()) {
+        int count = recipe.ingredientCount();
+        if (count == 0) {
             return 0.0;
         }
 
@@ -86,20 +162,143 @@ public class SpoonacularService {
                 : request.getExcludeIngredients();
 
         double total = 0.0;
-        for (Ingredient ing : ingredients) {
-            if (ing == null) continue;
+        for (int i = 0; i < count; i++) {
+            if (!recipe.hasIngredient(i)) continue;
 
-            String name = ing.getName();
+            String name = recipe.ingredientName(i);
             if (name != null && isExcluded(name, excluded)) {
                 continue;
             }
 
             // Tests expect SUM of ingredient amounts.
-            total += ing.getAmount();
+            total += recipe.ingredientAmount(i);
         }
         return total;
     }
 
+    /**
+     * Spoonacular IDs are positive; anything else, or an ID upstream recently answered 404 for, is not looked up.
+     */
+    private boolean isKnownMissing(int recipeId) {
+        return recipeId <= 0 || caches.missingRecipes().contains(recipeId);
+    }
+
+    /**
+     * Prefetch loader: same upstream path as {@link #getRecipeInfo}, but only fills the cache.
+     */
+    private void prefetchRecipe(int recipeId) {
+        ResponseEntity<Recipe> resp = fetchRecipe(recipeId);
+        if (resp != null && resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null) {
+            cacheRecipe(recipeId, caches.compact(resp.getBody()));
+        }
+    }
+
+    /**
+     * Records a hit answered from the recipe's encoded representation, as {@link #getRecipeInfo} would have: the
+     * on-heap entry's hit count and LRU position, and prefetch usefulness. False if the recipe is no longer on heap
+     * (expired, invalidated, or demoted off-heap); the caller should then drop the representation and ask again.
+     */
+    public boolean recordRecipeHit(int recipeId) {
+        boolean onHeap = caches.recipes().l1().touch(recipeId)
+                || (peers.isRemote(recipeId) && caches.replicas().touch(recipeId));
+        if (onHeap) {
+            prefetcher.recordHit(recipeId);
+        }
+        return onHeap;
+    }
+
+    /** Like {@link #recordRecipeHit}, for a search answered from its representation. */
+    public boolean recordSearchHit(SearchKey key) {
+        return caches.searches().touch(key);
+    }
+
+    private CompactRecipe cachedRecipe(int recipeId) {
+        CompactRecipe recipe = caches.recipes().get(recipeId);
+        if (recipe == null && peers.isRemote(recipeId)) {
+            recipe = caches.replicas().get(recipeId);
+        }
+        return recipe;
+    }
+
+    /**
+     * In peer mode only the owner keeps a recipe in the main cache; other replicas keep a sampled hot copy.
+     */
+    private void cacheRecipe(int recipeId, CompactRecipe recipe) {
+        if (!peers.isRemote(recipeId)) {
+            caches.recipes().put(recipeId, recipe);
+        } else if (peers.shouldReplicate()) {
+            caches.replicas().put(recipeId, recipe);
+        }
+    }
+
+    /**
+     * Fetches from the owning replica in peer mode (falling back to upstream if it cannot be reached), otherwise
+     * from upstream. 404s are remembered in the negative cache.
+     */
+    private ResponseEntity<Recipe> fetchRecipe(int recipeId) {
+        if (peers.isRemote(recipeId)) {
+            ResponseEntity<Recipe> fromOwner = peers.fetch(recipeId);
+            if (fromOwner != null) {
+                if (fromOwner.getStatusCode().value() == 404) {
+                    caches.missingRecipes().add(recipeId);
+                }
+                return fromOwner;
+            }
+        }
+        return fetchUpstream(recipeId);
+    }
+
+    /**
+     * Upstream 404s (returned or thrown) are remembered in the negative cache and reported as a 404 response.
+     * Concurrent calls for the same ID wait for the first one instead of calling upstream again, but no longer than
+     * their own request deadline allows.
+     */
+    private ResponseEntity<Recipe> fetchUpstream(int recipeId) {
+        CompletableFuture<ResponseEntity<Recipe>> mine = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Recipe>> leader = inFlight.putIfAbsent(recipeId, mine);
+        if (leader != null) {
+            return awaitLeader(leader);
+        }
+
+        try {
+            ResponseEntity<Recipe> resp;
+            try {
+                resp = client.recipeInfo(recipeId);
+            } catch (HttpClientErrorException.NotFound e) {
+                resp = ResponseEntity.notFound().build();
+            }
+            if (resp != null && resp.getStatusCode().value() == 404) {
+                caches.missingRecipes().add(recipeId);
+            }
+            mine.complete(resp);
+            return resp;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(recipeId, mine);
+        }
+    }
+
+    private static ResponseEntity<Recipe> awaitLeader(CompletableFuture<ResponseEntity<Recipe>> leader) {
+        try {
+            return leader.get(RequestDeadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Request deadline exceeded waiting for an in-flight Spoonacular call");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted waiting for an in-flight Spoonacular call");
+        }
+    }
+
     private boolean isExcluded(String ingredientName, List<String> excluded) {
         String n = ingredientName.trim().toLowerCase(Locale.ROOT);
         for (String e : excluded) {
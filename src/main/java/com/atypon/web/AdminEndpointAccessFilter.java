@@ -0,0 +1,66 @@
+package com.atypon.web;
+
+import com.atypon.config.AdminEndpointProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Guards the actuator endpoints listed in {@code admin-endpoints.endpoints} (e.g. {@code /actuator/invalidation},
+ * which empties caches on every replica): each request must send {@code Authorization: Bearer
+ * <admin-endpoints.token>}. Without a configured token they are refused, like {@link ProfilingAccessFilter}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class AdminEndpointAccessFilter extends OncePerRequestFilter {
+
+    private static final Rejection UNAUTHORIZED = new Rejection(HttpStatus.UNAUTHORIZED.value(),
+            MediaType.APPLICATION_JSON_VALUE, "{\"error\":\"Unauthorized\"}", HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+
+    private final AdminEndpointProperties props;
+    private final List<String> paths;
+
+    public AdminEndpointAccessFilter(AdminEndpointProperties props, WebEndpointProperties endpoints) {
+        this.props = props;
+        String base = endpoints.getBasePath() == null ? "" : endpoints.getBasePath();
+        String prefix = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.paths = props.getEndpoints().stream().map(id -> prefix + "/" + id).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String lookupPath = RequestPaths.lookupPath(request);
+        if (lookupPath == null) {
+            return true;
+        }
+        for (String path : paths) {
+            if (RequestPaths.isAtOrUnder(lookupPath, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!BearerToken.matches(props.getToken(), request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            UNAUTHORIZED.write(response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,127 @@
+package com.atypon.web;
+
+import com.atypon.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-based load shedding in front of the API (CoDel applied to a request queue).
+ *
+ * <p>At most {@code max-concurrent} API requests run at once; the rest wait for a slot. While the queue keeps
+ * draining, a request may wait up to one {@code interval}. Once the queue has not been empty for a whole
+ * interval (a standing queue, typically because Spoonacular slowed down), new arrivals only wait up to
+ * {@code target-delay} and are otherwise rejected at once with a plain 503, before any controller, cache or
+ * upstream work is done. Health probes and docs are never shed.</p>
+ *
+ * <p>Metrics: {@code http.server.admission.queue.delay} (histogram), {@code http.server.admission.shed},
+ * {@code http.server.admission.queued}.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControlProperties props;
+    private final Semaphore permits;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final Rejection rejection;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private volatile long lastEmptyNanos = System.nanoTime();
+
+    private final Timer queueDelay;
+    private final Counter shed;
+
+    public AdmissionControlFilter(AdmissionControlProperties props, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.permits = new Semaphore(Math.max(1, props.getMaxConcurrent()), true);
+        this.targetNanos = props.getTargetDelay().toNanos();
+        this.intervalNanos = props.getInterval().toNanos();
+        this.rejection = new Rejection(HttpStatus.SERVICE_UNAVAILABLE.value(), MediaType.APPLICATION_JSON_VALUE,
+                "{\"error\":\"Service overloaded\"}",
+                "Retry-After", String.valueOf(Math.max(1, props.getRetryAfter().toSeconds())));
+
+        this.queueDelay = Timer.builder("http.server.admission.queue.delay")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.shed = meterRegistry.counter("http.server.admission.shed");
+        meterRegistry.gauge("http.server.admission.queued", queued);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!props.isEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return path == null || !path.startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!admit()) {
+            shed.increment();
+            rejection.write(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return true once a slot is held; false if the request should be shed
+     */
+    boolean admit() {
+        long start = System.nanoTime();
+        try {
+            // Only with nobody waiting: a timed tryAcquire honours the fair semaphore, so no one jumps the queue.
+            if (queued.get() == 0 && permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                queueDelay.record(0, TimeUnit.NANOSECONDS);
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        if (queued.getAndIncrement() == 0) {
+            lastEmptyNanos = start; // the queue was empty until this request joined it
+        }
+        // Standing queue: it has not been empty for a whole interval, so only tolerate the target delay.
+        long maxWait = (start - lastEmptyNanos) > intervalNanos ? targetNanos : intervalNanos;
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(maxWait, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            long now = System.nanoTime();
+            if (queued.decrementAndGet() == 0) {
+                lastEmptyNanos = now;
+            }
+            queueDelay.record(now - start, TimeUnit.NANOSECONDS);
+        }
+        return acquired;
+    }
+}
@@ -0,0 +1,23 @@
+package com.atypon.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/** {@code Authorization: Bearer} check shared by the filters guarding actuator endpoints. */
+final class BearerToken {
+
+    private static final String BEARER = "Bearer ";
+
+    private BearerToken() {
+    }
+
+    /** False whenever no token is configured, so an unset token locks the endpoint instead of opening it. */
+    static boolean matches(String token, String authorization) {
+        if (token == null || token.isBlank() || authorization == null || !authorization.startsWith(BEARER)) {
+            return false;
+        }
+        // constant-time comparison: do not leak how much of the token matched
+        return MessageDigest.isEqual(token.trim().getBytes(StandardCharsets.UTF_8),
+                authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,20 @@
+package com.atypon.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a handler method inside the named resilience4j bulkhead (see {@link EndpointBulkheadInterceptor}).
+ * Sizes are configured under {@code resilience4j.bulkhead.instances}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EndpointBulkhead {
+
+    /** Bulkhead instance name. */
+    String value();
+}
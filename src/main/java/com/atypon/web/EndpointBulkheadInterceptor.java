@@ -0,0 +1,54 @@
+package com.atypon.web;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Per-endpoint concurrency partitions: a handler annotated with {@link EndpointBulkhead} only runs while its
+ * bulkhead has a free slot, so one slow endpoint (e.g. search while Spoonacular's search is degraded) cannot tie
+ * up every request thread admitted by {@link AdmissionControlFilter}.
+ *
+ * <p>A full partition fails at once with {@link BulkheadFullException} (mapped to 503 by the exception handler);
+ * the bulkheads are configured with a zero wait.</p>
+ */
+@Component
+public class EndpointBulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String ATTRIBUTE = EndpointBulkheadInterceptor.class.getName() + ".bulkhead";
+
+    private final BulkheadRegistry bulkheads;
+
+    public EndpointBulkheadInterceptor(BulkheadRegistry bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        EndpointBulkhead partition = method.getMethodAnnotation(EndpointBulkhead.class);
+        if (partition == null) {
+            return true;
+        }
+        Bulkhead bulkhead = bulkheads.bulkhead(partition.value());
+        bulkhead.acquirePermission();
+        request.setAttribute(ATTRIBUTE, bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object bulkhead = request.getAttribute(ATTRIBUTE);
+        if (bulkhead instanceof Bulkhead b) {
+            request.removeAttribute(ATTRIBUTE);
+            b.onComplete();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.atypon.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k counter: (weighted) counts for at most {@code capacity} keys in fixed memory, however many
+ * distinct keys arrive. A new key takes over the slot of the current minimum and inherits its count as
+ * {@code error}, so {@code count} over-estimates and {@code count - error} is a guaranteed lower bound; any key
+ * seen more than {@code total / capacity} times is always tracked.
+ *
+ * <p>Counts are halved every {@code decayMillis} so they describe recent traffic rather than all time. Slots sit
+ * in an indexed min-heap on {@code count}: offering a key is O(log capacity). Thread-safe (one monitor).</p>
+ */
+public final class HeavyHitterSketch {
+
+    /** A tracked key with its estimated count and the over-estimation bound. */
+    public record Entry(String key, long count, long error) {
+
+        /** Requests certainly made by this key in the current window. */
+        public long guaranteed() {
+            return count - error;
+        }
+    }
+
+    private static final class Slot {
+        String key;
+        long count;
+        long error;
+        int heapIndex;
+    }
+
+    private final int capacity;
+    private final long decayMillis;
+
+    private final Slot[] heap;
+    private final Map<String, Slot> slots;
+    private int size;
+    private long nextDecayAt;
+
+    public HeavyHitterSketch(int capacity, long decayMillis) {
+        this.capacity = Math.max(1, capacity);
+        this.decayMillis = decayMillis;
+        this.heap = new Slot[this.capacity];
+        this.slots = new HashMap<>(this.capacity * 2);
+        this.nextDecayAt = System.currentTimeMillis() + decayMillis;
+    }
+
+    /** Counts one occurrence of {@code key} and returns its updated estimate. */
+    public Entry offer(String key) {
+        return offer(key, 1);
+    }
+
+    /**
+     * Adds {@code weight} to {@code key} and returns its updated estimate. A weight of 0 only looks the key up
+     * (an untracked key is not inserted).
+     */
+    public synchronized Entry offer(String key, long weight) {
+        decayIfDue(System.currentTimeMillis());
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            if (weight <= 0) {
+                return new Entry(key, 0, 0);
+            }
+            if (size < capacity) {
+                slot = new Slot();
+                heap[size] = slot;
+                siftUp(size++); // a count of 0 belongs at the root
+            } else {
+                slot = heap[0]; // the minimum: replaced, its count becomes the newcomer's error
+                slots.remove(slot.key);
+                slot.error = slot.count;
+            }
+            slot.key = key;
+            slots.put(key, slot);
+        }
+        slot.count += Math.max(0, weight);
+        siftDown(slot.heapIndex);
+        return new Entry(slot.key, slot.count, slot.error);
+    }
+
+    /** The {@code limit} keys with the highest estimated counts, highest first. */
+    public synchronized List<Entry> top(int limit) {
+        decayIfDue(System.currentTimeMillis());
+        Slot[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, Comparator.comparingLong((Slot s) -> s.count).reversed());
+        List<Entry> top = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < sorted.length && top.size() < limit; i++) {
+            top.add(new Entry(sorted[i].key, sorted[i].count, sorted[i].error));
+        }
+        return top;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Halving every count keeps the heap ordered, so no re-heapify is needed. */
+    private void decayIfDue(long now) {
+        if (decayMillis <= 0 || now < nextDecayAt) {
+            return;
+        }
+        long periods = Math.min(63, (now - nextDecayAt) / decayMillis + 1);
+        for (int i = 0; i < size; i++) {
+            heap[i].count >>= periods;
+            heap[i].error >>= periods;
+        }
+        nextDecayAt = now + decayMillis;
+    }
+
+    private void siftUp(int i) {
+        Slot slot = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (heap[parent].count <= slot.count) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heap[i].heapIndex = i;
+            i = parent;
+        }
+        heap[i] = slot;
+        slot.heapIndex = i;
+    }
+
+    private void siftDown(int i) {
+        Slot slot = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= slot.count) {
+                break;
+            }
+            heap[i] = heap[child];
+            heap[i].heapIndex = i;
+            i = child;
+        }
+        heap[i] = slot;
+        slot.heapIndex = i;
+    }
+}
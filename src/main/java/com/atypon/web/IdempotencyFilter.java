@@ -1,7 +1,6 @@
 package com.atypon.web;
 
 import com.atypon.config.IdempotencyProperties;
-import com.atypon.exception.IdempotencyConflictException;
 import com.atypon.idempotency.IdempotencyEntry;
 import com.atypon.idempotency.IdempotencyStore;
 import com.atypon.idempotency.InMemoryIdempotencyStore;
@@ -36,6 +35,12 @@ public class IdempotencyFilter extends OncePerRequestFilter {
     public static final String STATUS_HIT = "HIT";
     public static final String STATUS_MISS = "MISS";
 
+    private static final Rejection IN_FLIGHT = new Rejection(409, MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+            "{\"title\":\"Idempotency conflict\",\"status\":409,\"detail\":\"Request with the same idempotency key is still in-flight\"}",
+            HEADER_STATUS, "IN_FLIGHT");
+    private static final Rejection KEY_REUSED = new Rejection(409, MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+            "{\"title\":\"Idempotency conflict\",\"status\":409,\"detail\":\"Idempotency key reuse with a different request payload\"}");
+
     private final IdempotencyProperties props;
     private final IdempotencyStore store;
     private final MeterRegistry meterRegistry;
@@ -73,7 +78,10 @@ public class IdempotencyFilter extends OncePerRequestFilter {
 
         IdempotencyEntry entry = store.getOrCreate(key, fingerprint, props.getTtl());
         if (!fingerprint.equals(entry.fingerprint())) {
-            throw new IdempotencyConflictException("Idempotency key reuse with a different request payload");
+            meterRegistry.counter("idempotency.key_reuse_conflict").increment();
+            response.setHeader(keyHeader, key);
+            KEY_REUSED.write(response);
+            return;
         }
 
         // If already completed, short-circuit.
@@ -100,11 +108,8 @@ public class IdempotencyFilter extends OncePerRequestFilter {
                 }
             }
             meterRegistry.counter("idempotency.in_flight_conflict").increment();
-            response.setStatus(409);
             response.setHeader(keyHeader, key);
-            response.setHeader(HEADER_STATUS, "IN_FLIGHT");
-            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
-            response.getWriter().write("{\"title\":\"Idempotency conflict\",\"status\":409,\"detail\":\"Request with the same idempotency key is still in-flight\"}");
+            IN_FLIGHT.write(response);
             return;
         }
 
@@ -171,7 +176,7 @@ public class IdempotencyFilter extends OncePerRequestFilter {
         }
     }
 
-    private String fingerprint(HttpServletRequest request, byte[] body) {
+    String fingerprint(HttpServletRequest request, byte[] body) {
         String method = request.getMethod();
         String uri = request.getRequestURI();
         String query = request.getQueryString() == null ? "" : request.getQueryString();
@@ -0,0 +1,50 @@
+package com.atypon.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts interactive API requests currently being served, as a cheap load signal for background work
+ * (prefetching backs off while this is high). Probes and docs are not counted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class InboundLoadFilter extends OncePerRequestFilter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public InboundLoadFilter(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("http.server.requests.inflight", inFlight);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path == null || !path.startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        inFlight.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
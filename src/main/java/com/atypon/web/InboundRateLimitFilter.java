@@ -1,24 +1,37 @@
 package com.atypon.web;
 
 import com.atypon.config.InboundRateLimitProperties;
-import com.atypon.exception.RateLimitExceededException;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Per-client (IP) token buckets for {@code /api}, charged by cost rather than by request: once the request is done,
+ * the client pays the Spoonacular quota points it spent (see {@link RequestCost}), or {@code min-cost} if it spent
+ * none. A client whose bucket is empty is refused up front with a pre-encoded 429 (see {@link Rejection}).
+ *
+ * <p>Buckets are kept only for heavy hitters: every charge is counted in a fixed-size {@link HeavyHitterSketch},
+ * and a client gets a {@link RateLimiter} once it has certainly spent {@code heavy-hitter-threshold} tokens, which
+ * are charged to the new bucket. A scraper rotating through many IPs therefore fills neither memory nor the bucket
+ * map, and light clients cost one sketch slot at most.</p>
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 5)
 public class InboundRateLimitFilter extends OncePerRequestFilter {
@@ -26,11 +39,21 @@ public class InboundRateLimitFilter extends OncePerRequestFilter {
     private final InboundRateLimitProperties props;
     private final MeterRegistry meterRegistry;
 
+    private final Rejection rejection;
+    private final HeavyHitterSketch heavyHitters;
     private final Map<String, RateLimiter> perClient = new LinkedHashMap<>(256, 0.75f, true);
 
     public InboundRateLimitFilter(InboundRateLimitProperties props, MeterRegistry meterRegistry) {
         this.props = props;
         this.meterRegistry = meterRegistry;
+        this.rejection = new Rejection(HttpStatus.TOO_MANY_REQUESTS.value(), MediaType.APPLICATION_JSON_VALUE,
+                "{\"error\":\"Inbound rate limit exceeded\"}",
+                "Retry-After", String.valueOf(Math.max(1, refreshPeriod().toSeconds())));
+        this.heavyHitters = new HeavyHitterSketch(props.getSketchCapacity(), refreshPeriod().toMillis());
+        meterRegistry.gauge("rate_limit.inbound.clients", Tags.of("state", "counted"), heavyHitters,
+                HeavyHitterSketch::size);
+        meterRegistry.gauge("rate_limit.inbound.clients", Tags.of("state", "limited"), perClient,
+                m -> limitedClients());
     }
 
     @Override
@@ -44,24 +67,41 @@ public class InboundRateLimitFilter extends OncePerRequestFilter {
                 || path.startsWith("/actuator")
                 || path.startsWith("/swagger-ui")
                 || path.startsWith("/v3/api-docs")
-                || path.startsWith("/webjars/");
+                || path.startsWith("/webjars/")
+                // replica-to-replica: one IP per replica carries many clients' lookups; PeerAccessFilter guards it
+                || path.startsWith(PeerAccessFilter.PREFIX);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        RateLimiter limiter = getLimiter(clientKey(request));
-        boolean allowed = limiter.acquirePermission();
-        if (!allowed) {
-            meterRegistry.counter("rate_limit.inbound.denied").increment();
-            throw new RateLimitExceededException("Inbound rate limit exceeded", props.getRefreshPeriod());
+        String client = clientKey(request);
+        RateLimiter limiter = limiter(client);
+        int prepaid = 0;
+        if (limiter != null && limiter.getMetrics().getAvailablePermissions() <= 0) {
+            // empty (or in debt): wait up to the timeout for one token, paid towards this request
+            if (!limiter.acquirePermission()) {
+                meterRegistry.counter("rate_limit.inbound.denied").increment();
+                rejection.write(response);
+                return;
+            }
+            prepaid = 1;
         }
         meterRegistry.counter("rate_limit.inbound.allowed").increment();
-        filterChain.doFilter(request, response);
+
+        RequestCost cost = RequestCost.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestCost.end();
+            int tokens = cost.tokens(props.getMinCost());
+            meterRegistry.counter("rate_limit.inbound.charged").increment(tokens);
+            charge(client, tokens, prepaid);
+        }
     }
 
-    private String clientKey(HttpServletRequest request) {
+    String clientKey(HttpServletRequest request) {
         String fwd = request.getHeader("X-Forwarded-For");
         if (fwd != null && !fwd.isBlank()) {
             String first = fwd.split(",")[0].trim();
@@ -73,26 +113,76 @@ public class InboundRateLimitFilter extends OncePerRequestFilter {
         return (remote == null || remote.isBlank()) ? "unknown" : remote;
     }
 
+    /** Clients with the most requests in the recent refresh periods, highest first. */
+    public List<HeavyHitterSketch.Entry> topClients(int limit) {
+        return heavyHitters.top(limit);
+    }
+
+    /** Tokens left in the client's bucket, or -1 if it has none (not a heavy hitter). */
+    public int availablePermissions(String client) {
+        synchronized (perClient) {
+            RateLimiter limiter = perClient.get(client);
+            return limiter == null ? -1 : limiter.getMetrics().getAvailablePermissions();
+        }
+    }
+
+    private int limitedClients() {
+        synchronized (perClient) {
+            return perClient.size();
+        }
+    }
+
+    private Duration refreshPeriod() {
+        return props.getRefreshPeriod() == null ? Duration.ofSeconds(60) : props.getRefreshPeriod();
+    }
+
     private RateLimiterConfig config() {
-        Duration refresh = props.getRefreshPeriod() == null ? Duration.ofSeconds(60) : props.getRefreshPeriod();
         Duration timeout = props.getTimeout() == null ? Duration.ZERO : props.getTimeout();
         return RateLimiterConfig.custom()
-                .limitRefreshPeriod(refresh)
+                .limitRefreshPeriod(refreshPeriod())
                 .limitForPeriod(props.getLimitForPeriod())
                 .timeoutDuration(timeout)
                 .build();
     }
 
-    private RateLimiter getLimiter(String key) {
+    /** The client's bucket, or null if it is not a heavy hitter (yet). */
+    RateLimiter limiter(String key) {
         synchronized (perClient) {
-            RateLimiter limiter = perClient.get(key);
-            if (limiter != null) {
-                return limiter;
+            return perClient.get(key);
+        }
+    }
+
+    /**
+     * Counts {@code tokens} spent by {@code key} and takes them from its bucket, less {@code prepaid}; the bucket is
+     * created once the client is a heavy hitter. Returns the bucket, or null before that.
+     */
+    RateLimiter charge(String key, int tokens, int prepaid) {
+        HeavyHitterSketch.Entry seen = heavyHitters.offer(key, tokens);
+        RateLimiter limiter;
+        synchronized (perClient) {
+            limiter = perClient.get(key);
+            if (limiter == null) {
+                if (tokens <= 0 || seen.guaranteed() < props.getHeavyHitterThreshold()) {
+                    return null;
+                }
+                limiter = RateLimiter.of("inbound-" + key, config());
+                // what it spent to become a heavy hitter counts against its first period
+                take(limiter, (int) Math.min(seen.guaranteed() - tokens, props.getLimitForPeriod()));
+                perClient.put(key, limiter);
+                evictOldestUntil(props.getMaxClients());
             }
-            limiter = RateLimiter.of("inbound-" + key, config());
-            perClient.put(key, limiter);
-            evictOldestUntil(props.getMaxClients());
-            return limiter;
+        }
+        take(limiter, tokens - prepaid);
+        return limiter;
+    }
+
+    /**
+     * Takes {@code tokens} without waiting: from the next periods if they arrive within the timeout, otherwise the
+     * bucket is emptied instead.
+     */
+    private static void take(RateLimiter limiter, int tokens) {
+        if (tokens > 0 && limiter.reservePermission(tokens) < 0) {
+            limiter.drainPermissions();
         }
     }
 
@@ -0,0 +1,62 @@
+package com.atypon.web;
+
+import com.atypon.config.CacheProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Guards the replica-to-replica endpoints under {@value #PREFIX}: each request must send {@code Authorization: Bearer
+ * <cache.peers.token>}, so only other replicas can make this one fetch upstream. Without a configured token they are
+ * refused, like {@link AdminEndpointAccessFilter}.
+ *
+ * <p>An admitted peer lookup runs under a {@link RequestDeadline} of {@code cache.peers.timeout}: the asking replica
+ * stops waiting after that and fetches upstream itself, so work past it is wasted.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+public class PeerAccessFilter extends OncePerRequestFilter {
+
+    public static final String PREFIX = "/internal/peers/";
+
+    private static final Rejection UNAUTHORIZED = new Rejection(HttpStatus.UNAUTHORIZED.value(),
+            MediaType.APPLICATION_JSON_VALUE, "{\"error\":\"Unauthorized\"}", HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+
+    private final CacheProperties.Peers peers;
+
+    public PeerAccessFilter(CacheProperties props) {
+        this.peers = props.getPeers();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String lookupPath = RequestPaths.lookupPath(request);
+        return lookupPath == null || !lookupPath.startsWith(PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!BearerToken.matches(peers.getToken(), request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            UNAUTHORIZED.write(response);
+            return;
+        }
+        RequestDeadline.begin(peers.getTimeout());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.end();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.atypon.web;
+
+import com.atypon.config.ProfilingProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Guards {@code /actuator/profiling}: 404 while {@code profiling.enabled} is off, otherwise every request must send
+ * {@code Authorization: Bearer <profiling.token>}. A recording exposes class names and stack traces and holds a
+ * request thread for its whole length, so it is never open like the read-only actuator endpoints.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class ProfilingAccessFilter extends OncePerRequestFilter {
+
+    private static final Rejection NOT_FOUND = new Rejection(HttpStatus.NOT_FOUND.value(),
+            MediaType.APPLICATION_JSON_VALUE, "{\"error\":\"Not found\"}");
+    private static final Rejection UNAUTHORIZED = new Rejection(HttpStatus.UNAUTHORIZED.value(),
+            MediaType.APPLICATION_JSON_VALUE, "{\"error\":\"Unauthorized\"}", HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+
+    private final ProfilingProperties props;
+    private final String path;
+
+    public ProfilingAccessFilter(ProfilingProperties props, WebEndpointProperties endpoints) {
+        this.props = props;
+        String base = endpoints.getBasePath() == null ? "" : endpoints.getBasePath();
+        this.path = (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + "/profiling";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String lookupPath = RequestPaths.lookupPath(request);
+        return lookupPath == null || !RequestPaths.isAtOrUnder(lookupPath, path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!props.isEnabled()) {
+            NOT_FOUND.write(response);
+            return;
+        }
+        if (!authorized(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            UNAUTHORIZED.write(response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    boolean authorized(String authorization) {
+        return BearerToken.matches(props.getToken(), authorization);
+    }
+}
@@ -0,0 +1,48 @@
+package com.atypon.web;
+
+/**
+ * What one API request cost, in Spoonacular quota points, for {@link InboundRateLimitFilter} to charge the client's
+ * token bucket. Started by the filter and bound to the request thread.
+ *
+ * <p>Outbound calls add the points Spoonacular reports for them ({@code X-API-Quota-Request}); a handler whose cost
+ * is known another way (e.g. per item of a batch) adds it with {@link #add(double)}. A request served from the
+ * cache adds nothing and is charged {@code rate-limits.inbound.min-cost}. As with {@link RequestTiming}, work done
+ * on other threads (prefetch, a single-flight leader fetching for this request) is not attributed.</p>
+ */
+public final class RequestCost {
+
+    private static final ThreadLocal<RequestCost> CURRENT = new ThreadLocal<>();
+
+    private double points;
+
+    private RequestCost() {
+    }
+
+    static RequestCost begin() {
+        RequestCost cost = new RequestCost();
+        CURRENT.set(cost);
+        return cost;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** Adds {@code points} to the request being handled on this thread, if any. */
+    public static void add(double points) {
+        RequestCost cost = CURRENT.get();
+        if (cost != null && points > 0) {
+            cost.points += points;
+        }
+    }
+
+    double points() {
+        return points;
+    }
+
+    /** Whole tokens to charge: the points rounded to the nearest token, at least {@code minCost}. */
+    int tokens(int minCost) {
+        long rounded = Math.round(points);
+        return (int) Math.max(minCost, Math.min(Integer.MAX_VALUE, rounded));
+    }
+}
@@ -0,0 +1,74 @@
+package com.atypon.web;
+
+import com.atypon.config.DeadlineProperties;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+/**
+ * The point in time by which the caller of an API request stops waiting, started by {@link RequestIdFilter} and
+ * bound to the request thread like the MDC request ID.
+ *
+ * <p>The budget comes from the {@code deadlines.header} request header (capped at {@code max-timeout}), else the
+ * path's entry in {@code deadlines.endpoints}, else {@code default-timeout}. Outbound calls read
+ * {@link #remainingMillis()} to size their timeouts and to decide whether a retry can still finish. Work done on
+ * other threads (prefetch, warm-up) has no deadline.</p>
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    static RequestDeadline begin(Duration budget) {
+        RequestDeadline deadline = new RequestDeadline(System.nanoTime() + budget.toNanos());
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** The deadline of the request being handled on this thread, or null. */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /** Milliseconds left for the current request (0 once passed), or {@link Long#MAX_VALUE} without a deadline. */
+    public static long remainingMillis() {
+        RequestDeadline deadline = CURRENT.get();
+        return deadline == null ? Long.MAX_VALUE : deadline.remainingMillisAt(System.nanoTime());
+    }
+
+    long remainingMillisAt(long nowNanos) {
+        return Math.max(0, (deadlineNanos - nowNanos) / 1_000_000);
+    }
+
+    /** The budget for a request: the caller's header value if valid, else the endpoint or global default. */
+    static Duration budget(DeadlineProperties props, String path, String headerValue) {
+        Duration requested = parse(headerValue);
+        if (requested != null && !requested.isNegative() && !requested.isZero()) {
+            Duration max = props.getMaxTimeout();
+            return max != null && requested.compareTo(max) > 0 ? max : requested;
+        }
+        Duration endpoint = path == null ? null : props.getEndpoints().get(path);
+        return endpoint != null ? endpoint : props.getDefaultTimeout();
+    }
+
+    private static Duration parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String v = value.trim();
+        try {
+            return v.chars().allMatch(Character::isDigit) ? Duration.ofMillis(Long.parseLong(v)) : DurationStyle.SIMPLE.parse(v);
+        } catch (RuntimeException e) {
+            return null; // malformed: fall back to the configured budget
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.atypon.web;
 
+import com.atypon.config.DeadlineProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,14 +14,52 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Outermost filter: assigns the request ID (kept from {@code X-Request-Id} if the client sent one) and, for
+ * {@code /api/} requests, starts the {@link RequestTiming} that the rest of the chain reports stages into and the
+ * {@link RequestDeadline} that outbound calls fit into.
+ *
+ * <p>Generated IDs are a random per-process prefix plus a counter ({@code 3f9k2a1x-1b}), which is unique enough to
+ * correlate logs across replicas and, unlike {@code UUID.randomUUID()}, does not serialize request threads on
+ * {@code SecureRandom}.</p>
+ *
+ * <p>Metrics: {@code http.server.stage{stage}} histograms of the per-stage self times; stages that did not
+ * happen for a request (e.g. no upstream call on a cache hit) are not recorded for it.</p>
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class RequestIdFilter extends OncePerRequestFilter {
 
     public static final String HEADER = "X-Request-Id";
     public static final String MDC_KEY = "requestId";
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private static final String ID_PREFIX = Long.toString(ThreadLocalRandom.current().nextLong(1L << 40, 1L << 41), 36) + "-";
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+    private final DeadlineProperties deadlines;
+    private final Map<RequestTiming.Stage, Timer> stageTimers = new EnumMap<>(RequestTiming.Stage.class);
+
+    public RequestIdFilter(DeadlineProperties deadlines, MeterRegistry meterRegistry) {
+        this.deadlines = deadlines;
+        for (RequestTiming.Stage stage : RequestTiming.Stage.values()) {
+            stageTimers.put(stage, Timer.builder("http.server.stage")
+                    .tag("stage", stage.tag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /** A new request ID; process-unique and increasing. */
+    public static String nextId() {
+        return ID_PREFIX + Long.toString(ID_SEQUENCE.incrementAndGet(), 36);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -26,15 +67,40 @@ public class RequestIdFilter extends OncePerRequestFilter {
 
         String requestId = request.getHeader(HEADER);
         if (requestId == null || requestId.isBlank()) {
-            requestId = UUID.randomUUID().toString();
+            requestId = nextId();
         }
 
         MDC.put(MDC_KEY, requestId);
         response.setHeader(HEADER, requestId);
+        String path = request.getRequestURI();
+        boolean api = path != null && path.startsWith("/api/");
+        RequestTiming timing = api ? RequestTiming.begin() : null;
+        if (api && deadlines.isEnabled()) {
+            RequestDeadline.begin(RequestDeadline.budget(deadlines, path, request.getHeader(deadlines.getHeader())));
+        }
         try {
             filterChain.doFilter(request, response);
         } finally {
             MDC.remove(MDC_KEY);
+            RequestDeadline.end();
+            if (timing != null) {
+                RequestTiming.end();
+                finish(timing, response);
+            }
+        }
+    }
+
+    private void finish(RequestTiming timing, HttpServletResponse response) {
+        long now = System.nanoTime();
+        // Bodiless responses (rejections written by filters, 204s) still get the header if nothing was flushed yet.
+        if (!response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+            response.setHeader(SERVER_TIMING, timing.serverTiming(now));
+        }
+        for (RequestTiming.Stage stage : RequestTiming.Stage.values()) {
+            long nanos = timing.nanos(stage, now);
+            if (nanos >= 0) {
+                stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+            }
         }
     }
 }
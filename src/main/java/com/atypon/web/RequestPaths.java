@@ -0,0 +1,25 @@
+package com.atypon.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+/** Path matching shared by the filters that guard endpoints. */
+final class RequestPaths {
+
+    private RequestPaths() {
+    }
+
+    /**
+     * The path Spring MVC routes on: decoded, {@code ;} parameters removed, {@code //} collapsed, without the context
+     * path. Guards must match on this, not the raw URI, or {@code /actuator/invalid%61tion} and
+     * {@code /actuator/invalidation;x=1} reach the endpoint unchecked.
+     */
+    static String lookupPath(HttpServletRequest request) {
+        return request.getRequestURI() == null ? null : UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    /** True if {@code path} is {@code prefix} or below it. */
+    static boolean isAtOrUnder(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+}
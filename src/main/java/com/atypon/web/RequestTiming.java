@@ -0,0 +1,154 @@
+package com.atypon.web;
+
+/**
+ * Stage timings of one API request, started by {@link RequestIdFilter} and bound to the request thread.
+ *
+ * <p>Marks are plain {@code System.nanoTime()} reads, and outbound and service time are summed per request. Each
+ * stage is reported as self time, so the stages add up to the total:</p>
+ * <ul>
+ *     <li>{@code filter}: servlet filters (rate limiting, admission, idempotency body capture) before and after the
+ *     handler</li>
+ *     <li>{@code controller}: handler time that was not spent in the service</li>
+ *     <li>{@code service}: {@code SpoonacularService} time that was not spent waiting for an upstream response</li>
+ *     <li>{@code upstream}: outbound HTTP calls made on this thread (Spoonacular or a peer)</li>
+ *     <li>{@code serialization}: writing the response body through the message converters</li>
+ * </ul>
+ *
+ * <p>Work done on other threads (prefetch, single-flight leaders serving another request) is not attributed.</p>
+ */
+public final class RequestTiming {
+
+    public enum Stage {
+        FILTER("filter"), CONTROLLER("controller"), SERVICE("service"), UPSTREAM("upstream"),
+        SERIALIZATION("serialization");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private long handlerStartNanos;
+    private long bodyWriteNanos;
+    private long handlerEndNanos;
+    private long serviceNanos;
+    private long upstreamNanos;
+
+    RequestTiming(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** The timing of the request being handled on this thread, or null. */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /** Adds the time since {@code startNanos} to the service stage of the current request, if any. */
+    public static void service(long startNanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.serviceNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    /** Adds {@code nanos} of outbound wait to the current request, if any. */
+    public static void upstream(long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.upstreamNanos += nanos;
+        }
+    }
+
+    void handlerStarted() {
+        handlerStartNanos = System.nanoTime();
+    }
+
+    /** Called for every body write; the last one (e.g. an error body after a failed write) counts. */
+    void bodyWriteStarted() {
+        bodyWriteNanos = System.nanoTime();
+    }
+
+    void handlerCompleted() {
+        handlerEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Self time of {@code stage} as of {@code nowNanos}; stages that have not finished yet count up to now.
+     * Returns -1 for a stage that did not happen (no handler, no upstream call, no body).
+     */
+    long nanos(Stage stage, long nowNanos) {
+        long handlerStart = handlerStartNanos;
+        long handlerEnd = handlerEndNanos != 0 ? handlerEndNanos : nowNanos;
+        long handlerBodyEnd = bodyWriteNanos != 0 ? bodyWriteNanos : handlerEnd;
+        switch (stage) {
+            case FILTER:
+                long handlerSpan = handlerStart == 0 ? 0 : handlerEnd - handlerStart;
+                return Math.max(0, nowNanos - startNanos - handlerSpan);
+            case CONTROLLER:
+                return handlerStart == 0 ? -1 : Math.max(0, handlerBodyEnd - handlerStart - serviceNanos);
+            case SERVICE:
+                return serviceNanos == 0 ? -1 : Math.max(0, serviceNanos - upstreamNanos);
+            case UPSTREAM:
+                return upstreamNanos == 0 ? -1 : upstreamNanos;
+            case SERIALIZATION:
+                return bodyWriteNanos == 0 ? -1 : Math.max(0, handlerEnd - bodyWriteNanos);
+            default:
+                throw new IllegalArgumentException(stage.name());
+        }
+    }
+
+    long totalNanos(long nowNanos) {
+        return nowNanos - startNanos;
+    }
+
+    /**
+     * A {@code Server-Timing} value as of {@code nowNanos}, e.g.
+     * {@code filter;dur=0.21, controller;dur=0.05, service;dur=0.31, upstream;dur=84.02, total;dur=84.61}.
+     * Serialization is left out because the header has to be sent before the body is written.
+     */
+    String serverTiming(long nowNanos) {
+        StringBuilder sb = new StringBuilder(96);
+        for (Stage stage : Stage.values()) {
+            if (stage == Stage.SERIALIZATION) {
+                continue;
+            }
+            long nanos = nanos(stage, nowNanos);
+            if (nanos >= 0) {
+                append(sb, stage.tag(), nanos);
+            }
+        }
+        append(sb, "total", totalNanos(nowNanos));
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String name, long nanos) {
+        if (sb.length() > 0) {
+            sb.append(", ");
+        }
+        long hundredths = nanos / 10_000; // milliseconds with two decimals, without String.format
+        long fraction = hundredths % 100;
+        sb.append(name).append(";dur=").append(hundredths / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+}
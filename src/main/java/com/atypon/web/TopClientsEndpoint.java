@@ -0,0 +1,56 @@
+package com.atypon.web;
+
+import com.atypon.config.InboundRateLimitProperties;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Who is consuming inbound capacity, without a time series per IP: {@code GET /actuator/topclients?limit=20} lists
+ * the heaviest clients from the rate limiter's sketch with their estimated request count (recent refresh periods),
+ * the possible over-estimate, and the tokens left if they have a bucket. The list holds client IPs, so it is behind
+ * the admin token ({@link AdminEndpointAccessFilter}).
+ */
+@Component
+@Endpoint(id = "topclients")
+public class TopClientsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final InboundRateLimitFilter filter;
+    private final InboundRateLimitProperties props;
+
+    public TopClientsEndpoint(InboundRateLimitFilter filter, InboundRateLimitProperties props) {
+        this.filter = filter;
+        this.props = props;
+    }
+
+    @ReadOperation
+    public Map<String, Object> topClients(@Nullable Integer limit) {
+        int n = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, props.getSketchCapacity());
+        List<Map<String, Object>> clients = new ArrayList<>();
+        for (HeavyHitterSketch.Entry e : filter.topClients(n)) {
+            Map<String, Object> client = new LinkedHashMap<>();
+            client.put("client", e.key());
+            client.put("requests", e.count());
+            client.put("error", e.error());
+            int tokens = filter.availablePermissions(e.key());
+            client.put("limited", tokens >= 0);
+            if (tokens >= 0) {
+                client.put("availableTokens", tokens);
+            }
+            clients.add(client);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("heavyHitterThreshold", props.getHeavyHitterThreshold());
+        result.put("limitForPeriod", props.getLimitForPeriod());
+        result.put("clients", clients);
+        return result;
+    }
+}
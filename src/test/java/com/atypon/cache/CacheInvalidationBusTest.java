@@ -0,0 +1,179 @@
+package com.atypon.cache;
+
+import com.atypon.AtyponFoodApiApplication;
+import com.atypon.config.CacheProperties;
+import com.atypon.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two replicas as two application contexts in this JVM, connected by the local transport.
+ */
+class CacheInvalidationBusTest {
+
+    private static final String CHANNEL = "test-" + UUID.randomUUID();
+
+    private static ConfigurableApplicationContext replicaA;
+    private static ConfigurableApplicationContext replicaB;
+
+    @BeforeAll
+    static void startReplicas() {
+        replicaA = start(CHANNEL, "a");
+        replicaB = start(CHANNEL, "b");
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        replicaA.close();
+        replicaB.close();
+    }
+
+    @BeforeEach
+    void fillReplicas() {
+        fill(replicaA);
+        fill(replicaB);
+    }
+
+    private static double count(ConfigurableApplicationContext replica, String name, String... tags) {
+        return replica.getBean(MeterRegistry.class).get(name).tags(tags).counter().count();
+    }
+
+    private static ConfigurableApplicationContext start(String channel, String nodeId) {
+        return new SpringApplicationBuilder(AtyponFoodApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--cache.invalidation.channel=" + channel,
+                        "--cache.invalidation.node-id=" + nodeId,
+                        "--cache.warmup.enabled=false",
+                        "--spring.main.banner-mode=off");
+    }
+
+    private static void fill(ConfigurableApplicationContext replica) {
+        RecipeCaches caches = replica.getBean(RecipeCaches.class);
+        RepresentationCache representations = replica.getBean(RepresentationCache.class);
+        Recipe recipe = new Recipe(42, "Minestrone", null, null);
+        caches.recipes().put(42, caches.compact(recipe));
+        representations.create(RepresentationCache.recipeKey(42), recipe, caches.recipes().expiresAtMillis(42));
+        caches.missingRecipes().add(43);
+        for (String q : List.of("pasta", "pasta bake", "soup")) {
+            SearchKey key = SearchKey.of(q, null);
+            caches.searches().put(key, List.of(recipe));
+            representations.create(RepresentationCache.searchKey(key), List.of(recipe),
+                    caches.searches().expiresAtMillis(key));
+        }
+    }
+
+    @Test
+    void evictRecipe_ShouldInvalidateEveryReplica() {
+        double sentBefore = count(replicaA, "cache.invalidation.published", "result", "sent");
+        double receivedByA = count(replicaA, "cache.invalidation.received");
+        double receivedByB = count(replicaB, "cache.invalidation.received");
+        long lagSamples = replicaB.getBean(MeterRegistry.class).get("cache.invalidation.lag").timer().count();
+
+        CacheInvalidationBus.Eviction eviction = replicaA.getBean(CacheInvalidationBus.class).evictRecipe(42);
+        replicaA.getBean(CacheInvalidationBus.class).evictRecipe(43);
+
+        assertEquals(1, eviction.recipes());
+        assertTrue(eviction.broadcast());
+        for (ConfigurableApplicationContext replica : List.of(replicaA, replicaB)) {
+            RecipeCaches caches = replica.getBean(RecipeCaches.class);
+            assertNull(caches.recipes().get(42));
+            assertNull(replica.getBean(RepresentationCache.class).get(RepresentationCache.recipeKey(42)));
+            assertFalse(caches.missingRecipes().contains(43));
+            assertEquals(3, caches.searches().size());
+        }
+
+        assertEquals(sentBefore + 2, count(replicaA, "cache.invalidation.published", "result", "sent"));
+        assertEquals(receivedByA, count(replicaA, "cache.invalidation.received"));
+        assertEquals(receivedByB + 2, count(replicaB, "cache.invalidation.received"));
+        assertEquals(lagSamples + 2,
+                replicaB.getBean(MeterRegistry.class).get("cache.invalidation.lag").timer().count());
+        assertTrue(replicaB.getBean(CacheInvalidationBus.class).lastLagMillis() >= 0);
+    }
+
+    @Test
+    void adminEndpoint_ShouldEvictSearchesByPatternOnEveryReplica() {
+        Map<String, Object> result = replicaB.getBean(CacheInvalidationEndpoint.class).invalidate(null, "Pasta*");
+
+        assertEquals(2, result.get("searches"));
+        assertEquals(true, result.get("broadcast"));
+        for (ConfigurableApplicationContext replica : List.of(replicaA, replicaB)) {
+            RecipeCaches caches = replica.getBean(RecipeCaches.class);
+            RepresentationCache representations = replica.getBean(RepresentationCache.class);
+            assertNull(caches.searches().get(SearchKey.of("pasta", null)));
+            assertNull(caches.searches().get(SearchKey.of("pasta bake", null)));
+            assertNull(representations.get(RepresentationCache.searchKey(SearchKey.of("pasta bake", null))));
+            assertNotNull(caches.searches().get(SearchKey.of("soup", null)));
+            assertNotNull(representations.get(RepresentationCache.searchKey(SearchKey.of("soup", null))));
+            assertNotNull(caches.recipes().get(42));
+        }
+    }
+
+    @Test
+    void closedReplica_ShouldNoLongerReceive() {
+        ConfigurableApplicationContext replicaC = start(CHANNEL, "c");
+        MeterRegistry metricsC = replicaC.getBean(MeterRegistry.class);
+        replicaC.close();
+        double receivedByB = count(replicaB, "cache.invalidation.received");
+
+        CacheInvalidationBus.Eviction eviction = replicaA.getBean(CacheInvalidationBus.class).evictRecipe(42);
+
+        assertTrue(eviction.broadcast());
+        assertEquals(receivedByB + 1, count(replicaB, "cache.invalidation.received"));
+        assertEquals(0.0, metricsC.get("cache.invalidation.received").counter().count());
+    }
+
+    @Test
+    void glob_ShouldTreatOnlyStarAsWildcard() {
+        assertTrue(CacheInvalidationBus.glob("pasta*").matcher("pasta bake").matches());
+        assertTrue(CacheInvalidationBus.glob("*bake").matcher("pasta bake").matches());
+        assertFalse(CacheInvalidationBus.glob("pasta").matcher("pasta bake").matches());
+        assertFalse(CacheInvalidationBus.glob("p.sta").matcher("pasta").matches());
+        assertTrue(CacheInvalidationBus.glob("*").matcher("").matches());
+    }
+
+    @Test
+    void evictRecipe_ShouldStillApplyLocallyWhenTransportFails() {
+        RecipeCaches caches = RecipeCaches.disabled();
+        InvalidationTransport broken = new InvalidationTransport() {
+            @Override
+            public void publish(CacheInvalidation invalidation) {
+                throw new IllegalStateException("broker down");
+            }
+
+            @Override
+            public Subscription subscribe(Consumer<CacheInvalidation> listener) {
+                return () -> { };
+            }
+        };
+        CacheProperties props = new CacheProperties();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheInvalidationBus bus = new CacheInvalidationBus(caches,
+                new RepresentationCache(props, new ObjectMapper(), registry),
+                broken, props, registry);
+
+        CacheInvalidationBus.Eviction eviction = bus.evictRecipe(1);
+
+        assertFalse(eviction.broadcast());
+        assertEquals(1.0, registry.get("cache.invalidation.published").tag("result", "failed").counter().count());
+    }
+}
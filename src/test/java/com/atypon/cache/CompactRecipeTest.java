@@ -0,0 +1,84 @@
+package com.atypon.cache;
+
+import com.atypon.model.Ingredient;
+import com.atypon.model.Nutrition;
+import com.atypon.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactRecipeTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void toRecipe_ShouldSerializeExactlyLikeTheOriginal() throws Exception {
+        List<Ingredient> ingredients = new ArrayList<>(Arrays.asList(
+                new Ingredient("flour", 250, "g", new Nutrition(910)),
+                null,
+                new Ingredient("salt", 0.5, "tsp", null),
+                new Ingredient(null, 2, null, new Nutrition(0))));
+        Recipe[] recipes = {
+                new Recipe(1, "Bread", ingredients, new Nutrition(1200)),
+                new Recipe(2, "Water", List.of(), null),
+                new Recipe(3, null, null, null),
+                new Recipe(4, "Plain", List.of(new Ingredient("rice", 1, "cup", null)), null)
+        };
+        for (Recipe original : recipes) {
+            CompactRecipe compact = CompactRecipe.of(original, new StringInterner(100));
+            assertEquals(mapper.writeValueAsString(original), mapper.writeValueAsString(compact.toRecipe()));
+            assertNotSame(compact.toRecipe(), compact.toRecipe());
+        }
+    }
+
+    @Test
+    void accessors_ShouldExposeIngredientsWithoutMaterializing() {
+        Recipe recipe = new Recipe(5, "Soup", Arrays.asList(new Ingredient("leek", 2, "", null), null), null);
+        CompactRecipe compact = CompactRecipe.of(recipe);
+
+        assertEquals(5, compact.id());
+        assertEquals(2, compact.ingredientCount());
+        assertTrue(compact.hasIngredient(0));
+        assertEquals("leek", compact.ingredientName(0));
+        assertEquals(2.0, compact.ingredientAmount(0));
+        assertFalse(compact.hasIngredient(1));
+        assertEquals(0, CompactRecipe.of(new Recipe(6, "x", null, null)).ingredientCount());
+    }
+
+    @Test
+    void namesAndUnits_ShouldBeSharedAcrossRecipes() {
+        StringInterner interner = new StringInterner(100);
+        // distinct String instances, as two JSON responses would produce
+        CompactRecipe a = CompactRecipe.of(new Recipe(1, "a",
+                List.of(new Ingredient(new String("butter"), 1, new String("tbsp"), null)), null), interner);
+        CompactRecipe b = CompactRecipe.of(new Recipe(2, "b",
+                List.of(new Ingredient(new String("butter"), 3, new String("tbsp"), null)), null), interner);
+
+        assertSame(a.ingredientName(0), b.ingredientName(0));
+        assertSame(a.toRecipe().getExtendedIngredients().get(0).getUnit(),
+                b.toRecipe().getExtendedIngredients().get(0).getUnit());
+        assertEquals(2, interner.size());
+    }
+
+    @Test
+    void interner_ShouldStopGrowingAtItsBound() {
+        StringInterner interner = new StringInterner(2);
+        interner.intern("a");
+        interner.intern("b");
+        String c = new String("c");
+
+        assertSame(c, interner.intern(c));
+        assertNotSame(c, interner.intern(new String("c")));
+        assertEquals(2, interner.size());
+        assertSame(interner.intern("a"), interner.intern(new String("a")));
+    }
+}
@@ -0,0 +1,49 @@
+package com.atypon.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> THREE = List.of("http://a:8091", "http://b:8091", "http://c:8091");
+
+    @Test
+    void owner_ShouldSpreadKeysEvenlyAndAgreeAcrossInstances() {
+        ConsistentHashRing ring = new ConsistentHashRing(THREE, 160);
+        ConsistentHashRing sameMembersOtherOrder = new ConsistentHashRing(
+                List.of("http://c:8091", "http://a:8091", "http://b:8091"), 160);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int id = 1; id <= 30_000; id++) {
+            String owner = ring.owner(id);
+            assertEquals(owner, sameMembersOtherOrder.owner(id));
+            counts.merge(owner, 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        counts.values().forEach(n -> assertTrue(n > 8_000 && n < 12_000, "unbalanced: " + counts));
+    }
+
+    @Test
+    void owner_ShouldOnlyMoveKeysOfAddedMember() {
+        ConsistentHashRing before = new ConsistentHashRing(THREE, 160);
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of("http://a:8091", "http://b:8091", "http://c:8091", "http://d:8091"), 160);
+
+        int moved = 0;
+        for (int id = 1; id <= 20_000; id++) {
+            String o1 = before.owner(id);
+            String o2 = after.owner(id);
+            if (!o1.equals(o2)) {
+                assertEquals("http://d:8091", o2);
+                moved++;
+            }
+        }
+        assertTrue(moved > 3_500 && moved < 6_500, "moved " + moved);
+    }
+}
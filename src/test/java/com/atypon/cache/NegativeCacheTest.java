@@ -0,0 +1,64 @@
+package com.atypon.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeCacheTest {
+
+    @Test
+    void contains_ShouldBeExactDespiteThePrefilter() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NegativeCache cache = new NegativeCache(Duration.ofMinutes(5), 20_000, 0.05, registry);
+        for (int id = 1; id <= 5_000; id++) {
+            cache.add(id * 2);
+        }
+
+        for (int id = 1; id <= 5_000; id++) {
+            assertTrue(cache.contains(id * 2));
+            assertFalse(cache.contains(id * 2 + 1));
+        }
+        assertEquals(5_000, cache.size());
+        assertEquals(5_000, registry.get("cache.negative.gets").tag("result", "hit").counter().count());
+        assertEquals(5_000, registry.get("cache.negative.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void add_ShouldForgetIdsAfterTtlAndOnInvalidate() {
+        long t0 = 1_000_000;
+        NegativeCache cache = new NegativeCache(Duration.ofMillis(100), 100, 0.01, new SimpleMeterRegistry(), t0);
+        cache.addAt(999, t0);
+        cache.addAt(Integer.MIN_VALUE, t0);
+        assertTrue(cache.containsAt(999, t0));
+        assertTrue(cache.containsAt(Integer.MIN_VALUE, t0));
+
+        cache.invalidate(Integer.MIN_VALUE);
+        assertFalse(cache.containsAt(Integer.MIN_VALUE, t0));
+
+        assertTrue(cache.containsAt(999, t0 + 60));    // rotated into the previous generation
+        assertTrue(cache.containsAt(999, t0 + 109));   // current generation started at t0 + 60
+        assertFalse(cache.containsAt(999, t0 + 120));  // a full TTL after it was added
+    }
+
+    @Test
+    void contains_ShouldDropAGenerationOlderThanTheTtlEvenWithoutTraffic() {
+        long t0 = 1_000_000;
+        NegativeCache cache = new NegativeCache(Duration.ofMillis(100), 100, 0.01, new SimpleMeterRegistry(), t0);
+        cache.addAt(7, t0);
+
+        assertFalse(cache.containsAt(7, t0 + 100));
+    }
+
+    @Test
+    void disabled_ShouldRememberNothing() {
+        NegativeCache cache = new NegativeCache(Duration.ofMinutes(5), 0, 0.01, new SimpleMeterRegistry());
+        cache.add(1);
+        assertFalse(cache.contains(1));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,126 @@
+package com.atypon.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapStoreTest {
+
+    private static final long LATER = Long.MAX_VALUE;
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) {
+            b[i] = (byte) (seed + i);
+        }
+        return b;
+    }
+
+    @Test
+    void put_ShouldRoundTripValuesSpanningSeveralBlocks() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OffHeapStore store = new OffHeapStore("test", 4096, 1024, 64, registry);
+
+        assertTrue(store.put(1, bytes(200, 1), LATER));
+        assertTrue(store.put(2, new byte[0], LATER));
+        assertTrue(store.put(3, bytes(64, 3), LATER));
+
+        assertArrayEquals(bytes(200, 1), store.get(1).bytes());
+        assertArrayEquals(new byte[0], store.get(2).bytes());
+        assertArrayEquals(bytes(64, 3), store.get(3).bytes());
+        assertNull(store.get(4));
+        assertEquals(3, store.size());
+        assertEquals((4 + 1 + 1) * 64, store.usedBytes());
+        assertEquals(1024, store.reservedBytes());
+        assertEquals(3, registry.get("cache.gets").tag("cache", "test").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "test").tag("result", "miss").counter().count());
+        assertEquals(384, registry.get("cache.offheap.bytes").tag("state", "used").gauge().value());
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedWhenFull() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OffHeapStore store = new OffHeapStore("test", 256, 256, 64, registry); // 4 blocks
+        store.put(1, bytes(100, 1), LATER);
+        store.put(2, bytes(100, 2), LATER);
+        store.get(1);
+
+        store.put(3, bytes(100, 3), LATER);
+
+        assertNull(store.get(2));
+        assertArrayEquals(bytes(100, 1), store.get(1).bytes());
+        assertArrayEquals(bytes(100, 3), store.get(3).bytes());
+        assertEquals(256, store.usedBytes());
+        assertEquals(256, store.reservedBytes());
+        assertEquals(1, registry.get("cache.evictions").tag("cache", "test").counter().count());
+        assertFalse(store.put(4, bytes(257, 4), LATER));
+    }
+
+    @Test
+    void put_ShouldReplaceAnExistingValueAndFreeItsBlocks() {
+        OffHeapStore store = new OffHeapStore("test", 1024, 1024, 64, new SimpleMeterRegistry());
+        store.put(1, bytes(300, 1), LATER);
+        store.put(1, bytes(10, 9), LATER);
+
+        assertArrayEquals(bytes(10, 9), store.get(1).bytes());
+        assertEquals(64, store.usedBytes());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void take_ShouldRemoveTheEntryAndExpiredEntriesShouldBeDropped() {
+        OffHeapStore store = new OffHeapStore("test", 1024, 1024, 64, new SimpleMeterRegistry());
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        store.put(1, bytes(80, 1), expiresAt);
+        store.put(2, bytes(80, 2), System.currentTimeMillis() - 1);
+
+        OffHeapStore.Value taken = store.take(1);
+        assertNotNull(taken);
+        assertArrayEquals(bytes(80, 1), taken.bytes());
+        assertEquals(expiresAt, taken.expiresAtMillis());
+        assertNull(store.get(1));
+
+        assertEquals(0, store.expiresAtMillis(2));
+        assertNull(store.get(2));
+        assertEquals(0, store.size());
+        assertEquals(0, store.usedBytes());
+    }
+
+    @Test
+    void disabledStore_ShouldStoreNothing() {
+        OffHeapStore store = new OffHeapStore("test", 0, 1024, 64, new SimpleMeterRegistry());
+
+        assertFalse(store.isEnabled());
+        assertFalse(store.put(1, bytes(10, 1), LATER));
+        assertNull(store.get(1));
+        assertEquals(0, store.reservedBytes());
+    }
+
+    @Test
+    void manyEntries_ShouldReuseFreedBlocksWithoutCorruption() {
+        OffHeapStore store = new OffHeapStore("test", 8192, 2048, 128, new SimpleMeterRegistry());
+        for (int key = 0; key < 1_000; key++) {
+            store.put(key, bytes(50 + key % 400, key), LATER);
+        }
+        int live = 0;
+        for (int key = 0; key < 1_000; key++) {
+            OffHeapStore.Value value = store.get(key);
+            if (value != null) {
+                live++;
+                assertTrue(Arrays.equals(bytes(50 + key % 400, key), value.bytes()), "key " + key);
+            }
+        }
+        assertEquals(store.size(), live);
+        assertTrue(live > 0);
+        assertTrue(store.usedBytes() <= store.reservedBytes());
+        assertEquals(8192, store.reservedBytes());
+    }
+}
@@ -0,0 +1,169 @@
+package com.atypon.cache;
+
+import com.atypon.model.Ingredient;
+import com.atypon.model.Nutrition;
+import com.atypon.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TieredRecipeCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StringInterner interner = new StringInterner(100);
+
+    private TieredRecipeCache cache(int l1Entries, long l2Bytes) {
+        OffHeapStore l2 = new OffHeapStore("recipes-offheap", l2Bytes, 64 * 1024, 128, registry);
+        return new TieredRecipeCache("recipes", Duration.ofHours(1), l1Entries, l2, interner, registry);
+    }
+
+    private CompactRecipe recipe(int id) {
+        return CompactRecipe.of(new Recipe(id, "Recipe " + id,
+                List.of(new Ingredient("flour", id, "g", new Nutrition(3.5 * id))), new Nutrition(100)), interner);
+    }
+
+    private double moves(String direction) {
+        return registry.get("cache.tier.moves").tag("direction", direction).counter().count();
+    }
+
+    @Test
+    void touchedEntries_ShouldStayInL1AndRankAsHot() {
+        TieredRecipeCache cache = cache(2, 1024 * 1024);
+        cache.put(1, recipe(1));
+        cache.put(2, recipe(2));
+
+        assertTrue(cache.l1().touch(1));
+        cache.put(3, recipe(3));
+
+        assertNotNull(cache.l1().peek(1));
+        assertNull(cache.l1().peek(2));
+        assertEquals(List.of(1), cache.hottest(1));
+        assertFalse(cache.l1().touch(2));
+        assertEquals(1, registry.get("cache.gets").tag("cache", "recipes").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void evictedEntries_ShouldBeDemotedAndPromotedBackOnAHit() throws Exception {
+        TieredRecipeCache cache = cache(2, 1024 * 1024);
+        cache.put(1, recipe(1));
+        long expiresAt = cache.expiresAtMillis(1);
+        cache.put(2, recipe(2));
+        cache.put(3, recipe(3));
+
+        assertEquals(2, cache.l1().size());
+        assertEquals(1, cache.l2().size());
+        assertEquals(3, cache.size());
+        assertEquals(expiresAt, cache.expiresAtMillis(1));
+        assertEquals(1, moves("demote"));
+
+        CompactRecipe promoted = cache.get(1);
+        assertNotNull(promoted);
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.writeValueAsString(recipe(1).toRecipe()), mapper.writeValueAsString(promoted.toRecipe()));
+        assertSame(interner.intern("flour"), promoted.ingredientName(0));
+        assertEquals(expiresAt, cache.l1().expiresAtMillis(1));
+        assertEquals(1, moves("promote"));
+        // promoting 1 pushed 2 out of L1 and into L2; every entry lives in exactly one tier
+        assertEquals(1, cache.l2().size());
+        assertEquals(3, cache.size());
+        assertNotNull(cache.get(2));
+        assertEquals(2, registry.get("cache.gets").tag("cache", "recipes-offheap").tag("result", "hit")
+                .counter().count());
+    }
+
+    @Test
+    void put_ShouldShadowAStaleCopyInL2() {
+        TieredRecipeCache cache = cache(1, 1024 * 1024);
+        cache.put(1, recipe(1));
+        cache.put(2, recipe(2)); // demotes 1
+
+        CompactRecipe fresh = CompactRecipe.of(new Recipe(1, "Updated", null, null));
+        cache.put(1, fresh);
+
+        assertEquals(1, cache.l2().size()); // 2, demoted by the new put; the stale copy of 1 is gone
+        assertSame(fresh, cache.get(1));
+        assertEquals("Updated", cache.get(1).title());
+    }
+
+    @Test
+    void invalidate_ShouldRemoveFromBothTiers() {
+        TieredRecipeCache cache = cache(1, 1024 * 1024);
+        cache.put(1, recipe(1));
+        cache.put(2, recipe(2));
+
+        assertTrue(cache.invalidate(1));
+        assertTrue(cache.invalidate(2));
+        assertFalse(cache.invalidate(3));
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.l2().usedBytes());
+    }
+
+    @Test
+    void invalidate_ShouldNotBeUndoneByADemotionInFlight() throws Exception {
+        AtomicReference<TieredRecipeCache> ref = new AtomicReference<>();
+        AtomicReference<Thread> invalidator = new AtomicReference<>();
+        OffHeapStore l2 = new OffHeapStore("recipes-offheap", 1024 * 1024, 64 * 1024, 128, registry) {
+            @Override
+            public boolean put(int key, byte[] bytes, long expiresAtMillis) {
+                // a cluster invalidation of the entry being demoted arrives before it reaches L2
+                Thread t = new Thread(() -> ref.get().invalidate(key));
+                invalidator.set(t);
+                t.start();
+                try {
+                    t.join(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.put(key, bytes, expiresAtMillis);
+            }
+        };
+        TieredRecipeCache cache = new TieredRecipeCache("recipes", Duration.ofHours(1), 1, l2, interner, registry);
+        ref.set(cache);
+        cache.put(1, recipe(1));
+
+        cache.put(2, recipe(2)); // demotes 1
+        invalidator.get().join();
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.l2().size());
+    }
+
+    @Test
+    void withoutL2_ShouldBehaveLikeTheSingleTierCache() {
+        TieredRecipeCache cache = cache(1, 0);
+        cache.put(1, recipe(1));
+        cache.put(2, recipe(2));
+
+        assertNull(cache.get(1));
+        assertNotNull(cache.get(2));
+        assertEquals(1, cache.size());
+        assertEquals(0, moves("demote"));
+    }
+
+    @Test
+    void binaryForm_ShouldPreserveNullsAndMissingNutrition() throws Exception {
+        Recipe original = new Recipe(7, null, Arrays.asList(
+                new Ingredient("crème fraîche", 0.25, null, null), null, new Ingredient(null, 2, "", new Nutrition(0))),
+                null);
+        ObjectMapper mapper = new ObjectMapper();
+        for (Recipe recipe : List.of(original, new Recipe(8, "empty", null, new Nutrition(1)),
+                new Recipe(9, "none", List.of(), null))) {
+            CompactRecipe decoded = CompactRecipe.fromBytes(CompactRecipe.of(recipe).toBytes(), interner);
+            assertEquals(mapper.writeValueAsString(recipe), mapper.writeValueAsString(decoded.toRecipe()));
+        }
+    }
+}
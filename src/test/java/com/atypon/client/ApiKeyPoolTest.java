@@ -0,0 +1,134 @@
+package com.atypon.client;
+
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.exception.RateLimitExceededException;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiKeyPoolTest {
+
+    private static final long NOW = Instant.parse("2026-03-01T18:00:00Z").toEpochMilli();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SpoonacularQuota quota = new SpoonacularQuota(registry);
+    private final RateLimiterRegistry rateLimiters = RateLimiterRegistry.ofDefaults();
+
+    private ApiKeyPool pool(double weightA, double weightB) {
+        SpoonacularConfig config = new SpoonacularConfig();
+        config.setApiKeys(List.of(key("a", "secret-a", weightA), key("b", "secret-b", weightB)));
+        return new ApiKeyPool(config, quota, rateLimiters, registry);
+    }
+
+    private static SpoonacularConfig.ApiKey key(String name, String value, double weight) {
+        SpoonacularConfig.ApiKey key = new SpoonacularConfig.ApiKey();
+        key.setName(name);
+        key.setKey(value);
+        key.setWeight(weight);
+        return key;
+    }
+
+    private static HttpHeaders quotaHeaders(double used, double left) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SpoonacularQuota.HEADER_USED, String.valueOf(used));
+        headers.set(SpoonacularQuota.HEADER_LEFT, String.valueOf(left));
+        return headers;
+    }
+
+    @Test
+    void acquire_ShouldSpreadCallsEvenlyUntilUpstreamReportsUsage() {
+        ApiKeyPool pool = pool(1, 1);
+
+        List<String> picked = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            picked.add(pool.acquireAt(NOW).name());
+        }
+
+        assertEquals(List.of("a", "b", "a", "b"), picked);
+        assertEquals(2.0, registry.get("spoonacular.key.calls").tag("key", "a").counter().count());
+    }
+
+    @Test
+    void acquire_ShouldPickTheKeyWithFewestPointsUsedPerWeight() {
+        ApiKeyPool pool = pool(1, 2);
+        quota.update("a", quotaHeaders(10, 140));
+        quota.update("b", quotaHeaders(15, 1485));
+
+        assertEquals("b", pool.acquireAt(NOW).name()); // 15 / 2 < 10 / 1
+
+        quota.update("b", quotaHeaders(30, 1470));
+        assertEquals("a", pool.acquireAt(NOW).name());
+        assertEquals(0.02, registry.get("spoonacular.key.utilization").tag("key", "b").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void acquire_ShouldSkipRateLimitedKeysAndRejectWhenAllAreLimited() {
+        rateLimiters.addConfiguration(ApiKeyPool.LIMITER_CONFIG, RateLimiterConfig.custom()
+                .limitForPeriod(1)
+                .limitRefreshPeriod(Duration.ofHours(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        ApiKeyPool pool = pool(1, 1);
+        quota.update("b", quotaHeaders(50, 100));
+
+        assertEquals("a", pool.acquireAt(NOW).name());
+        assertEquals("b", pool.acquireAt(NOW).name()); // more used, but the only one with a permission left
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> pool.acquireAt(NOW));
+        assertEquals(Duration.ofHours(1), e.getRetryAfter());
+        assertFalse(pool.hasCapacityAt(NOW));
+    }
+
+    @Test
+    void onResponse_ShouldTakeExhaustedKeyOutUntilTheDailyReset() {
+        ApiKeyPool pool = pool(1, 1);
+        long reset = Instant.parse("2026-03-02T00:00:00Z").toEpochMilli();
+
+        pool.onResponseAt("a", 402, new HttpHeaders(), NOW);
+        pool.onResponseAt("b", 200, quotaHeaders(150, 0), NOW);
+
+        assertEquals(0, pool.healthyAt(NOW));
+        assertFalse(pool.hasCapacityAt(NOW));
+        assertTrue(pool.hasCapacityAt(reset));
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> pool.acquireAt(NOW));
+        assertEquals(Duration.ofMillis(reset - NOW), e.getRetryAfter());
+        assertEquals("a", pool.acquireAt(reset).name());
+    }
+
+    @Test
+    void onResponse_ShouldTakeRateLimitedKeyOutForRetryAfter() {
+        ApiKeyPool pool = pool(1, 1);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "5");
+
+        pool.onResponseAt("a", 429, headers, NOW);
+
+        assertEquals("b", pool.acquireAt(NOW).name());
+        assertEquals("b", pool.acquireAt(NOW + 4_999).name());
+        assertEquals("a", pool.acquireAt(NOW + 5_000).name());
+    }
+
+    @Test
+    void nameOf_ShouldMapTheApiKeyParameterWithoutExposingIt() {
+        ApiKeyPool pool = pool(1, 1);
+
+        assertEquals("b", pool.nameOf(URI.create("https://x/recipes/complexSearch?query=pasta&apiKey=secret-b&number=1")));
+        assertEquals("a", pool.nameOf(URI.create("https://x/recipes/1/information?apiKey=secret-a")));
+        assertNull(pool.nameOf(URI.create("https://x/recipes/1/information?apiKey=other")));
+        assertNull(pool.nameOf(URI.create("https://x/recipes/1/information")));
+    }
+}
@@ -0,0 +1,74 @@
+package com.atypon.client;
+
+import com.atypon.config.HttpClientProperties;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.config.SpoonacularHealthProperties;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundRequestInterceptorTest {
+
+    private static ApiKeyPool keys(SpoonacularQuota quota) {
+        return new ApiKeyPool(new SpoonacularConfig(), quota, RateLimiterRegistry.ofDefaults(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void intercept_ShouldTagPathWithUriTemplate() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SpoonacularQuota quota = new SpoonacularQuota(new SimpleMeterRegistry());
+        OutboundRequestInterceptor interceptor = new OutboundRequestInterceptor(registry, new HttpClientProperties(),
+                new OutboundTrafficStats(new SpoonacularHealthProperties()), quota, keys(quota));
+
+        for (int id = 1; id <= 50; id++) {
+            MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                    URI.create("https://api.spoonacular.com/recipes/" + id + "/information?includeNutrition=true"));
+            interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+        }
+
+        assertEquals(1, registry.find(OutboundRequestInterceptor.METRIC).timers().size());
+        Timer timer = registry.find(OutboundRequestInterceptor.METRIC).tag("path", "/recipes/{id}/information").timer();
+        assertNotNull(timer);
+        assertEquals(50, timer.count());
+    }
+
+    @Test
+    void intercept_ShouldTrackQuotaHeaders() throws Exception {
+        SpoonacularQuota quota = new SpoonacularQuota(new SimpleMeterRegistry());
+        OutboundRequestInterceptor interceptor = new OutboundRequestInterceptor(new SimpleMeterRegistry(),
+                new HttpClientProperties(), new OutboundTrafficStats(new SpoonacularHealthProperties()), quota, keys(quota));
+
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("https://api.spoonacular.com/recipes/complexSearch?query=pasta"));
+        interceptor.intercept(request, new byte[0], (req, body) -> {
+            MockClientHttpResponse response = new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+            response.getHeaders().set(SpoonacularQuota.HEADER_LEFT, "42.5");
+            response.getHeaders().set(SpoonacularQuota.HEADER_USED, "107.5");
+            return response;
+        });
+
+        assertEquals(42.5, quota.left());
+        assertEquals(107.5, quota.used());
+        assertTrue(quota.isBelow(50));
+    }
+
+    @Test
+    void resolve_ShouldFallBackToNumericNormalization() {
+        UriTemplateResolver resolver = new UriTemplateResolver(java.util.List.of("/recipes/complexSearch"));
+
+        assertEquals("/recipes/complexSearch", resolver.resolve("/recipes/complexSearch"));
+        assertEquals("/food/products/{id}", resolver.resolve("/food/products/22347"));
+        assertEquals(UriTemplateResolver.UNKNOWN, resolver.resolve("/recipes/a1b2c3"));
+    }
+}
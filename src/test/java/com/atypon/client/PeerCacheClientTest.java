@@ -0,0 +1,159 @@
+package com.atypon.client;
+
+import com.atypon.AtyponFoodApiApplication;
+import com.atypon.cache.RecipeCaches;
+import com.atypon.service.SpoonacularService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Two replicas in peer mode against a stub Spoonacular: each recipe is fetched upstream once for the cluster.
+ */
+class PeerCacheClientTest {
+
+    private static final String TOKEN = "peer-secret";
+    private static final Pattern RECIPE_PATH = Pattern.compile("/recipes/(\\d+)/information");
+
+    private static final Map<Integer, AtomicInteger> upstreamCalls = new ConcurrentHashMap<>();
+    private static HttpServer upstream;
+    private static ConfigurableApplicationContext replicaA;
+    private static ConfigurableApplicationContext replicaB;
+    private static String urlA;
+    private static String urlB;
+
+    @BeforeAll
+    static void start() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/recipes/", exchange -> {
+            Matcher m = RECIPE_PATH.matcher(exchange.getRequestURI().getPath());
+            int id = m.matches() ? Integer.parseInt(m.group(1)) : -1;
+            upstreamCalls.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+            boolean found = id > 0 && id < 900_000;
+            byte[] body = (found ? "{\"id\":" + id + ",\"title\":\"Recipe " + id + "\"}" : "{}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(found ? 200 : 404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+        String upstreamUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+
+        int portA = freePort();
+        int portB = freePort();
+        urlA = "http://127.0.0.1:" + portA;
+        urlB = "http://127.0.0.1:" + portB;
+        replicaA = startReplica(portA, urlA, upstreamUrl);
+        replicaB = startReplica(portB, urlB, upstreamUrl);
+    }
+
+    @AfterAll
+    static void stop() {
+        replicaA.close();
+        replicaB.close();
+        upstream.stop(0);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static ConfigurableApplicationContext startReplica(int port, String self, String upstreamUrl) {
+        return new SpringApplicationBuilder(AtyponFoodApiApplication.class)
+                .run(
+                        "--server.port=" + port,
+                        "--spoonacular.base-url=" + upstreamUrl,
+                        "--spoonacular.api-key=test",
+                        "--cache.warmup.enabled=false",
+                        "--cache.peers.enabled=true",
+                        "--cache.peers.self=" + self,
+                        "--cache.peers.members=" + urlA + "," + urlB,
+                        "--cache.peers.token=" + TOKEN,
+                        "--cache.peers.hot-replica-sample-rate=0",
+                        "--spring.main.banner-mode=off");
+    }
+
+    private static int ownedBy(ConfigurableApplicationContext owner, int from) {
+        PeerCacheClient peers = owner.getBean(PeerCacheClient.class);
+        int id = from;
+        while (peers.isRemote(id)) {
+            id++;
+        }
+        return id;
+    }
+
+    @Test
+    void getRecipeInfo_ShouldFetchUpstreamOncePerClusterAndCacheOnlyOnOwner() {
+        int id = ownedBy(replicaA, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Recipe " + id, replicaB.getBean(SpoonacularService.class).getRecipeInfo(id).getTitle());
+            assertEquals("Recipe " + id, replicaA.getBean(SpoonacularService.class).getRecipeInfo(id).getTitle());
+        }
+
+        assertEquals(1, upstreamCalls.get(id).get());
+        assertNotNull(replicaA.getBean(RecipeCaches.class).recipes().get(id));
+        assertNull(replicaB.getBean(RecipeCaches.class).recipes().get(id));
+        assertEquals(3.0, replicaB.getBean(MeterRegistry.class)
+                .get("cache.peer.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void getRecipeInfo_ShouldPropagateMissingRecipeFromOwner() {
+        int id = ownedBy(replicaB, 900_000);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> replicaA.getBean(SpoonacularService.class).getRecipeInfo(id));
+        }
+
+        assertEquals(1, upstreamCalls.get(id).get());
+    }
+
+    @Test
+    void ring_ShouldBeIdenticalOnBothReplicas() {
+        PeerCacheClient a = replicaA.getBean(PeerCacheClient.class);
+        PeerCacheClient b = replicaB.getBean(PeerCacheClient.class);
+        for (int id : List.of(1, 2, 3, 716429, 1_000_000)) {
+            assertEquals(a.isRemote(id), !b.isRemote(id));
+        }
+    }
+
+    @Test
+    void peerEndpoint_ShouldRefuseCallersWithoutTheToken() {
+        int id = ownedBy(replicaA, 2000);
+        RestTemplate anonymous = new RestTemplate();
+
+        HttpClientErrorException e = assertThrows(HttpClientErrorException.Unauthorized.class,
+                () -> anonymous.getForEntity(urlA + PeerCacheClient.PEER_PATH + id, String.class));
+
+        assertEquals(401, e.getStatusCode().value());
+        assertNull(upstreamCalls.get(id));
+    }
+}
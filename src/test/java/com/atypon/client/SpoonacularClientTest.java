@@ -0,0 +1,166 @@
+package com.atypon.client;
+
+import com.atypon.config.DeadlineProperties;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.model.Recipe;
+import com.atypon.monitoring.AlertService;
+import com.atypon.web.RequestIdFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SpoonacularClientTest {
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final AlertService alerts = mock(AlertService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DeadlineProperties deadlines = new DeadlineProperties();
+
+    private SpoonacularClient client() {
+        SpoonacularConfig config = new SpoonacularConfig();
+        config.setBaseUrl("https://api.spoonacular.test");
+        config.setApiKey("key");
+        RetryConfig retry = RetryConfig.custom()
+                .maxAttempts(4)
+                .waitDuration(Duration.ofMillis(100))
+                .retryExceptions(HttpServerErrorException.class)
+                .build();
+        ApiKeyPool keys = new ApiKeyPool(config, new SpoonacularQuota(registry), RateLimiterRegistry.ofDefaults(), registry);
+        return new SpoonacularClient(restTemplate, config, new ObjectMapper(), alerts, keys, BulkheadRegistry.ofDefaults(),
+                RetryRegistry.of(retry), deadlines, registry);
+    }
+
+    private void whenRecipeInfo(Object... outcomes) {
+        var stub = when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)));
+        for (Object outcome : outcomes) {
+            stub = outcome instanceof RuntimeException e ? stub.thenThrow(e) : stub.thenReturn(ok());
+        }
+    }
+
+    private static ResponseEntity<Recipe> ok() {
+        return ResponseEntity.ok(new Recipe(1, "Soup", null, null));
+    }
+
+    private static HttpServerErrorException unavailable() {
+        return HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, null, null);
+    }
+
+    /** Runs {@code call} inside an API request with the given {@code X-Request-Timeout}. */
+    private void withinRequest(String timeout, FilterChain call) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/recipe-info");
+        if (timeout != null) {
+            request.addHeader("X-Request-Timeout", timeout);
+        }
+        new RequestIdFilter(deadlines, registry).doFilter(request, new MockHttpServletResponse(), call);
+    }
+
+    @Test
+    void recipeInfo_ShouldRetryServerErrorsWhenTheDeadlineAllows() throws Exception {
+        whenRecipeInfo(unavailable(), unavailable(), "ok");
+        SpoonacularClient client = client();
+
+        AtomicReference<ResponseEntity<Recipe>> result = new AtomicReference<>();
+        withinRequest("5s", (req, res) -> result.set(client.recipeInfo(1)));
+
+        assertEquals("Soup", result.get().getBody().getTitle());
+        verify(restTemplate, times(3)).exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class));
+        assertEquals(2, registry.get("spoonacular.retries").tag("result", "retried").counter().count());
+        verify(alerts, never()).alert(any(), any(), any());
+    }
+
+    @Test
+    void recipeInfo_ShouldSkipRetriesThatCannotFinishBeforeTheDeadline() throws Exception {
+        whenRecipeInfo(unavailable(), "ok");
+        SpoonacularClient client = client();
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        long start = System.nanoTime();
+        withinRequest("150", (req, res) -> {
+            try {
+                client.recipeInfo(1);
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+
+        assertInstanceOf(HttpServerErrorException.class, failure.get());
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos(), "must not sleep for the backoff");
+        verify(restTemplate, times(1)).exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class));
+        assertEquals(1, registry.get("spoonacular.retries").tag("result", "skipped_deadline").counter().count());
+        verify(alerts).alert(eq("spoonacular.recipeInfo.failed"), any(), any());
+    }
+
+    @Test
+    void recipeInfo_ShouldNotCallUpstreamOnceTheDeadlineHasPassed() throws Exception {
+        deadlines.setEndpoints(Map.of("/api/recipes/recipe-info", Duration.ofMillis(1)));
+        SpoonacularClient client = client();
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        withinRequest(null, (req, res) -> {
+            try {
+                Thread.sleep(5);
+                client.recipeInfo(1);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+
+        assertInstanceOf(DeadlineExceededException.class, failure.get());
+        verify(restTemplate, never()).exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class));
+        verify(alerts, never()).alert(any(), any(), any());
+    }
+
+    @Test
+    void requestFactory_ShouldCutTimeoutsToTheRemainingBudget() throws Exception {
+        DeadlineAwareRequestFactory factory = new DeadlineAwareRequestFactory();
+        factory.setConnectTimeout(2_000);
+        factory.setReadTimeout(4_000);
+        HttpURLConnection outside = (HttpURLConnection) URI.create("http://localhost:1/").toURL().openConnection();
+        factory.prepareConnection(outside, "GET");
+        assertEquals(4_000, outside.getReadTimeout());
+
+        AtomicReference<HttpURLConnection> inside = new AtomicReference<>();
+        withinRequest("500ms", (req, res) -> {
+            try {
+                HttpURLConnection c = (HttpURLConnection) URI.create("http://localhost:1/").toURL().openConnection();
+                factory.prepareConnection(c, "GET");
+                inside.set(c);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(inside.get().getReadTimeout() <= 500 && inside.get().getReadTimeout() > 0);
+        assertTrue(inside.get().getConnectTimeout() <= 500 && inside.get().getConnectTimeout() > 0);
+    }
+}
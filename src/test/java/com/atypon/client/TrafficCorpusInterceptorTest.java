@@ -0,0 +1,124 @@
+package com.atypon.client;
+
+import com.atypon.config.HttpClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TrafficCorpusInterceptorTest {
+
+    private static final String SECRET = "s3cr3t-api-key";
+    private static final String RECIPE_JSON = "{\"id\":716429,\"title\":\"Pasta with Garlic\"}";
+
+    @TempDir
+    Path dir;
+
+    private TrafficCorpusInterceptor interceptor(HttpClientProperties.Corpus.Mode mode, Path file) throws Exception {
+        HttpClientProperties props = new HttpClientProperties();
+        props.getCorpus().setMode(mode);
+        props.getCorpus().setFile(file.toString());
+        return new TrafficCorpusInterceptor(props, new SimpleMeterRegistry());
+    }
+
+    private static MockClientHttpRequest get(String uri) {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create(uri));
+    }
+
+    private static String body(ClientHttpResponse response) throws Exception {
+        return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void recordThenReplay_ShouldServeScrubbedCorpusWithRecordedLatency() throws Exception {
+        Path file = dir.resolve("spoonacular.corpus");
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        ClientHttpRequestExecution upstream = (request, body) -> {
+            upstreamCalls.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(60));
+            MockClientHttpResponse response = new MockClientHttpResponse(RECIPE_JSON.getBytes(StandardCharsets.UTF_8),
+                    HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response;
+        };
+
+        try (TrafficCorpusInterceptor recorder = interceptor(HttpClientProperties.Corpus.Mode.RECORD, file)) {
+            ClientHttpResponse live = recorder.intercept(
+                    get("https://api.spoonacular.com/recipes/716429/information?includeNutrition=true&apiKey=" + SECRET),
+                    new byte[0], upstream);
+            assertEquals(RECIPE_JSON, body(live));
+        }
+        assertTrue(Files.exists(file));
+        assertFalse(decompressed(file).contains(SECRET), "API key must not be written to the corpus");
+
+        TrafficCorpusInterceptor replayer = interceptor(HttpClientProperties.Corpus.Mode.REPLAY, file);
+        ClientHttpRequestExecution offline = (request, body) -> fail("replay must not call upstream");
+        long start = System.nanoTime();
+        // a different key and parameter order still match the recorded request
+        ClientHttpResponse replayed = replayer.intercept(
+                get("https://api.spoonacular.com/recipes/716429/information?apiKey=other&includeNutrition=true"),
+                new byte[0], offline);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(HttpStatus.OK, replayed.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, replayed.getHeaders().getContentType());
+        assertEquals(RECIPE_JSON, body(replayed));
+        assertTrue(elapsedMillis >= 50, "recorded latency should be replayed, took " + elapsedMillis + " ms");
+        assertEquals(1, upstreamCalls.get());
+
+        ClientHttpResponse miss = replayer.intercept(
+                get("https://api.spoonacular.com/recipes/1/information?includeNutrition=true"), new byte[0], offline);
+        assertEquals(HttpStatus.NOT_FOUND, miss.getStatusCode());
+    }
+
+    @Test
+    void record_ShouldNotKeepServerErrors() throws Exception {
+        TrafficCorpusInterceptor recorder = interceptor(HttpClientProperties.Corpus.Mode.RECORD,
+                dir.resolve("errors.corpus"));
+        ClientHttpRequestExecution failing = (request, body) ->
+                new MockClientHttpResponse("{}".getBytes(StandardCharsets.UTF_8), HttpStatus.BAD_GATEWAY);
+
+        ClientHttpResponse response = recorder.intercept(
+                get("https://api.spoonacular.com/recipes/complexSearch?query=pasta&apiKey=" + SECRET), new byte[0], failing);
+
+        assertEquals(HttpStatus.BAD_GATEWAY, response.getStatusCode());
+        assertEquals(0, recorder.corpus().size());
+    }
+
+    @Test
+    void key_ShouldDropSecretsAndSortParameters() {
+        assertEquals("GET /recipes/complexSearch?cuisine=italian&query=pasta",
+                TrafficCorpus.key("GET", URI.create("https://x/recipes/complexSearch?query=pasta&apiKey=k&cuisine=italian")));
+    }
+
+    private static String decompressed(Path file) throws Exception {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.ISO_8859_1);
+        }
+    }
+}
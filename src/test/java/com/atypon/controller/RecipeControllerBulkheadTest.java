@@ -0,0 +1,48 @@
+package com.atypon.controller;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.client.RestTemplate;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RecipeControllerBulkheadTest {
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    @Test
+    void searchRecipes_ShouldReturn503WhenItsPartitionIsFull() {
+        Bulkhead search = bulkheads.bulkhead("api-search");
+        int held = 0;
+        while (search.tryAcquirePermission()) {
+            held++;
+        }
+        try {
+            webTestClient.get()
+                    .uri("/api/recipes/search?query=stew")
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                    .expectHeader().valueEquals("Retry-After", "1")
+                    .expectBody().jsonPath("$.error").isEqualTo("Service busy");
+            verifyNoInteractions(restTemplate);
+        } finally {
+            for (int i = 0; i < held; i++) {
+                search.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.atypon.controller;
+
+import com.atypon.cache.RecipeCaches;
+import com.atypon.model.Ingredient;
+import com.atypon.model.Nutrition;
+import com.atypon.model.Recipe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RecipeControllerConditionalGetTest {
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RecipeCaches caches;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void getRecipeInfo_ShouldReturn304ForMatchingETagWithoutCallingUpstream() {
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)))
+                .thenReturn(new ResponseEntity<>(new Recipe(7001, "Lentil Soup", null, null), HttpStatus.OK));
+
+        HttpHeaders first = webTestClient.get()
+                .uri("/api/recipes/recipe-info?recipeId=7001")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches(HttpHeaders.CACHE_CONTROL, "max-age=\\d+, public")
+                .expectBody().jsonPath("$.title").isEqualTo("Lentil Soup")
+                .returnResult()
+                .getResponseHeaders();
+        String etag = first.getETag();
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("\""));
+
+        webTestClient.get()
+                .uri("/api/recipes/recipe-info?recipeId=7001")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"other\", " + etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+
+        verify(restTemplate, times(1)).exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class));
+    }
+
+    @Test
+    void getRecipeInfo_ShouldServePreGzippedBytesWhenAccepted() throws Exception {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ingredients.add(new Ingredient("ingredient-" + i, i, "grams", new Nutrition(i)));
+        }
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)))
+                .thenReturn(new ResponseEntity<>(new Recipe(7003, "Big Stew", ingredients, null), HttpStatus.OK));
+
+        webTestClient.get()
+                .uri("/api/recipes/recipe-info?recipeId=7003")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody().jsonPath("$.extendedIngredients.length()").isEqualTo(40);
+        String identityEtag = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/recipes/recipe-info?recipeId=7003"))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding()).headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        assertFalse(identityEtag.endsWith("-gz\""));
+
+        // Plain JDK client: Reactor Netty would transparently decode the gzip body.
+        HttpResponse<byte[]> gzipped = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/recipes/recipe-info?recipeId=7003"))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, gzipped.statusCode());
+        assertEquals("gzip", gzipped.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("\"title\":\"Big Stew\""));
+        }
+        assertEquals(identityEtag.substring(0, identityEtag.length() - 1) + "-gz\"",
+                gzipped.headers().firstValue(HttpHeaders.ETAG).orElse(null));
+
+        // either validator revalidates; the 304 names the variant that would have been sent
+        HttpResponse<byte[]> revalidated = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/recipes/recipe-info?recipeId=7003"))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, identityEtag)
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(gzipped.headers().firstValue(HttpHeaders.ETAG).orElse(null),
+                revalidated.headers().firstValue(HttpHeaders.ETAG).orElse(null));
+    }
+
+    @Test
+    void getRecipeInfo_ShouldReturnBodyForStaleETag() {
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)))
+                .thenReturn(new ResponseEntity<>(new Recipe(7002, "Pea Soup", null, null), HttpStatus.OK));
+
+        webTestClient.get()
+                .uri("/api/recipes/recipe-info?recipeId=7002")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody().jsonPath("$.title").isEqualTo("Pea Soup");
+    }
+
+    @Test
+    void getRecipeInfo_ShouldServeCachedBodyForStaleETagWithoutCallingUpstream() {
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)))
+                .thenReturn(new ResponseEntity<>(new Recipe(7004, "Bean Soup", null, null), HttpStatus.OK));
+
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get()
+                    .uri("/api/recipes/recipe-info?recipeId=7004")
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.title").isEqualTo("Bean Soup");
+        }
+
+        verify(restTemplate, times(1)).exchange(argThat((URI uri) -> uri.getPath().equals("/recipes/7004/information")),
+                eq(HttpMethod.GET), isNull(), eq(Recipe.class));
+    }
+
+    @Test
+    void getRecipeInfo_ShouldCountRepresentationHitsOnTheRecipeCache() {
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)))
+                .thenReturn(new ResponseEntity<>(new Recipe(7005, "Pea Soup", null, null), HttpStatus.OK));
+        Counter hits = meterRegistry.counter("cache.gets", "cache", "recipes", "result", "hit");
+
+        webTestClient.get().uri("/api/recipes/recipe-info?recipeId=7005").exchange().expectStatus().isOk();
+        double before = hits.count();
+        for (int i = 0; i < 3; i++) {
+            webTestClient.get().uri("/api/recipes/recipe-info?recipeId=7005").exchange().expectStatus().isOk();
+        }
+
+        assertEquals(3, hits.count() - before);
+        verify(restTemplate, times(1)).exchange(argThat((URI uri) -> uri.getPath().equals("/recipes/7005/information")),
+                eq(HttpMethod.GET), isNull(), eq(Recipe.class));
+    }
+
+    @Test
+    void getRecipeInfo_ShouldNotServeTheRepresentationOnceTheRecipeLeavesTheHeap() {
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)))
+                .thenReturn(new ResponseEntity<>(new Recipe(7006, "Corn Soup", null, null), HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>(new Recipe(7006, "Corn Chowder", null, null), HttpStatus.OK));
+
+        webTestClient.get().uri("/api/recipes/recipe-info?recipeId=7006").exchange()
+                .expectBody().jsonPath("$.title").isEqualTo("Corn Soup");
+        caches.recipes().l1().invalidate(7006);
+
+        webTestClient.get().uri("/api/recipes/recipe-info?recipeId=7006").exchange()
+                .expectBody().jsonPath("$.title").isEqualTo("Corn Chowder");
+    }
+}
@@ -21,11 +21,13 @@ import java.net.URI;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// Each test stubs the same recipe ID differently and verifies upstream calls, so responses must not be cached.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "cache.enabled=false")
 class RecipeControllerIntegrationTest {
 
     @MockBean
@@ -59,6 +61,18 @@ class RecipeControllerIntegrationTest {
                 .isEqualTo(100.0);
     }
 
+    @Test
+    void getRecipeInfo_ShouldReturn504_WhenTheDeadlineLeavesNoTimeForUpstream() {
+        webTestClient.get()
+                .uri("/api/recipes/recipe-info?recipeId=457")
+                .header("X-Request-Timeout", "1")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT)
+                .expectBody().jsonPath("$.error").isEqualTo("Request deadline exceeded");
+
+        verify(restTemplate, never()).exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class));
+    }
+
     @Test
     void getCustomizedCalories_ShouldReturn5xx_WhenRecipeIdIsInvalid() {
         // Mock the RestTemplate to return a 404 Not Found response
@@ -0,0 +1,87 @@
+package com.atypon.monitoring;
+
+import com.atypon.config.AlertingProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncAlertServiceTest {
+
+    private HttpServer stub;
+    private final List<JsonNode> received = new CopyOnWriteArrayList<>();
+    private AsyncAlertService alertService;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/alerts", exchange -> {
+            received.add(mapper.readTree(exchange.getRequestBody()));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        stub.start();
+
+        AlertingProperties props = new AlertingProperties();
+        props.setWindow(Duration.ofHours(1)); // dispatch is driven manually below
+        props.setThrottle(Duration.ofHours(1));
+
+        registry = new SimpleMeterRegistry();
+        URI url = URI.create("http://127.0.0.1:" + stub.getAddress().getPort() + "/alerts");
+        alertService = new AsyncAlertService(props,
+                List.of(new MetricsAlertSink(registry), new WebhookAlertSink(new RestTemplate(), url)),
+                registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        alertService.close();
+        stub.stop(0);
+    }
+
+    @Test
+    void dispatch_ShouldAggregateOccurrencesPerKeyAndDeliverToWebhook() {
+        alertService.alert("spoonacular.search.failed", "first", null);
+        alertService.alert("spoonacular.search.failed", "second", new IllegalStateException("boom"));
+        alertService.alert("spoonacular.recipeInfo.failed", "other", null);
+
+        alertService.dispatch();
+
+        assertEquals(2, received.size());
+        JsonNode search = received.stream().filter(n -> n.get("key").asText().equals("spoonacular.search.failed")).findFirst().orElseThrow();
+        assertEquals(2, search.get("count").asLong());
+        assertEquals("second", search.get("message").asText());
+        assertEquals("IllegalStateException: boom", search.get("error").asText());
+        assertEquals(2.0, registry.counter("alerts.occurrences", "key", "spoonacular.search.failed").count());
+    }
+
+    @Test
+    void dispatch_ShouldHoldThrottledKeysAndDropWhenQueueIsFull() {
+        alertService.alert("k", "m", null);
+        alertService.dispatch();
+        alertService.alert("k", "m", null);
+        alertService.dispatch();
+
+        assertEquals(1, received.size());
+        assertEquals(1.0, registry.counter("alerts", "key", "k").count());
+
+        for (int i = 0; i < new AlertingProperties().getQueueCapacity() + 10; i++) {
+            alertService.alert("flood", "m", null);
+        }
+        assertEquals(10.0, registry.counter("alerts.dropped").count());
+    }
+}
@@ -0,0 +1,133 @@
+package com.atypon.monitoring;
+
+import com.atypon.config.ProfilingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrProfilerTest {
+
+    @TempDir
+    Path dir;
+
+    private JfrProfiler profiler;
+
+    /** Monitor the test threads contend on; its name shows up as the contended class. */
+    static final class HotMonitor {
+        synchronized void hold(long millis) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (profiler != null) {
+            profiler.close();
+        }
+    }
+
+    private JfrProfiler profiler(int keep) {
+        ProfilingProperties props = new ProfilingProperties();
+        props.setEnabled(true);
+        props.setDirectory(dir.toString());
+        props.setKeep(keep);
+        props.setMaxDuration(Duration.ofSeconds(5));
+        profiler = new JfrProfiler(props);
+        return profiler;
+    }
+
+    @Test
+    void record_ShouldWriteRecordingAndSummarizeContendedMonitors() throws Exception {
+        JfrProfiler jfr = profiler(3);
+        HotMonitor monitor = new HotMonitor();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread t = new Thread(() -> {
+                List<byte[]> garbage = new ArrayList<>();
+                while (!stop.get()) {
+                    monitor.hold(5);
+                    garbage.add(new byte[16 * 1024]);
+                    if (garbage.size() > 64) {
+                        garbage.clear();
+                    }
+                }
+            }, "jfr-test-" + i);
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+        JfrProfiler.Profile profile;
+        try {
+            profile = jfr.record(Duration.ofMillis(1500));
+        } finally {
+            stop.set(true);
+            for (Thread t : workers) {
+                t.join(5_000);
+            }
+        }
+
+        assertTrue(Files.size(profile.file()) > 0);
+        assertEquals(profile.sizeBytes(), Files.size(profile.file()));
+        assertTrue(profile.file().startsWith(dir));
+        assertTrue(profile.summary().keySet().containsAll(List.of("cpu", "allocation", "contention")));
+
+        List<JfrProfiler.Hotspot> contention = profile.summary().get("contention");
+        assertTrue(contention.stream().anyMatch(h -> HotMonitor.class.getName().equals(h.detail())
+                && h.frame().startsWith(HotMonitor.class.getName() + ".hold")), contention.toString());
+        assertFalse(jfr.isRunning());
+        assertNotNull(jfr.recording(profile.id()));
+    }
+
+    @Test
+    void record_ShouldRefuseASecondConcurrentRecording() throws Exception {
+        JfrProfiler jfr = profiler(3);
+        CompletableFuture<JfrProfiler.Profile> first = CompletableFuture.supplyAsync(() -> jfr.record(Duration.ofSeconds(1)));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!jfr.isRunning() && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertThrows(JfrProfiler.BusyException.class, () -> jfr.record(Duration.ofSeconds(1)));
+        assertNotNull(first.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void record_ShouldKeepOnlyTheNewestRecordings() {
+        JfrProfiler jfr = profiler(1);
+        JfrProfiler.Profile older = jfr.record(Duration.ofMillis(200));
+        JfrProfiler.Profile newer = jfr.record(Duration.ofMillis(200));
+
+        assertNull(jfr.recording(older.id()));
+        assertFalse(Files.exists(older.file()));
+        assertEquals(List.of(newer.id()), jfr.recordings().stream().map(JfrProfiler.Profile::id).toList());
+    }
+
+    @Test
+    void boundedDuration_ShouldDefaultAndCap() {
+        ProfilingProperties props = new ProfilingProperties();
+        props.setDefaultDuration(Duration.ofSeconds(30));
+        props.setMaxDuration(Duration.ofMinutes(2));
+        JfrProfiler jfr = new JfrProfiler(props);
+        assertEquals(Duration.ofSeconds(30), jfr.boundedDuration(null));
+        assertEquals(Duration.ofSeconds(30), jfr.boundedDuration(Duration.ZERO));
+        assertEquals(Duration.ofMinutes(2), jfr.boundedDuration(Duration.ofHours(1)));
+        assertEquals(Duration.ofSeconds(2), jfr.boundedDuration(Duration.ofSeconds(2)));
+    }
+}
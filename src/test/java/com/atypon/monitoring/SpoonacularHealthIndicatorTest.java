@@ -0,0 +1,109 @@
+package com.atypon.monitoring;
+
+import com.atypon.client.ApiKeyPool;
+import com.atypon.client.OutboundTrafficStats;
+import com.atypon.client.SpoonacularQuota;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.config.SpoonacularHealthProperties;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SpoonacularHealthIndicatorTest {
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+
+    private SpoonacularConfig config() {
+        SpoonacularConfig config = new SpoonacularConfig();
+        config.setBaseUrl("http://localhost:9000");
+        config.setApiKey("key");
+        return config;
+    }
+
+    private static ApiKeyPool keys(SpoonacularConfig config) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new ApiKeyPool(config, new SpoonacularQuota(registry), RateLimiterRegistry.ofDefaults(), registry);
+    }
+
+    @Test
+    void health_ShouldBeDerivedFromTrafficWithoutCallingUpstream() {
+        SpoonacularHealthProperties props = new SpoonacularHealthProperties();
+        props.setPassiveMinSamples(10);
+        OutboundTrafficStats stats = new OutboundTrafficStats(props);
+        SpoonacularHealthIndicator indicator = new SpoonacularHealthIndicator(config(), keys(config()), props, restTemplate, stats);
+
+        for (int i = 0; i < 10; i++) {
+            stats.record(200, Duration.ofMillis(20).toNanos());
+        }
+        Health up = indicator.health();
+        assertEquals(Status.UP, up.getStatus());
+        assertEquals("traffic", up.getDetails().get("source"));
+
+        for (int i = 0; i < 20; i++) {
+            stats.record(503, Duration.ofMillis(20).toNanos());
+        }
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+
+        indicator.refreshLiveCheckIfIdle();
+        verify(restTemplate, never()).getForEntity(any(URI.class), eq(String.class));
+    }
+
+    @Test
+    void health_ShouldUseBackgroundLiveCheckWhenTrafficIsSparse() {
+        SpoonacularHealthProperties props = new SpoonacularHealthProperties();
+        props.setLiveCheckEnabled(true);
+        props.setCacheTtl(Duration.ofHours(1));
+        OutboundTrafficStats stats = new OutboundTrafficStats(props);
+        SpoonacularHealthIndicator indicator = new SpoonacularHealthIndicator(config(), keys(config()), props, restTemplate, stats);
+        try {
+            indicator.refreshLiveCheckIfIdle();
+            verify(restTemplate, atLeastOnce()).getForEntity(any(URI.class), eq(String.class));
+
+            Health health = indicator.health();
+            assertEquals(Status.UP, health.getStatus());
+            assertEquals("liveCheck", health.getDetails().get("source"));
+        } finally {
+            indicator.close();
+        }
+    }
+
+    @Test
+    void health_ShouldBeDownWhenEveryKeyIsExhausted() {
+        SpoonacularConfig config = config();
+        SpoonacularConfig.ApiKey second = new SpoonacularConfig.ApiKey();
+        second.setName("team-b");
+        second.setKey("key-b");
+        config.setApiKeys(List.of(second));
+        ApiKeyPool keys = keys(config);
+        SpoonacularHealthProperties props = new SpoonacularHealthProperties();
+        SpoonacularHealthIndicator indicator = new SpoonacularHealthIndicator(config, keys, props, restTemplate,
+                new OutboundTrafficStats(props));
+
+        keys.onResponse("default", 402, new HttpHeaders());
+        Health oneLeft = indicator.health();
+        assertEquals(Status.UP, oneLeft.getStatus());
+        assertEquals(Map.of("configured", 2, "healthy", 1), oneLeft.getDetails().get("apiKeys"));
+
+        keys.onResponse("team-b", 402, new HttpHeaders());
+        Health none = indicator.health();
+        assertEquals(Status.DOWN, none.getStatus());
+        assertEquals("apiKeys", none.getDetails().get("source"));
+    }
+}
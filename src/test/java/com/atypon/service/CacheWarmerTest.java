@@ -0,0 +1,131 @@
+package com.atypon.service;
+
+import com.atypon.cache.CompactRecipe;
+import com.atypon.cache.RecipeCaches;
+import com.atypon.client.ApiKeyPool;
+import com.atypon.client.SpoonacularQuota;
+import com.atypon.config.CacheProperties;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.model.Recipe;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CacheWarmerTest {
+
+    private final ApiKeyPool keys = keys("test");
+
+    private static ApiKeyPool keys(String apiKey) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SpoonacularConfig config = new SpoonacularConfig();
+        config.setApiKey(apiKey);
+        return new ApiKeyPool(config, new SpoonacularQuota(registry), RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(100)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ZERO)
+                .build()), registry);
+    }
+
+    @Test
+    void start_ShouldWarmConfiguredKeysWithinBudget() throws Exception {
+        SpoonacularService service = mock(SpoonacularService.class);
+        when(service.getRecipeInfo(anyInt())).thenReturn(new Recipe());
+        CacheProperties props = new CacheProperties();
+        props.getWarmup().setRecipeIds(List.of(1, 2, 3, 4));
+        props.getWarmup().setQueries(List.of("pasta|italian"));
+        props.getWarmup().setMaxRequests(3);
+
+        CacheWarmer warmer = new CacheWarmer(service, RecipeCaches.disabled(), props, keys,
+                new SpoonacularQuota(new SimpleMeterRegistry()));
+        assertFalse(warmer.isSettled());
+
+        warmer.start();
+        awaitSettled(warmer);
+
+        assertEquals(CacheWarmer.State.STOPPED, warmer.state());
+        assertEquals(3, warmer.completed());
+        verify(service, times(3)).getRecipeInfo(anyInt());
+    }
+
+    @Test
+    void start_ShouldCountFailedKeysOnlyAsFailed() throws Exception {
+        SpoonacularService service = mock(SpoonacularService.class);
+        when(service.getRecipeInfo(anyInt())).thenReturn(new Recipe());
+        when(service.getRecipeInfo(2)).thenThrow(new IllegalStateException("Failed to fetch recipe information"));
+        CacheProperties props = new CacheProperties();
+        props.getWarmup().setRecipeIds(List.of(1, 2, 3));
+
+        CacheWarmer warmer = new CacheWarmer(service, RecipeCaches.disabled(), props, keys,
+                new SpoonacularQuota(new SimpleMeterRegistry()));
+        warmer.start();
+        awaitSettled(warmer);
+
+        assertEquals(CacheWarmer.State.DONE, warmer.state());
+        assertEquals(2, warmer.completed());
+        assertEquals(1, warmer.failed());
+    }
+
+    @Test
+    void close_ShouldRecordHottestKeysForNextStart(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("hot-keys.txt");
+        CacheProperties props = new CacheProperties();
+        props.getWarmup().setRecordFile(file.toString());
+        RecipeCaches caches = new RecipeCaches(props, new SimpleMeterRegistry());
+        caches.recipes().put(7, CompactRecipe.of(new Recipe()));
+        caches.recipes().put(9, CompactRecipe.of(new Recipe()));
+        caches.recipes().get(9);
+
+        SpoonacularService service = mock(SpoonacularService.class);
+        new CacheWarmer(service, caches, props, keys, new SpoonacularQuota(new SimpleMeterRegistry())).close();
+        assertEquals(List.of("recipe:9", "recipe:7"), Files.readAllLines(file));
+
+        CacheWarmer next = new CacheWarmer(service, RecipeCaches.disabled(), props, keys,
+                new SpoonacularQuota(new SimpleMeterRegistry()));
+        next.start();
+        awaitSettled(next);
+        assertEquals(CacheWarmer.State.DONE, next.state());
+        verify(service).getRecipeInfo(9);
+        verify(service).getRecipeInfo(7);
+    }
+
+    @Test
+    void start_ShouldStopWithoutAUsableApiKey() throws Exception {
+        SpoonacularService service = mock(SpoonacularService.class);
+        CacheProperties props = new CacheProperties();
+        props.getWarmup().setRecipeIds(List.of(1, 2));
+
+        CacheWarmer warmer = new CacheWarmer(service, RecipeCaches.disabled(), props, keys(""),
+                new SpoonacularQuota(new SimpleMeterRegistry()));
+        warmer.start();
+        awaitSettled(warmer);
+
+        assertEquals(CacheWarmer.State.STOPPED, warmer.state());
+        assertEquals("no usable API key", warmer.stopReason());
+        verifyNoInteractions(service);
+    }
+
+    private static void awaitSettled(CacheWarmer warmer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!warmer.isSettled() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(warmer.isSettled());
+    }
+}
@@ -0,0 +1,119 @@
+package com.atypon.service;
+
+import com.atypon.cache.CompactRecipe;
+import com.atypon.cache.RecipeCaches;
+import com.atypon.client.ApiKeyPool;
+import com.atypon.client.SpoonacularQuota;
+import com.atypon.config.CacheProperties;
+import com.atypon.config.SpoonacularConfig;
+import com.atypon.model.Recipe;
+import com.atypon.web.InboundLoadFilter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipePrefetcherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ApiKeyPool keys(RateLimiterRegistry rateLimiters) {
+        SpoonacularConfig config = new SpoonacularConfig();
+        config.setApiKey("test");
+        return new ApiKeyPool(config, new SpoonacularQuota(registry), rateLimiters, registry);
+    }
+
+    private RecipePrefetcher prefetcher(CacheProperties props, RecipeCaches caches, ApiKeyPool keys) {
+        return new RecipePrefetcher(props, caches, keys, new SpoonacularQuota(registry),
+                new InboundLoadFilter(registry), registry);
+    }
+
+    private RecipePrefetcher prefetcher(CacheProperties props, RecipeCaches caches) {
+        return prefetcher(props, caches, keys(RateLimiterRegistry.ofDefaults()));
+    }
+
+    private static List<Recipe> results(int... ids) {
+        return Arrays.stream(ids).mapToObj(id -> new Recipe(id, "r" + id, null, null)).toList();
+    }
+
+    @Test
+    void afterSearch_ShouldPrefetchTopResultsAndCountUsefulHits() throws Exception {
+        CacheProperties props = new CacheProperties();
+        props.getPrefetch().setEnabled(true);
+        props.getPrefetch().setTopN(2);
+        RecipeCaches caches = new RecipeCaches(props, registry);
+        Set<Integer> loaded = ConcurrentHashMap.newKeySet();
+
+        try (RecipePrefetcher prefetcher = prefetcher(props, caches)) {
+            prefetcher.afterSearch(results(11, 12, 13), id -> {
+                loaded.add(id);
+                caches.recipes().put(id, CompactRecipe.of(new Recipe(id, "r" + id, null, null)));
+            });
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (registry.get("prefetch.requests").tag("result", "completed").counter().count() < 2
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(Set.of(11, 12), loaded);
+
+            prefetcher.recordHit(12);
+            prefetcher.recordHit(12);
+            prefetcher.recordHit(13);
+            assertEquals(1.0, registry.get("prefetch.useful").counter().count());
+        }
+    }
+
+    @Test
+    void afterSearch_ShouldDropUnderInteractiveLoad() {
+        CacheProperties props = new CacheProperties();
+        props.getPrefetch().setEnabled(true);
+        props.getPrefetch().setMaxInteractiveInFlight(0);
+        Set<Integer> loaded = ConcurrentHashMap.newKeySet();
+
+        try (RecipePrefetcher prefetcher = prefetcher(props, new RecipeCaches(props, registry))) {
+            prefetcher.afterSearch(results(21, 22, 23), loaded::add);
+        }
+
+        assertTrue(loaded.isEmpty());
+        assertEquals(3.0, registry.get("prefetch.requests").tag("result", "dropped_load").counter().count());
+    }
+
+    @Test
+    void afterSearch_ShouldDropWhenNoApiKeyHasAPermissionFree() throws Exception {
+        CacheProperties props = new CacheProperties();
+        props.getPrefetch().setEnabled(true);
+        props.getPrefetch().setTopN(2);
+        RateLimiterRegistry rateLimiters = RateLimiterRegistry.ofDefaults();
+        rateLimiters.addConfiguration("spoonacular-key", RateLimiterConfig.custom()
+                .limitForPeriod(1)
+                .limitRefreshPeriod(Duration.ofHours(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        ApiKeyPool keys = keys(rateLimiters);
+        keys.acquire(); // an interactive call took the only permission
+        Set<Integer> loaded = ConcurrentHashMap.newKeySet();
+
+        try (RecipePrefetcher prefetcher = prefetcher(props, new RecipeCaches(props, registry), keys)) {
+            prefetcher.afterSearch(results(31, 32), loaded::add);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (registry.get("prefetch.requests").tag("result", "dropped_budget").counter().count() < 2
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertTrue(loaded.isEmpty());
+        assertEquals(2.0, registry.get("prefetch.requests").tag("result", "dropped_budget").counter().count());
+    }
+}
@@ -1,24 +1,40 @@
 package com.atypon.service;
 
+import com.atypon.cache.RecipeCaches;
+import com.atypon.client.DeadlineExceededException;
+import com.atypon.client.PeerCacheClient;
 import com.atypon.client.SpoonacularClient;
+import com.atypon.config.CacheProperties;
+import com.atypon.config.DeadlineProperties;
 import com.atypon.model.ExcludeRequest;
 import com.atypon.model.Ingredient;
 import com.atypon.model.Nutrition;
 import com.atypon.model.Recipe;
+import com.atypon.web.RequestIdFilter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.HttpClientErrorException;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,7 +43,6 @@ class SpoonacularServiceTest {
     @Mock
     private SpoonacularClient client;
 
-    @InjectMocks
     private SpoonacularService spoonacularService;
 
     private ObjectMapper objectMapper;
@@ -35,6 +50,8 @@ class SpoonacularServiceTest {
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
+        spoonacularService = new SpoonacularService(client, RecipeCaches.disabled(), RecipePrefetcher.disabled(),
+                PeerCacheClient.disabled());
     }
 
     @Test
@@ -130,6 +147,81 @@ class SpoonacularServiceTest {
         assertEquals("Failed to fetch recipe information", exception.getMessage());
     }
 
+    @Test
+    void getRecipeInfo_ShouldNotCallUpstreamAgain_ForRecentlyMissingRecipe() {
+        SpoonacularService cached = new SpoonacularService(client,
+                new RecipeCaches(new CacheProperties(), new SimpleMeterRegistry()), RecipePrefetcher.disabled(),
+                PeerCacheClient.disabled());
+        int missingRecipeId = 424242;
+        when(client.recipeInfo(missingRecipeId)).thenThrow(HttpClientErrorException.create(
+                HttpStatus.NOT_FOUND, "Not Found", HttpHeaders.EMPTY, null, null));
+
+        for (int i = 0; i < 3; i++) {
+            Exception exception = assertThrows(IllegalStateException.class, () -> cached.getRecipeInfo(missingRecipeId));
+            assertEquals("Failed to fetch recipe information", exception.getMessage());
+        }
+        Exception exception = assertThrows(IllegalStateException.class,
+                () -> cached.getCustomizedCalories(missingRecipeId, new ExcludeRequest()));
+        assertEquals("Invalid recipeId", exception.getMessage());
+        verify(client, times(1)).recipeInfo(missingRecipeId);
+    }
+
+    @Test
+    void getRecipeInfo_ShouldShareOneUpstreamCall_ForConcurrentMisses() throws Exception {
+        int recipeId = 515;
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.recipeInfo(recipeId)).thenAnswer(invocation -> {
+            called.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ResponseEntity<>(new Recipe(recipeId, "Ramen", null, null), HttpStatus.OK);
+        });
+
+        CompletableFuture<Recipe> first = CompletableFuture.supplyAsync(() -> spoonacularService.getRecipeInfo(recipeId));
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Recipe> second = CompletableFuture.supplyAsync(() -> spoonacularService.getRecipeInfo(recipeId));
+        Thread.sleep(100); // let the second caller join the in-flight fetch
+        release.countDown();
+
+        assertEquals("Ramen", first.get(5, TimeUnit.SECONDS).getTitle());
+        assertEquals("Ramen", second.get(5, TimeUnit.SECONDS).getTitle());
+        verify(client, times(1)).recipeInfo(recipeId);
+    }
+
+    @Test
+    void getRecipeInfo_ShouldStopWaitingForTheInFlightCall_WhenItsDeadlinePasses() throws Exception {
+        int recipeId = 516;
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.recipeInfo(recipeId)).thenAnswer(invocation -> {
+            called.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ResponseEntity<>(new Recipe(recipeId, "Pho", null, null), HttpStatus.OK);
+        });
+
+        CompletableFuture<Recipe> leader = CompletableFuture.supplyAsync(() -> spoonacularService.getRecipeInfo(recipeId));
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/recipe-info");
+        request.addHeader("X-Request-Timeout", "50");
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long start = System.nanoTime();
+        new RequestIdFilter(new DeadlineProperties(), new SimpleMeterRegistry())
+                .doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                    try {
+                        spoonacularService.getRecipeInfo(recipeId);
+                    } catch (RuntimeException e) {
+                        failure.set(e);
+                    }
+                });
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertInstanceOf(DeadlineExceededException.class, failure.get());
+        assertTrue(waitedMillis < 2_000, "waited " + waitedMillis + "ms");
+        assertEquals("Pho", leader.get(5, TimeUnit.SECONDS).getTitle());
+        verify(client, times(1)).recipeInfo(recipeId);
+    }
+
     @Test
     void getCustomizedCalories_ShouldIncludeAllIngredients_WhenNoneAreExcluded() {
         int recipeId = 123;
@@ -0,0 +1,83 @@
+package com.atypon.web;
+
+import com.atypon.config.AdminEndpointProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdminEndpointAccessFilterTest {
+
+    private static AdminEndpointAccessFilter filter(String token) {
+        AdminEndpointProperties props = new AdminEndpointProperties();
+        props.setToken(token);
+        return new AdminEndpointAccessFilter(props, new WebEndpointProperties());
+    }
+
+    private static MockHttpServletResponse call(AdminEndpointAccessFilter filter, String method, String uri,
+                                                String authorization, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void invalidation_ShouldRequireTheBearerToken() throws Exception {
+        AdminEndpointAccessFilter filter = filter("secret");
+
+        MockFilterChain denied = new MockFilterChain();
+        MockHttpServletResponse missing = call(filter, "DELETE", "/actuator/invalidation", null, denied);
+        assertEquals(401, missing.getStatus());
+        assertEquals("Bearer", missing.getHeader(HttpHeaders.WWW_AUTHENTICATE));
+        assertEquals(401, call(filter, "GET", "/actuator/invalidation", "Bearer other", denied).getStatus());
+        assertNull(denied.getRequest());
+
+        MockFilterChain allowed = new MockFilterChain();
+        assertEquals(200, call(filter, "DELETE", "/actuator/invalidation", "Bearer secret", allowed).getStatus());
+        assertNotNull(allowed.getRequest());
+    }
+
+    @Test
+    void invalidation_ShouldRequireTheTokenOnEveryPathSpringRoutesToIt() throws Exception {
+        AdminEndpointAccessFilter filter = filter("secret");
+
+        for (String uri : new String[] {"/actuator/invalid%61tion", "/actuator/invalidation;x=1",
+                "/actuator//invalidation", "/actuator/invalidation/"}) {
+            MockFilterChain chain = new MockFilterChain();
+            assertEquals(401, call(filter, "DELETE", uri, null, chain).getStatus(), uri);
+            assertNull(chain.getRequest(), uri);
+        }
+    }
+
+    @Test
+    void topClients_ShouldBeGuardedByDefault() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        assertEquals(401, call(filter("secret"), "GET", "/actuator/topclients", null, chain).getStatus());
+        assertEquals(401, call(filter("secret"), "GET", "/actuator/topclient%73", null, chain).getStatus());
+        assertEquals(401, call(filter("secret"), "GET", "/actuator/topclients;a", null, chain).getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void withoutToken_ShouldRefuseEveryoneButLeaveOtherEndpointsOpen() throws Exception {
+        AdminEndpointAccessFilter filter = filter(null);
+
+        MockFilterChain denied = new MockFilterChain();
+        assertEquals(401, call(filter, "DELETE", "/actuator/invalidation", "Bearer ", denied).getStatus());
+        assertNull(denied.getRequest());
+
+        MockFilterChain open = new MockFilterChain();
+        assertEquals(200, call(filter, "GET", "/actuator/health", null, open).getStatus());
+        assertNotNull(open.getRequest());
+    }
+}
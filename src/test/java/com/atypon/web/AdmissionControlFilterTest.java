@@ -0,0 +1,111 @@
+package com.atypon.web;
+
+import com.atypon.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdmissionControlFilter filter(Duration interval, Duration target) {
+        AdmissionControlProperties props = new AdmissionControlProperties();
+        props.setMaxConcurrent(1);
+        props.setInterval(interval);
+        props.setTargetDelay(target);
+        return new AdmissionControlFilter(props, registry);
+    }
+
+    @Test
+    void doFilter_ShouldShedWith503WhenNoSlotFreesUpWithinInterval() throws Exception {
+        AdmissionControlFilter filter = filter(Duration.ofMillis(50), Duration.ofMillis(5));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Void> inFlight = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/recipes/search"), new MockHttpServletResponse(),
+                        (req, res) -> {
+                            running.countDown();
+                            try {
+                                finish.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS)); // holds the only slot
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/recipes/search"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals("{\"error\":\"Service overloaded\"}", response.getContentAsString());
+        assertNull(chain.getRequest());
+        assertEquals(1.0, registry.get("http.server.admission.shed").counter().count());
+
+        finish.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse ok = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/recipes/search"), ok, new MockFilterChain());
+        assertEquals(200, ok.getStatus());
+    }
+
+    @Test
+    void admit_ShouldOnlyAllowTargetDelayOnceQueueIsStanding() throws Exception {
+        AdmissionControlFilter filter = filter(Duration.ofMillis(400), Duration.ofMillis(1));
+        assertTrue(filter.admit());
+
+        // Overlapping waiters keep the queue non-empty for longer than one interval.
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(filter::admit);
+        awaitQueued(1);
+        Thread.sleep(200);
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(filter::admit);
+        awaitQueued(2);
+        Thread.sleep(250);
+
+        long start = System.nanoTime();
+        boolean admitted = filter.admit();
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(admitted);
+        assertTrue(waitedMillis < 100, "standing queue should shed quickly, waited " + waitedMillis + " ms");
+        assertFalse(first.get());
+        assertFalse(second.get());
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("http.server.admission.queued").gauge().value() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void shouldNotFilter_ProbesAndDocs() throws Exception {
+        AdmissionControlFilter filter = filter(Duration.ofMillis(10), Duration.ofMillis(1));
+        assertTrue(filter.admit());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health/liveness"), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+}
@@ -0,0 +1,80 @@
+package com.atypon.web;
+
+import com.atypon.monitoring.BulkheadMetrics;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointBulkheadInterceptorTest {
+
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EndpointBulkheadInterceptor interceptor = new EndpointBulkheadInterceptor(bulkheads);
+
+    static class Handlers {
+        @EndpointBulkhead("api-slow")
+        public void slow() {
+        }
+
+        @EndpointBulkhead("api-fast")
+        public void fast() {
+        }
+
+        public void unpartitioned() {
+        }
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), name);
+    }
+
+    @Test
+    void preHandle_ShouldRejectAtOnceWhenPartitionIsFullWithoutAffectingOthers() throws Exception {
+        new BulkheadMetrics(bulkheads, meterRegistry);
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(first, response, handler("slow")));
+        assertEquals(1.0, meterRegistry.get("bulkhead.utilization").tag("name", "api-slow").gauge().value());
+
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest(), response, handler("slow")));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 100);
+        assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("name", "api-slow").counter().count());
+
+        // other partitions and unannotated handlers are independent
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), response, handler("fast")));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), response, handler("unpartitioned")));
+
+        interceptor.afterCompletion(first, response, handler("slow"), null);
+        assertEquals(0.0, meterRegistry.get("bulkhead.utilization").tag("name", "api-slow").gauge().value());
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), response, handler("slow")));
+    }
+
+    @Test
+    void afterCompletion_ShouldReleaseOnlyOnce() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, handler("slow")));
+
+        interceptor.afterCompletion(request, response, handler("slow"), null);
+        interceptor.afterCompletion(request, response, handler("slow"), null);
+
+        assertEquals(1, bulkheads.bulkhead("api-slow").getMetrics().getAvailableConcurrentCalls());
+    }
+}
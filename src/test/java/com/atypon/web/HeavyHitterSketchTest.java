@@ -0,0 +1,49 @@
+package com.atypon.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHitterSketchTest {
+
+    @Test
+    void offer_ShouldBoundTrueCountsBetweenGuaranteedAndEstimate() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(32, 0);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] truth = new int[1_000];
+        for (int i = 0; i < 50_000; i++) {
+            // skewed: a handful of keys take most of the traffic
+            int key = random.nextInt(4) == 0 ? random.nextInt(truth.length) : random.nextInt(8);
+            truth[key]++;
+            sketch.offer("k" + key);
+        }
+
+        List<HeavyHitterSketch.Entry> top = sketch.top(8);
+        assertEquals(8, top.size());
+        for (HeavyHitterSketch.Entry e : top) {
+            int actual = truth[Integer.parseInt(e.key().substring(1))];
+            assertTrue(e.guaranteed() <= actual && actual <= e.count(), e.toString());
+            assertTrue(Integer.parseInt(e.key().substring(1)) < 8, "heavy key expected, got " + e);
+        }
+        assertEquals(32, sketch.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).count() >= top.get(i).count());
+        }
+    }
+
+    @Test
+    void counts_ShouldHalveEveryDecayPeriod() throws InterruptedException {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(4, 100);
+        for (int i = 0; i < 40; i++) {
+            sketch.offer("a");
+        }
+        Thread.sleep(150);
+
+        HeavyHitterSketch.Entry a = sketch.top(1).get(0);
+        assertTrue(a.count() == 20 || a.count() == 10, a.toString());
+    }
+}
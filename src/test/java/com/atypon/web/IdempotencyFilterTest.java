@@ -0,0 +1,81 @@
+package com.atypon.web;
+
+import com.atypon.config.IdempotencyProperties;
+import com.atypon.idempotency.InMemoryIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(new IdempotencyProperties(),
+            new InMemoryIdempotencyStore(), new SimpleMeterRegistry());
+
+    private static MockHttpServletRequest post(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/recipes/calories");
+        request.setQueryString("recipeId=1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.addHeader("Idempotency-Key", "k-1");
+        return request;
+    }
+
+    @Test
+    void doFilter_ShouldAnswer409WhenTheKeyIsReusedWithAnotherPayload() throws Exception {
+        filter.doFilter(post("{\"excludeIngredients\":[]}"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(post("{\"excludeIngredients\":[\"salt\"]}"), response, chain);
+
+        assertEquals(409, response.getStatus());
+        assertEquals("application/problem+json", response.getContentType());
+        assertEquals("k-1", response.getHeader("Idempotency-Key"));
+        assertTrue(response.getContentAsString().contains("different request payload"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void doFilter_ShouldAnswer409WhileTheFirstRequestIsInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(post("{}"), new MockHttpServletResponse(), slow);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(post("{}"), response, new MockFilterChain());
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(409, response.getStatus());
+        assertEquals("IN_FLIGHT", response.getHeader(IdempotencyFilter.HEADER_STATUS));
+        assertEquals("{\"title\":\"Idempotency conflict\",\"status\":409,"
+                + "\"detail\":\"Request with the same idempotency key is still in-flight\"}", response.getContentAsString());
+    }
+}
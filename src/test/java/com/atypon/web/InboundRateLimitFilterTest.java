@@ -0,0 +1,149 @@
+package com.atypon.web;
+
+import com.atypon.config.InboundRateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InboundRateLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static InboundRateLimitProperties props(int limit, int threshold, int sketchCapacity) {
+        InboundRateLimitProperties props = new InboundRateLimitProperties();
+        props.setLimitForPeriod(limit);
+        props.setHeavyHitterThreshold(threshold);
+        props.setSketchCapacity(sketchCapacity);
+        return props;
+    }
+
+    private InboundRateLimitFilter filter(int limit, int threshold, int sketchCapacity) {
+        return new InboundRateLimitFilter(props(limit, threshold, sketchCapacity), registry);
+    }
+
+    private static MockHttpServletRequest request(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/search");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    @Test
+    void doFilter_ShouldAnswer429OnceAHeavyHitterSpentItsBudget() throws Exception {
+        InboundRateLimitFilter filter = filter(10, 4, 16);
+        for (int i = 0; i < 10; i++) {
+            filter.doFilter(request("10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        MockHttpServletResponse denied = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("10.0.0.1"), denied, chain);
+
+        assertEquals(429, denied.getStatus());
+        assertEquals("60", denied.getHeader("Retry-After"));
+        assertEquals("{\"error\":\"Inbound rate limit exceeded\"}", denied.getContentAsString());
+        assertNull(chain.getRequest());
+        assertEquals(0, filter.availablePermissions("10.0.0.1"));
+        assertEquals(1.0, registry.get("rate_limit.inbound.denied").counter().count());
+        assertEquals(1.0, registry.get("rate_limit.inbound.clients").tag("state", "limited").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldChargeTheQuotaPointsTheRequestSpent() throws Exception {
+        InboundRateLimitFilter filter = filter(10, 0, 16);
+        FilterChain upstreamCall = (req, res) -> RequestCost.add(3.9);
+        FilterChain cacheHit = (req, res) -> { };
+
+        filter.doFilter(request("10.0.0.3"), new MockHttpServletResponse(), upstreamCall);
+        assertEquals(6, filter.availablePermissions("10.0.0.3"));
+        filter.doFilter(request("10.0.0.3"), new MockHttpServletResponse(), cacheHit);
+        assertEquals(5, filter.availablePermissions("10.0.0.3"));
+        filter.doFilter(request("10.0.0.3"), new MockHttpServletResponse(), upstreamCall);
+        filter.doFilter(request("10.0.0.3"), new MockHttpServletResponse(), upstreamCall); // costs 4, only 1 left
+
+        assertEquals(0, filter.availablePermissions("10.0.0.3"));
+        MockHttpServletResponse denied = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.3"), denied, cacheHit);
+        assertEquals(429, denied.getStatus());
+        assertEquals(13.0, registry.get("rate_limit.inbound.charged").counter().count());
+        assertEquals(13, filter.topClients(1).get(0).count());
+    }
+
+    @Test
+    void doFilter_ShouldLetCacheHitsThroughFreeWhenMinCostIsZero() throws Exception {
+        InboundRateLimitProperties props = props(2, 0, 16);
+        props.setMinCost(0);
+        InboundRateLimitFilter filter = new InboundRateLimitFilter(props, registry);
+        filter.doFilter(request("10.0.0.4"), new MockHttpServletResponse(), (req, res) -> RequestCost.add(2));
+
+        for (int i = 0; i < 5; i++) {
+            filter.doFilter(request("10.0.0.5"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        assertEquals(0, filter.availablePermissions("10.0.0.4"));
+        assertEquals(-1, filter.availablePermissions("10.0.0.5"));
+        MockHttpServletResponse denied = new MockHttpServletResponse();
+        filter.doFilter(request("10.0.0.4"), denied, new MockFilterChain());
+        assertEquals(429, denied.getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldNotChargePeerLookups() throws Exception {
+        InboundRateLimitFilter filter = filter(2, 0, 16);
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/internal/peers/recipes/" + i);
+            request.setRemoteAddr("10.0.0.6");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+
+        assertEquals(-1, filter.availablePermissions("10.0.0.6"));
+    }
+
+    @Test
+    void charge_ShouldNotCreateBucketsForLightOrRotatingClients() {
+        InboundRateLimitFilter filter = filter(100, 5, 64);
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(filter.charge("172.16." + (i >> 8) + "." + (i & 0xff), 1, 0));
+        }
+
+        assertEquals(64.0, registry.get("rate_limit.inbound.clients").tag("state", "counted").gauge().value());
+        assertEquals(0.0, registry.get("rate_limit.inbound.clients").tag("state", "limited").gauge().value());
+    }
+
+    @Test
+    void topClients_ShouldSurfaceAHeavyClientAmongRotatingOnes() {
+        InboundRateLimitFilter filter = filter(1_000, 50, 64);
+        for (int i = 0; i < 5_000; i++) {
+            filter.charge("192.168.1.1", 1, 0);
+            filter.charge("172.16." + (i >> 8) + "." + (i & 0xff), 1, 0);
+        }
+
+        List<HeavyHitterSketch.Entry> top = filter.topClients(3);
+        assertEquals("192.168.1.1", top.get(0).key());
+        assertTrue(top.get(0).guaranteed() >= 50);
+        assertTrue(top.get(0).count() >= 5_000);
+        assertNotNull(filter.limiter("192.168.1.1"));
+        assertTrue(filter.availablePermissions("192.168.1.1") >= 0);
+        assertEquals(-1, filter.availablePermissions("172.16.0.1"));
+    }
+
+    @Test
+    void zeroThreshold_ShouldGiveEveryClientABucket() {
+        InboundRateLimitFilter filter = filter(10, 0, 16);
+
+        assertNotNull(filter.charge("10.0.0.2", 1, 0));
+        assertEquals(9, filter.availablePermissions("10.0.0.2"));
+        filter.charge("10.0.0.2", 50, 0); // more than a whole period: the bucket is emptied, not overdrawn
+        assertEquals(0, filter.availablePermissions("10.0.0.2"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.atypon.web;
+
+import com.atypon.config.CacheProperties;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PeerAccessFilterTest {
+
+    private static PeerAccessFilter filter(String token) {
+        CacheProperties props = new CacheProperties();
+        props.getPeers().setToken(token);
+        props.getPeers().setTimeout(Duration.ofMillis(500));
+        return new PeerAccessFilter(props);
+    }
+
+    private static MockHttpServletResponse call(PeerAccessFilter filter, String uri, String authorization,
+                                                FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void peerLookup_ShouldRequireThePeerToken() throws Exception {
+        PeerAccessFilter filter = filter("secret");
+
+        MockFilterChain denied = new MockFilterChain();
+        MockHttpServletResponse missing = call(filter, "/internal/peers/recipes/1", null, denied);
+        assertEquals(401, missing.getStatus());
+        assertEquals("Bearer", missing.getHeader(HttpHeaders.WWW_AUTHENTICATE));
+        assertEquals(401, call(filter, "/internal/peers/recipes/1", "Bearer other", denied).getStatus());
+        assertNull(denied.getRequest());
+
+        MockFilterChain allowed = new MockFilterChain();
+        assertEquals(200, call(filter, "/internal/peers/recipes/1", "Bearer secret", allowed).getStatus());
+        assertNotNull(allowed.getRequest());
+    }
+
+    @Test
+    void peerLookup_ShouldRequireTheTokenOnEveryPathSpringRoutesToIt() throws Exception {
+        PeerAccessFilter filter = filter("secret");
+
+        for (String uri : new String[] {"/internal/peer%73/recipes/1", "/internal/peers;x/recipes/1",
+                "/internal//peers/recipes/1"}) {
+            MockFilterChain chain = new MockFilterChain();
+            assertEquals(401, call(filter, uri, null, chain).getStatus(), uri);
+            assertNull(chain.getRequest(), uri);
+        }
+    }
+
+    @Test
+    void peerLookup_ShouldRunUnderThePeerTimeout() throws Exception {
+        AtomicLong remaining = new AtomicLong(-1);
+
+        call(filter("secret"), "/internal/peers/recipes/1", "Bearer secret",
+                (req, resp) -> remaining.set(RequestDeadline.remainingMillis()));
+
+        assertTrue(remaining.get() > 0 && remaining.get() <= 500, "remaining " + remaining.get());
+        assertNull(RequestDeadline.current());
+    }
+
+    @Test
+    void withoutToken_ShouldRefusePeersButLeaveTheApiOpen() throws Exception {
+        PeerAccessFilter filter = filter(null);
+
+        MockFilterChain denied = new MockFilterChain();
+        assertEquals(401, call(filter, "/internal/peers/recipes/1", "Bearer ", denied).getStatus());
+        assertNull(denied.getRequest());
+
+        MockFilterChain open = new MockFilterChain();
+        assertEquals(200, call(filter, "/api/recipes/1", null, open).getStatus());
+        assertNotNull(open.getRequest());
+    }
+}
@@ -0,0 +1,86 @@
+package com.atypon.web;
+
+import com.atypon.config.ProfilingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProfilingAccessFilterTest {
+
+    private static ProfilingAccessFilter filter(boolean enabled, String token) {
+        ProfilingProperties props = new ProfilingProperties();
+        props.setEnabled(enabled);
+        props.setToken(token);
+        return new ProfilingAccessFilter(props, new WebEndpointProperties());
+    }
+
+    private static MockHttpServletResponse call(ProfilingAccessFilter filter, String uri, String authorization,
+                                                MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void disabled_ShouldHideTheEndpoint() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = call(filter(false, "secret"), "/actuator/profiling", "Bearer secret", chain);
+
+        assertEquals(404, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void enabled_ShouldRequireTheBearerToken() throws Exception {
+        ProfilingAccessFilter filter = filter(true, "secret");
+
+        MockFilterChain denied = new MockFilterChain();
+        MockHttpServletResponse missing = call(filter, "/actuator/profiling", null, denied);
+        assertEquals(401, missing.getStatus());
+        assertEquals("Bearer", missing.getHeader(HttpHeaders.WWW_AUTHENTICATE));
+        assertEquals(401, call(filter, "/actuator/profiling/abc-1", "Bearer secreT", denied).getStatus());
+        assertNull(denied.getRequest());
+
+        MockFilterChain allowed = new MockFilterChain();
+        assertEquals(200, call(filter, "/actuator/profiling/abc-1", "Bearer secret", allowed).getStatus());
+        assertNotNull(allowed.getRequest());
+    }
+
+    @Test
+    void enabled_ShouldRequireTheTokenOnEveryPathSpringRoutesToIt() throws Exception {
+        ProfilingAccessFilter filter = filter(true, "secret");
+
+        for (String uri : new String[] {"/actuator/profilin%67", "/actuator/profiling;x", "/actuator//profiling/abc-1"}) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = call(filter, uri, null, chain);
+            assertEquals(401, response.getStatus(), uri);
+            assertEquals("{\"error\":\"Unauthorized\"}", response.getContentAsString(), uri);
+            assertNull(chain.getRequest(), uri);
+        }
+    }
+
+    @Test
+    void enabledWithoutToken_ShouldRefuseEveryone() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        assertEquals(401, call(filter(true, " "), "/actuator/profiling", "Bearer  ", chain).getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void otherPaths_ShouldPassThrough() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        assertEquals(200, call(filter(false, null), "/actuator/profilingx", null, chain).getStatus());
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,37 @@
+package com.atypon.web;
+
+import com.atypon.config.DeadlineProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestDeadlineTest {
+
+    @Test
+    void budget_ShouldPreferTheHeaderThenTheEndpointThenTheDefault() {
+        DeadlineProperties props = new DeadlineProperties();
+        props.setEndpoints(Map.of("/api/recipes/search", Duration.ofSeconds(6)));
+
+        assertEquals(Duration.ofMillis(2500), RequestDeadline.budget(props, "/api/recipes/search", "2500"));
+        assertEquals(Duration.ofMillis(2500), RequestDeadline.budget(props, "/api/recipes/search", "2500ms"));
+        assertEquals(Duration.ofSeconds(3), RequestDeadline.budget(props, "/api/recipes/search", " 3s "));
+        assertEquals(Duration.ofSeconds(30), RequestDeadline.budget(props, "/api/recipes/search", "10m"));
+        assertEquals(Duration.ofSeconds(6), RequestDeadline.budget(props, "/api/recipes/search", null));
+        assertEquals(Duration.ofSeconds(6), RequestDeadline.budget(props, "/api/recipes/search", "soon"));
+        assertEquals(Duration.ofSeconds(6), RequestDeadline.budget(props, "/api/recipes/search", "0"));
+        assertEquals(Duration.ofSeconds(10), RequestDeadline.budget(props, "/api/recipes/calories", null));
+    }
+
+    @Test
+    void remainingMillis_ShouldCountDownAndStopAtZero() {
+        assertEquals(Long.MAX_VALUE, RequestDeadline.remainingMillis());
+        RequestDeadline deadline = new RequestDeadline(1_000_000_000L);
+
+        assertEquals(1_000, deadline.remainingMillisAt(0));
+        assertEquals(250, deadline.remainingMillisAt(750_000_000L));
+        assertEquals(0, deadline.remainingMillisAt(2_000_000_000L));
+    }
+}
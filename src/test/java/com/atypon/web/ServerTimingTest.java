@@ -0,0 +1,156 @@
+package com.atypon.web;
+
+import com.atypon.model.Recipe;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ServerTimingTest {
+
+    @MockBean
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void apiResponse_ShouldCarryServerTimingAndRecordStages() {
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), eq(Recipe.class)))
+                .thenReturn(new ResponseEntity<>(new Recipe(8101, "Miso Soup", null, null), HttpStatus.OK));
+        long serviceBefore = stageCount("service");
+        long serializationBefore = stageCount("serialization");
+
+        HttpHeaders headers = webTestClient.get()
+                .uri("/api/recipes/recipe-info?recipeId=8101")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.title").isEqualTo("Miso Soup")
+                .returnResult()
+                .getResponseHeaders();
+
+        String serverTiming = headers.getFirst(RequestIdFilter.SERVER_TIMING);
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.matches("filter;dur=\\d+\\.\\d\\d, controller;dur=\\d+\\.\\d\\d, "
+                + "service;dur=\\d+\\.\\d\\d, total;dur=\\d+\\.\\d\\d"), serverTiming);
+        // stages are recorded when the filter chain unwinds, which can be after the client has the response
+        awaitStageCount("service", serviceBefore + 1);
+        awaitStageCount("serialization", serializationBefore + 1);
+    }
+
+    @Test
+    void nonApiResponse_ShouldNotBeTimed() {
+        webTestClient.get().uri("/actuator/health/liveness")
+                .exchange()
+                .expectHeader().doesNotExist(RequestIdFilter.SERVER_TIMING)
+                .expectHeader().exists(RequestIdFilter.HEADER);
+    }
+
+    @Test
+    void requestId_ShouldBeGeneratedOrKept() {
+        String generated = webTestClient.get().uri("/actuator/health/liveness")
+                .exchange()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getFirst(RequestIdFilter.HEADER);
+        assertNotNull(generated);
+        assertTrue(generated.matches("[0-9a-z]+-[0-9a-z]+"), generated);
+
+        webTestClient.get().uri("/actuator/health/liveness")
+                .header(RequestIdFilter.HEADER, "client-supplied")
+                .exchange()
+                .expectHeader().valueEquals(RequestIdFilter.HEADER, "client-supplied");
+    }
+
+    @Test
+    void nextId_ShouldBeUniqueAndIncreasing() {
+        String a = RequestIdFilter.nextId();
+        String b = RequestIdFilter.nextId();
+        assertNotEquals(a, b);
+        String prefix = a.substring(0, a.indexOf('-') + 1);
+        assertTrue(b.startsWith(prefix));
+        assertTrue(Long.parseLong(b.substring(prefix.length()), 36) > Long.parseLong(a.substring(prefix.length()), 36));
+    }
+
+    @Test
+    void stages_ShouldBeSelfTimesThatAddUpToTotal() {
+        RequestTiming timing = RequestTiming.begin();
+        try {
+            pause(2);
+            timing.handlerStarted();
+            long serviceStart = System.nanoTime();
+            pause(2);
+            RequestTiming.upstream(TimeUnit.MILLISECONDS.toNanos(1));
+            RequestTiming.service(serviceStart);
+            timing.bodyWriteStarted();
+            pause(1);
+            timing.handlerCompleted();
+        } finally {
+            RequestTiming.end();
+        }
+        long now = System.nanoTime();
+
+        long sum = 0;
+        for (RequestTiming.Stage stage : RequestTiming.Stage.values()) {
+            long nanos = timing.nanos(stage, now);
+            assertTrue(nanos >= 0, stage.name());
+            sum += nanos;
+        }
+        assertEquals(timing.totalNanos(now), sum);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), timing.nanos(RequestTiming.Stage.UPSTREAM, now));
+        assertTrue(timing.nanos(RequestTiming.Stage.FILTER, now) >= TimeUnit.MILLISECONDS.toNanos(2));
+        assertTrue(timing.serverTiming(now).contains("upstream;dur=1.00"));
+        assertFalse(timing.serverTiming(now).contains("serialization"));
+    }
+
+    @Test
+    void stagesThatDidNotHappen_ShouldBeReportedAsAbsent() {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        long now = System.nanoTime();
+        assertEquals(-1, timing.nanos(RequestTiming.Stage.CONTROLLER, now));
+        assertEquals(-1, timing.nanos(RequestTiming.Stage.UPSTREAM, now));
+        assertEquals(-1, timing.nanos(RequestTiming.Stage.SERIALIZATION, now));
+        assertEquals(timing.totalNanos(now), timing.nanos(RequestTiming.Stage.FILTER, now));
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.get("http.server.stage").tag("stage", stage).timer().count();
+    }
+
+    private void awaitStageCount(String stage, long expected) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (stageCount(stage) < expected && System.currentTimeMillis() < deadline) {
+            pause(10);
+        }
+        assertEquals(expected, stageCount(stage));
+    }
+
+    private static void pause(long millis) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}